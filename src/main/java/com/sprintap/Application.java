@@ -3,12 +3,14 @@ package com.sprintap;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application
  * Entry point for all modules: usermanagement, doarules, etc.
  */
 @SpringBootApplication
+@EnableScheduling
 @EnableJpaRepositories(basePackages = {
 	"com.sprintap.doarules.repository",
 	"com.sprintap.usermanagement.repository"
@@ -1,10 +1,28 @@
 package com.sprintap.doarules.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sprintap.doarules.dto.DoaBatchResolveRequest;
+import com.sprintap.doarules.dto.DoaResolveRequest;
+import com.sprintap.doarules.dto.DoaResolveResponse;
+import com.sprintap.doarules.dto.DoaRuleBulkRequest;
+import com.sprintap.doarules.dto.DoaRuleBulkResponse;
+import com.sprintap.doarules.dto.DoaRuleBulkStatusRequest;
+import com.sprintap.doarules.dto.DoaRuleExportRow;
+import com.sprintap.doarules.dto.DoaRulePageResponse;
+import com.sprintap.doarules.dto.DoaRuleRangeIssue;
 import com.sprintap.doarules.dto.DoaRuleRequest;
 import com.sprintap.doarules.dto.DoaRuleResponse;
+import com.sprintap.doarules.dto.DoaRuleStatsResponse;
+import com.sprintap.doarules.dto.DoaRuleVersionResponse;
 import com.sprintap.doarules.dto.ToggleStatusRequest;
 import com.sprintap.doarules.dto.ToggleStatusResponse;
+import com.sprintap.doarules.service.DoaRuleBulkService;
 import com.sprintap.doarules.service.DoaRuleService;
+import com.sprintap.doarules.service.DoaRuleStatsService;
+import com.sprintap.doarules.util.DoaRuleCsvFormat;
+import com.sprintap.usermanagement.exception.InvalidOperationException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,13 +34,22 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -37,7 +64,12 @@ import java.util.UUID;
 @SecurityRequirement(name = "Bearer Authentication")
 public class DoaRuleController {
 
+    private static final int EXPORT_FLUSH_ROWS = 500;
+
     private final DoaRuleService doaRuleService;
+    private final DoaRuleBulkService doaRuleBulkService;
+    private final DoaRuleStatsService doaRuleStatsService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Get all DOA rules with pagination and filtering
@@ -46,16 +78,21 @@ public class DoaRuleController {
     @GetMapping
     @Operation(
         summary = "Get all DOA rules",
-        description = "Retrieve a paginated list of DOA rules with optional filtering"
+        description = "Retrieve a paginated list of DOA rules with optional filtering. Pass the nextCursor of a "
+                + "response as cursor to fetch the following page by keyset, without offset or count query"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved DOA rules"),
         @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
-    public ResponseEntity<Page<DoaRuleResponse>> getAllDoaRules(
+    public ResponseEntity<DoaRulePageResponse> getAllDoaRules(
             @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") Integer page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") Integer size,
             @Parameter(description = "Sort field and order") @RequestParam(defaultValue = "createdAt") String sort,
+            @Parameter(description = "Cursor from a previous response's nextCursor; takes precedence over page and sort")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Include totalElements and totalPages (runs a count query)")
+            @RequestParam(defaultValue = "true") Boolean withTotal,
             @Parameter(description = "Filter by user ID") @RequestParam(required = false) UUID userId,
             @Parameter(description = "Filter by entity") @RequestParam(required = false) String entity,
             @Parameter(description = "Filter by currency") @RequestParam(required = false) String currency,
@@ -70,9 +107,98 @@ public class DoaRuleController {
         String sortBy = sortParams.length > 0 ? sortParams[0] : "createdAt";
         String sortOrder = sortParams.length > 1 ? sortParams[1] : "desc";
 
-        Page<DoaRuleResponse> response = doaRuleService.getAllDoaRules(
-                page, size, sortBy, sortOrder, userId, entity, currency, classification, isActive, enabled);
+        DoaRulePageResponse response = doaRuleService.getAllDoaRules(page, size, sortBy, sortOrder, cursor,
+                withTotal, userId, entity, currency, classification, isActive, enabled);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Export DOA rules as CSV or NDJSON
+     * GET /api/v1/doa-rules/export
+     */
+    @GetMapping("/export")
+    @Operation(
+        summary = "Export DOA rules",
+        description = "Stream all DOA rules matching the filters, with approver details, as CSV or NDJSON. "
+                + "Rows are written as they are read from the database"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed"),
+        @ApiResponse(responseCode = "400", description = "Unsupported format")
+    })
+    public ResponseEntity<StreamingResponseBody> exportDoaRules(
+            @Parameter(description = "Export format: csv or ndjson") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "Filter by user ID") @RequestParam(required = false) UUID userId,
+            @Parameter(description = "Filter by entity") @RequestParam(required = false) String entity,
+            @Parameter(description = "Filter by currency") @RequestParam(required = false) String currency,
+            @Parameter(description = "Filter by classification") @RequestParam(required = false) String classification,
+            @Parameter(description = "Filter by active status") @RequestParam(required = false) Boolean isActive,
+            @Parameter(description = "Filter by enabled status") @RequestParam(required = false) Boolean enabled) {
+
+        log.info("GET /api/v1/doa-rules/export - format: {}", format);
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new InvalidOperationException("Unsupported export format: " + format);
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            ObjectWriter jsonWriter = objectMapper.writerFor(DoaRuleExportRow.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (csv) {
+                writer.write(DoaRuleCsvFormat.HEADER + DoaRuleCsvFormat.LINE_END);
+            }
+
+            int[] written = {0};
+            doaRuleService.exportDoaRules(userId, entity, currency, classification, isActive, enabled, row -> {
+                try {
+                    if (csv) {
+                        writer.write(DoaRuleCsvFormat.toLine(row));
+                        writer.write(DoaRuleCsvFormat.LINE_END);
+                    } else {
+                        jsonWriter.writeValue(writer, row);
+                        writer.write('\n');
+                    }
+                    // Push rows to the client regularly instead of only when the buffer fills
+                    if (++written[0] % EXPORT_FLUSH_ROWS == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+
+        String filename = csv ? "doa-rules.csv" : "doa-rules.ndjson";
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    /**
+     * Get aggregate DOA rule statistics
+     * GET /api/v1/doa-rules/stats
+     */
+    @GetMapping("/stats")
+    @Operation(
+        summary = "Get DOA rule statistics",
+        description = "Count active DOA rules by entity, currency, approval level and enabled state. "
+                + "Served from periodically refreshed aggregates; refreshedAt tells how current they are."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved DOA rule statistics")
+    })
+    public ResponseEntity<DoaRuleStatsResponse> getDoaRuleStats(
+            @Parameter(description = "Filter by entity") @RequestParam(required = false) String entity,
+            @Parameter(description = "Filter by currency") @RequestParam(required = false) String currency) {
+        log.info("GET /api/v1/doa-rules/stats - entity: {}, currency: {}", entity, currency);
 
+        DoaRuleStatsResponse response = doaRuleStatsService.getStats(entity, currency);
         return ResponseEntity.ok(response);
     }
 
@@ -94,6 +220,24 @@ public class DoaRuleController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get the version history of a DOA rule
+     * GET /api/v1/doa-rules/{id}/history
+     */
+    @GetMapping("/{id}/history")
+    @Operation(summary = "Get DOA rule history", description = "Retrieve every version of a DOA rule, oldest first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved DOA rule history"),
+        @ApiResponse(responseCode = "404", description = "DOA rule not found")
+    })
+    public ResponseEntity<List<DoaRuleVersionResponse>> getDoaRuleHistory(
+            @Parameter(description = "DOA Rule ID") @PathVariable UUID id) {
+        log.info("GET /api/v1/doa-rules/{}/history", id);
+
+        List<DoaRuleVersionResponse> response = doaRuleService.getDoaRuleHistory(id);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Create a new DOA rule
      * POST /api/v1/doa-rules
@@ -159,19 +303,94 @@ public class DoaRuleController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Create many DOA rules
+     * POST /api/v1/doa-rules/bulk
+     */
+    @PostMapping("/bulk")
+    @Operation(summary = "Bulk create DOA rules", description = "Create many DOA rules in one transaction, "
+            + "with a result per row; invalid rows are reported and skipped")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rows processed, see per-row results"),
+        @ApiResponse(responseCode = "400", description = "Invalid request or too many rows")
+    })
+    public ResponseEntity<DoaRuleBulkResponse> bulkCreateDoaRules(
+            @Parameter(description = "Rules to create") @Valid @RequestBody DoaRuleBulkRequest request,
+            Authentication authentication) {
+
+        log.info("POST /api/v1/doa-rules/bulk - rows: {}", request.getRules().size());
+
+        UUID createdByUserId = extractUserIdFromToken(authentication);
+        DoaRuleBulkResponse response = doaRuleBulkService.createDoaRules(request, createdByUserId);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Create or update many DOA rules by natural key
+     * PUT /api/v1/doa-rules/bulk
+     */
+    @PutMapping("/bulk")
+    @Operation(summary = "Bulk upsert DOA rules", description = "Update the active rule with the same user, entity, "
+            + "currency and approval level, or create one if none exists; with a result per row")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rows processed, see per-row results"),
+        @ApiResponse(responseCode = "400", description = "Invalid request or too many rows")
+    })
+    public ResponseEntity<DoaRuleBulkResponse> bulkUpsertDoaRules(
+            @Parameter(description = "Rules to create or update") @Valid @RequestBody DoaRuleBulkRequest request,
+            Authentication authentication) {
+
+        log.info("PUT /api/v1/doa-rules/bulk - rows: {}", request.getRules().size());
+
+        UUID createdByUserId = extractUserIdFromToken(authentication);
+        DoaRuleBulkResponse response = doaRuleBulkService.upsertDoaRules(request, createdByUserId);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Enable or disable many DOA rules
+     * PATCH /api/v1/doa-rules/bulk/toggle-status
+     */
+    @PatchMapping("/bulk/toggle-status")
+    @Operation(summary = "Bulk toggle DOA rule status", description = "Enable or disable many DOA rules")
+    public ResponseEntity<DoaRuleBulkResponse> bulkToggleStatus(
+            @Valid @RequestBody DoaRuleBulkStatusRequest request) {
+
+        log.info("PATCH /api/v1/doa-rules/bulk/toggle-status - rules: {}, enabled: {}",
+                request.getIds().size(), request.getEnabled());
+
+        DoaRuleBulkResponse response = doaRuleBulkService.toggleDoaRulesStatus(request);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Soft delete many DOA rules
+     * POST /api/v1/doa-rules/bulk/delete
+     */
+    @PostMapping("/bulk/delete")
+    @Operation(summary = "Bulk delete DOA rules", description = "Soft delete many DOA rules")
+    public ResponseEntity<DoaRuleBulkResponse> bulkDeleteDoaRules(
+            @Valid @RequestBody DoaRuleBulkStatusRequest request) {
+
+        log.info("POST /api/v1/doa-rules/bulk/delete - rules: {}", request.getIds().size());
+
+        DoaRuleBulkResponse response = doaRuleBulkService.deleteDoaRules(request);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get DOA rules by user ID
      * GET /api/v1/doa-rules/user/{userId}
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Page<DoaRuleResponse>> getDoaRulesByUserId(
+    public ResponseEntity<DoaRulePageResponse> getDoaRulesByUserId(
             @PathVariable UUID userId,
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "10") Integer size) {
 
         log.info("GET /api/v1/doa-rules/user/{} - page: {}, size: {}", userId, page, size);
 
-        Page<DoaRuleResponse> response = doaRuleService.getDoaRulesByUserId(userId, page, size);
+        DoaRulePageResponse response = doaRuleService.getDoaRulesByUserId(userId, page, size);
         return ResponseEntity.ok(response);
     }
 
@@ -180,17 +399,118 @@ public class DoaRuleController {
      * GET /api/v1/doa-rules/entity/{entity}
      */
     @GetMapping("/entity/{entity}")
-    public ResponseEntity<Page<DoaRuleResponse>> getDoaRulesByEntity(
+    public ResponseEntity<DoaRulePageResponse> getDoaRulesByEntity(
             @PathVariable String entity,
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "10") Integer size) {
 
         log.info("GET /api/v1/doa-rules/entity/{} - page: {}, size: {}", entity, page, size);
 
-        Page<DoaRuleResponse> response = doaRuleService.getDoaRulesByEntity(entity, page, size);
+        DoaRulePageResponse response = doaRuleService.getDoaRulesByEntity(entity, page, size);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Resolve the approver chain for an invoice
+     * POST /api/v1/doa-rules/resolve
+     */
+    @PostMapping("/resolve")
+    @Operation(
+        summary = "Resolve invoice approvers",
+        description = "Return the ordered approver chain, per approval level, for an invoice of the given amount, "
+                + "currency, entity, vendor and classification"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Approver chain resolved"),
+        @ApiResponse(responseCode = "400", description = "Invalid request")
+    })
+    public ResponseEntity<DoaResolveResponse> resolveApprovers(
+            @Parameter(description = "Invoice attributes") @Valid @RequestBody DoaResolveRequest request) {
+
+        log.info("POST /api/v1/doa-rules/resolve - entity: {}, currency: {}, amount: {}",
+                request.getEntity(), request.getCurrency(), request.getAmount());
+
+        DoaResolveResponse response = doaRuleService.resolveApprovers(request);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Resolve the approver chains of a batch of invoices
+     * POST /api/v1/doa-rules/resolve/batch
+     */
+    @PostMapping(value = "/resolve/batch", produces = "application/x-ndjson")
+    @Operation(
+        summary = "Resolve approvers for a batch of invoices",
+        description = "Evaluate a batch of invoices against the DOA rules and stream one result per line (NDJSON), "
+                + "in the same order as the request"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Approver chains streamed"),
+        @ApiResponse(responseCode = "400", description = "Invalid request or batch too large")
+    })
+    public ResponseEntity<StreamingResponseBody> resolveApproversBatch(
+            @Parameter(description = "Invoices to evaluate") @Valid @RequestBody DoaBatchResolveRequest request) {
+
+        log.info("POST /api/v1/doa-rules/resolve/batch - invoices: {}", request.getInvoices().size());
+
+        // Fail with 400 before the response is committed
+        doaRuleService.validateBatch(request);
+
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(DoaResolveResponse.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            doaRuleService.resolveApproversBatch(request, response -> {
+                try {
+                    writer.writeValue(outputStream, response);
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * Audit DOA rule amount ranges for overlaps and gaps
+     * GET /api/v1/doa-rules/range-audit
+     */
+    @GetMapping(value = "/range-audit", produces = "application/x-ndjson")
+    @Operation(
+        summary = "Audit DOA rule amount ranges",
+        description = "Stream the overlaps and gaps between the amount ranges of active, enabled DOA rules "
+                + "with the same entity, currency, approval level, vendor code and classification, "
+                + "one issue per line (NDJSON)"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Range issues streamed")
+    })
+    public ResponseEntity<StreamingResponseBody> auditRanges() {
+        log.info("GET /api/v1/doa-rules/range-audit");
+
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(DoaRuleRangeIssue.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            doaRuleService.auditRanges(issue -> {
+                try {
+                    writer.writeValue(outputStream, issue);
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     /**
      * Helper method to extract user ID from JWT token
      */
@@ -0,0 +1,30 @@
+package com.sprintap.doarules.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Request DTO for resolving the approvers of a batch of invoices
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaBatchResolveRequest {
+
+    @NotEmpty(message = "At least one invoice is required")
+    @Valid
+    private List<DoaResolveRequest> invoices;
+
+    /**
+     * Resolve the whole batch against the rules as they were at this time instead of the current rules
+     */
+    private Instant asOf;
+}
@@ -0,0 +1,52 @@
+package com.sprintap.doarules.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Request DTO for resolving the approvers of an invoice
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaResolveRequest {
+
+    /**
+     * Optional caller reference, e.g. an invoice number, echoed back in the response
+     */
+    private String reference;
+
+    @NotBlank(message = "Entity is required")
+    private String entity;
+
+    @NotBlank(message = "Currency is required")
+    private String currency;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.0", inclusive = true, message = "Amount must be greater than or equal to 0")
+    private BigDecimal amount;
+
+    private String vendorCode;
+
+    private String classification;
+
+    /**
+     * Also match rules in other currencies of the entity, with their thresholds converted into the invoice
+     * currency using the FX rate table
+     */
+    private Boolean normalizeCurrency;
+
+    /**
+     * Resolve against the rules as they were at this time instead of the current rules
+     */
+    private Instant asOf;
+}
@@ -0,0 +1,69 @@
+package com.sprintap.doarules.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO with the ordered approver chain for an invoice
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaResolveResponse {
+
+    /**
+     * Caller reference from the request, omitted when none was given
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String reference;
+
+    private String entity;
+    private String currency;
+    private BigDecimal amount;
+
+    /**
+     * Time whose rules were used, omitted when the current rules were used
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Instant asOf;
+
+    /**
+     * Last update of the FX rates used for currency normalization, omitted when amounts were not normalized
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Instant fxRatesAsOf;
+
+    /**
+     * Approval steps in ascending approval level order
+     */
+    private List<ApprovalStep> approvalChain;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ApprovalStep {
+        private Integer approvalLevel;
+        private List<Approver> approvers;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Approver {
+        private UUID ruleId;
+        private UUID userId;
+        private String userName;
+        private String emailId;
+    }
+}
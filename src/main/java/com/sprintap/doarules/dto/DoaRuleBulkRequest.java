@@ -0,0 +1,23 @@
+package com.sprintap.doarules.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for creating or upserting many DOA rules at once.
+ * Rows are validated individually, so invalid rows are reported per row instead of failing the request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaRuleBulkRequest {
+
+    @NotEmpty(message = "At least one rule is required")
+    private List<DoaRuleRequest> rules;
+}
@@ -0,0 +1,51 @@
+package com.sprintap.doarules.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for bulk DOA rule operations, with one result per request row in request order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaRuleBulkResponse {
+
+    private Integer total;
+    private Integer succeeded;
+    private Integer failed;
+    private List<RowResult> results;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        TOGGLED,
+        DELETED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RowResult {
+
+        /**
+         * Position of the row in the request (0-indexed)
+         */
+        private Integer index;
+
+        private UUID id;
+        private Status status;
+        private List<String> errors;
+    }
+}
@@ -0,0 +1,28 @@
+package com.sprintap.doarules.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for toggling or soft-deleting many DOA rules at once
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaRuleBulkStatusRequest {
+
+    @NotEmpty(message = "At least one rule ID is required")
+    private List<UUID> ids;
+
+    /**
+     * Target enabled status; only used by the bulk toggle
+     */
+    private Boolean enabled;
+}
@@ -0,0 +1,24 @@
+package com.sprintap.doarules.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Projection of a DOA rule whose amount range covers a given amount, read from the amount range index
+ */
+public interface DoaRuleCoverage {
+
+    UUID getId();
+
+    UUID getUserId();
+
+    Integer getApprovalLevel();
+
+    String getVendorCode();
+
+    String getClassification();
+
+    BigDecimal getMinAmount();
+
+    BigDecimal getMaxAmount();
+}
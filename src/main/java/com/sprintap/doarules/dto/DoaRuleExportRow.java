@@ -0,0 +1,45 @@
+package com.sprintap.doarules.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One row of the DOA rule export: the rule with its approver's details.
+ * Populated directly by a query projection, so exported rules are never loaded as managed entities.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaRuleExportRow {
+
+    private UUID id;
+    private UUID userId;
+    private String userName;
+    private String emailId;
+    private String entity;
+    private String currency;
+    private Integer approvalLevel;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String vendorCode;
+    private String poNumber;
+    private String classification;
+    private Boolean isActive;
+    private Boolean enabled;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "UTC")
+    private Instant createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "UTC")
+    private Instant updatedAt;
+
+    private UUID createdByUserId;
+}
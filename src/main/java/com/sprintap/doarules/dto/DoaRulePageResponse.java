@@ -0,0 +1,49 @@
+package com.sprintap.doarules.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response envelope for DOA rule listings.
+ * Field names follow Spring's page format; totals are omitted when the count was not requested,
+ * and the page number is omitted for pages fetched by cursor.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DoaRulePageResponse {
+
+    private List<DoaRuleResponse> content;
+
+    /**
+     * Page number (0-indexed), null for cursor pages
+     */
+    private Integer number;
+
+    private Integer size;
+
+    private Integer numberOfElements;
+
+    private Boolean first;
+
+    private Boolean last;
+
+    /**
+     * Total number of matching rules, null when requested with withTotal=false or by cursor
+     */
+    private Long totalElements;
+
+    private Integer totalPages;
+
+    /**
+     * Cursor of the next page, null on the last page or when the sort field does not support cursors
+     */
+    private String nextCursor;
+}
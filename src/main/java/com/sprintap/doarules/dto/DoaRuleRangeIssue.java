@@ -0,0 +1,47 @@
+package com.sprintap.doarules.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * An overlap or gap between the amount ranges of two DOA rules at the same approval level
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaRuleRangeIssue {
+
+    public enum Type {
+        OVERLAP,
+        GAP
+    }
+
+    private Type type;
+    private String entity;
+    private String currency;
+    private Integer approvalLevel;
+    private String vendorCode;
+    private String classification;
+
+    /**
+     * The rule before the overlap or gap, by minimum amount
+     */
+    private UUID ruleId;
+
+    /**
+     * The rule after the overlap or gap, by minimum amount
+     */
+    private UUID otherRuleId;
+
+    /**
+     * First and last amount of the overlapping or uncovered range
+     */
+    private BigDecimal fromAmount;
+    private BigDecimal toAmount;
+}
@@ -0,0 +1,49 @@
+package com.sprintap.doarules.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Response DTO with aggregate counts of the active DOA rules
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaRuleStatsResponse {
+
+    /**
+     * When the underlying statistics were last recomputed; writes since then are not yet counted
+     */
+    private Instant refreshedAt;
+
+    private long totalRules;
+    private long enabledRules;
+    private long disabledRules;
+
+    /**
+     * Counts per entity, currency, approval level and enabled state
+     */
+    private List<Group> groups;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        private String entity;
+        private String currency;
+        private Integer approvalLevel;
+        private Boolean enabled;
+        private long ruleCount;
+        private long approverCount;
+        private BigDecimal minAmount;
+        private BigDecimal maxAmount;
+    }
+}
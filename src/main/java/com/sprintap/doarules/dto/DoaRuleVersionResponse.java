@@ -0,0 +1,36 @@
+package com.sprintap.doarules.dto;
+
+import com.sprintap.doarules.entity.DoaRuleVersion;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Response DTO for one version of a DOA rule
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaRuleVersionResponse {
+
+    private UUID ruleId;
+    private Instant validFrom;
+    private DoaRuleVersion.ChangeType changeType;
+    private UUID userId;
+    private String entity;
+    private Integer approvalLevel;
+    private BigDecimal fromAmount;
+    private BigDecimal toAmount;
+    private String currency;
+    private String vendorCode;
+    private String poNumber;
+    private String classification;
+    private Boolean enabled;
+    private Boolean isActive;
+}
@@ -0,0 +1,215 @@
+package com.sprintap.doarules.engine;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar copy of a {@link DoaRuleIndex}, used for batch evaluation.
+ * <p>
+ * Every rule field needed for matching is stored in a primitive array, with the rules of a partition
+ * laid out contiguously and sorted by {@code minAmount}. Amounts are stored as longs scaled to two decimal
+ * places (the column scale of {@code doa_rules}), and entity/currency, vendor code and classification are
+ * dictionary-encoded to ints, so the evaluation loop does no {@code BigDecimal} or string comparisons.
+ * </p>
+ * <p>
+ * Rule amounts outside the long range are clamped, which keeps comparisons exact for every invoice amount
+ * inside the range; {@link #scaleFloor}/{@link #scaleCeil} return {@link #OUT_OF_RANGE} for the rest and
+ * callers fall back to the {@code BigDecimal} index.
+ * </p>
+ */
+public final class ColumnarRuleSnapshot {
+
+    public static final int AMOUNT_SCALE = 2;
+
+    public static final long OUT_OF_RANGE = Long.MIN_VALUE;
+
+    /** Dictionary code of an unset vendor code or classification (rule side: matches any value) */
+    static final int ANY = 0;
+
+    /** Dictionary code of an invoice value that no rule mentions: only matches wildcard rules */
+    static final int UNKNOWN = -1;
+
+    // Invoice amounts are encoded within [MIN + 1, MAX - 1], so clamped rule bounds still compare correctly
+    private static final BigInteger LOWEST_ENCODED = BigInteger.valueOf(Long.MIN_VALUE + 1);
+    private static final BigInteger HIGHEST_ENCODED = BigInteger.valueOf(Long.MAX_VALUE - 1);
+
+    private final DoaRuleIndex source;
+
+    private final Map<PartitionKey, Integer> partitionCodes;
+    private final Map<String, Integer> vendorCodes;
+    private final Map<String, Integer> classificationCodes;
+
+    // Rules of partition p occupy positions [partitionStart[p], partitionStart[p + 1])
+    private final int[] partitionStart;
+
+    private final long[] minAmount;
+    private final long[] maxAmount;
+    private final long[] maxPrefix;
+    private final int[] vendor;
+    private final int[] classification;
+    private final IndexedRule[] rules;
+
+    private ColumnarRuleSnapshot(DoaRuleIndex source) {
+        this.source = source;
+
+        Map<PartitionKey, Integer> partitionDictionary = new HashMap<>();
+        Map<String, Integer> vendorDictionary = new HashMap<>();
+        Map<String, Integer> classificationDictionary = new HashMap<>();
+
+        int size = source.size();
+        this.partitionStart = new int[source.partitions().size() + 1];
+        this.minAmount = new long[size];
+        this.maxAmount = new long[size];
+        this.maxPrefix = new long[size];
+        this.vendor = new int[size];
+        this.classification = new int[size];
+        this.rules = new IndexedRule[size];
+
+        int position = 0;
+        int partitionCode = 0;
+        for (Map.Entry<PartitionKey, RulePartition> entry : source.partitions().entrySet()) {
+            partitionDictionary.put(entry.getKey(), partitionCode);
+            partitionStart[partitionCode] = position;
+
+            long runningMax = Long.MIN_VALUE;
+            // RulePartition keeps its rules sorted by minAmount, which the binary search below relies on
+            for (IndexedRule rule : entry.getValue().rules()) {
+                minAmount[position] = clamp(rule.minAmount().setScale(AMOUNT_SCALE, RoundingMode.CEILING));
+                maxAmount[position] = clamp(rule.maxAmount().setScale(AMOUNT_SCALE, RoundingMode.FLOOR));
+                runningMax = Math.max(runningMax, maxAmount[position]);
+                maxPrefix[position] = runningMax;
+                vendor[position] = encode(vendorDictionary, rule.vendorCode());
+                classification[position] = encode(classificationDictionary, rule.classification());
+                rules[position] = rule;
+                position++;
+            }
+            partitionCode++;
+        }
+        partitionStart[partitionCode] = position;
+
+        this.partitionCodes = Map.copyOf(partitionDictionary);
+        this.vendorCodes = Map.copyOf(vendorDictionary);
+        this.classificationCodes = Map.copyOf(classificationDictionary);
+    }
+
+    public static ColumnarRuleSnapshot of(DoaRuleIndex index) {
+        return new ColumnarRuleSnapshot(index);
+    }
+
+    /**
+     * The index snapshot this columnar copy was built from
+     */
+    public DoaRuleIndex source() {
+        return source;
+    }
+
+    /**
+     * Dictionary code of an invoice's entity and currency, or -1 if no rule uses that combination
+     */
+    public int partitionCode(String entity, String currency) {
+        return partitionCodes.getOrDefault(PartitionKey.of(entity, currency), -1);
+    }
+
+    public int vendorCode(String value) {
+        String normalized = IndexedRule.normalizeOptional(value);
+        return normalized == null ? UNKNOWN : vendorCodes.getOrDefault(normalized, UNKNOWN);
+    }
+
+    public int classificationCode(String value) {
+        String normalized = IndexedRule.normalizeOptional(value);
+        return normalized == null ? UNKNOWN : classificationCodes.getOrDefault(normalized, UNKNOWN);
+    }
+
+    /**
+     * Invoice amount rounded down to the snapshot scale, used for the {@code amount >= minAmount} test
+     */
+    public static long scaleFloor(BigDecimal amount) {
+        return toScaledLong(amount.setScale(AMOUNT_SCALE, RoundingMode.FLOOR));
+    }
+
+    /**
+     * Invoice amount rounded up to the snapshot scale, used for the {@code amount <= maxAmount} test
+     */
+    public static long scaleCeil(BigDecimal amount) {
+        return toScaledLong(amount.setScale(AMOUNT_SCALE, RoundingMode.CEILING));
+    }
+
+    /**
+     * Returns the rules matching one encoded invoice, ordered by approval level
+     */
+    public List<IndexedRule> find(int partition, long amountFloor, long amountCeil, int vendorCode,
+                                  int classificationCode) {
+        if (partition < 0) {
+            return List.of();
+        }
+
+        int start = partitionStart[partition];
+        List<IndexedRule> matches = new ArrayList<>(4);
+        for (int i = lastStartingAtOrBelow(start, partitionStart[partition + 1], amountFloor);
+             i >= start && maxPrefix[i] >= amountCeil; i--) {
+            if (maxAmount[i] >= amountCeil
+                    && (vendor[i] == ANY || vendor[i] == vendorCode)
+                    && (classification[i] == ANY || classification[i] == classificationCode)) {
+                matches.add(rules[i]);
+            }
+        }
+
+        if (matches.size() > 1) {
+            matches.sort((a, b) -> a.approvalLevel() != b.approvalLevel()
+                    ? Integer.compare(a.approvalLevel(), b.approvalLevel())
+                    : a.id().compareTo(b.id()));
+        }
+        return matches;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    private int lastStartingAtOrBelow(int start, int end, long amount) {
+        int low = start;
+        int high = end - 1;
+        int result = start - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (minAmount[mid] <= amount) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private static int encode(Map<String, Integer> dictionary, String value) {
+        if (value == null) {
+            return ANY;
+        }
+        return dictionary.computeIfAbsent(value, key -> dictionary.size() + 1);
+    }
+
+    private static long clamp(BigDecimal scaled) {
+        BigInteger unscaled = scaled.unscaledValue();
+        if (unscaled.compareTo(LOWEST_ENCODED) < 0) {
+            return Long.MIN_VALUE;
+        }
+        if (unscaled.compareTo(HIGHEST_ENCODED) > 0) {
+            return Long.MAX_VALUE;
+        }
+        return unscaled.longValueExact();
+    }
+
+    private static long toScaledLong(BigDecimal scaled) {
+        BigInteger unscaled = scaled.unscaledValue();
+        if (unscaled.compareTo(LOWEST_ENCODED) < 0 || unscaled.compareTo(HIGHEST_ENCODED) > 0) {
+            return OUT_OF_RANGE;
+        }
+        return unscaled.longValueExact();
+    }
+}
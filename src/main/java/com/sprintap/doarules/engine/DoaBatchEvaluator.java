@@ -0,0 +1,118 @@
+package com.sprintap.doarules.engine;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates large batches of invoices against a {@link ColumnarRuleSnapshot}.
+ * <p>
+ * A batch is first encoded into primitive columns (partition, vendor and classification codes, scaled
+ * amounts) and then matched; both passes are split into ranges and run on a dedicated fork/join pool,
+ * so a month-end run uses every core without competing with the common pool.
+ * Invoices whose amount cannot be encoded as a scaled long are resolved through the {@code BigDecimal} index,
+ * and invoices that ask for currency normalization through the {@link FxNormalizedIndex} of the same snapshot.
+ * </p>
+ */
+@Component
+public class DoaBatchEvaluator {
+
+    // Invoices per fork/join leaf task
+    private static final int LEAF_SIZE = 2048;
+
+    private final ForkJoinPool pool;
+
+    public DoaBatchEvaluator(@Value("${app.doa.engine.batch-parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Resolves every invoice against the snapshot.
+     *
+     * @param snapshot   the rule snapshot, shared by the whole batch so all invoices see the same rules
+     * @param normalized the currency-normalized view of the snapshot's source index
+     * @param invoices   the invoices to evaluate
+     * @return the matching rules of each invoice, in input order and ordered by approval level
+     */
+    public List<List<IndexedRule>> evaluate(ColumnarRuleSnapshot snapshot, FxNormalizedIndex normalized,
+                                            List<InvoiceAttributes> invoices) {
+        @SuppressWarnings("unchecked")
+        List<IndexedRule>[] results = (List<IndexedRule>[]) new List<?>[invoices.size()];
+        if (!invoices.isEmpty()) {
+            pool.invoke(new EvaluateTask(snapshot, normalized, invoices, results, 0, invoices.size()));
+        }
+        return Arrays.asList(results);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static final class EvaluateTask extends RecursiveAction {
+
+        private final ColumnarRuleSnapshot snapshot;
+        private final FxNormalizedIndex normalized;
+        private final List<InvoiceAttributes> invoices;
+        private final List<IndexedRule>[] results;
+        private final int from;
+        private final int to;
+
+        EvaluateTask(ColumnarRuleSnapshot snapshot, FxNormalizedIndex normalized, List<InvoiceAttributes> invoices,
+                     List<IndexedRule>[] results, int from, int to) {
+            this.snapshot = snapshot;
+            this.normalized = normalized;
+            this.invoices = invoices;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EvaluateTask(snapshot, normalized, invoices, results, from, mid),
+                        new EvaluateTask(snapshot, normalized, invoices, results, mid, to));
+                return;
+            }
+
+            int length = to - from;
+            int[] partition = new int[length];
+            int[] vendor = new int[length];
+            int[] classification = new int[length];
+            long[] amountFloor = new long[length];
+            long[] amountCeil = new long[length];
+
+            for (int i = 0; i < length; i++) {
+                InvoiceAttributes invoice = invoices.get(from + i);
+                partition[i] = snapshot.partitionCode(invoice.entity(), invoice.currency());
+                vendor[i] = snapshot.vendorCode(invoice.vendorCode());
+                classification[i] = snapshot.classificationCode(invoice.classification());
+                amountFloor[i] = ColumnarRuleSnapshot.scaleFloor(invoice.amount());
+                amountCeil[i] = ColumnarRuleSnapshot.scaleCeil(invoice.amount());
+            }
+
+            for (int i = 0; i < length; i++) {
+                if (invoices.get(from + i).normalizeCurrency()) {
+                    InvoiceAttributes invoice = invoices.get(from + i);
+                    results[from + i] = normalized.resolve(invoice.entity(), invoice.currency(),
+                            invoice.amount(), invoice.vendorCode(), invoice.classification());
+                } else if (amountFloor[i] == ColumnarRuleSnapshot.OUT_OF_RANGE
+                        || amountCeil[i] == ColumnarRuleSnapshot.OUT_OF_RANGE) {
+                    InvoiceAttributes invoice = invoices.get(from + i);
+                    results[from + i] = snapshot.source().resolve(invoice.entity(), invoice.currency(),
+                            invoice.amount(), invoice.vendorCode(), invoice.classification());
+                } else {
+                    results[from + i] = snapshot.find(partition[i], amountFloor[i], amountCeil[i],
+                            vendor[i], classification[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.sprintap.doarules.engine;
+
+import com.sprintap.doarules.entity.DoaRule;
+import com.sprintap.doarules.repository.DoaRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-memory approver routing engine for DOA rules.
+ * <p>
+ * Holds a {@link DoaRuleIndex} of all active, enabled rules. The index is loaded from the database on
+ * first use and afterwards updated incrementally from the rule write paths once their transaction commits.
+ * Every update publishes a new immutable snapshot through a volatile field, so resolution never locks.
+ * A periodic full reload picks up rules written by other instances or directly in the database.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DoaRoutingEngine {
+
+    private final DoaRuleRepository doaRuleRepository;
+    private final FxRateProvider fxRateProvider;
+
+    private volatile DoaRuleIndex index;
+
+    // Columnar copy of the current index for batch evaluation, rebuilt lazily after the index changes
+    private volatile ColumnarRuleSnapshot columnarSnapshot;
+
+    // Currency-normalized view of the current index, rebuilt lazily after the index or the FX rates change
+    private volatile FxNormalizedIndex fxNormalizedIndex;
+
+    // Incremented on every incremental update, so a reload that raced with a write is discarded
+    private long writeVersion;
+
+    /**
+     * Returns the rules that apply to an invoice, ordered by approval level
+     */
+    public List<IndexedRule> resolve(String entity, String currency, BigDecimal amount,
+                                     String vendorCode, String classification) {
+        return getIndex().resolve(entity, currency, amount, vendorCode, classification);
+    }
+
+    /**
+     * Returns the current index snapshot, loading it on first use
+     */
+    public DoaRuleIndex getIndex() {
+        DoaRuleIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                if (index == null) {
+                    index = load();
+                }
+                return index;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns a columnar copy of the current index snapshot, building it on first use after a change
+     */
+    public ColumnarRuleSnapshot getColumnarSnapshot() {
+        DoaRuleIndex current = getIndex();
+        ColumnarRuleSnapshot snapshot = columnarSnapshot;
+        if (snapshot == null || snapshot.source() != current) {
+            // Concurrent callers may both build it; either copy is equivalent
+            snapshot = ColumnarRuleSnapshot.of(current);
+            columnarSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the currency-normalized view of an index snapshot with the current FX rates,
+     * reusing the cached view while neither has changed
+     */
+    public FxNormalizedIndex getFxNormalizedIndex(DoaRuleIndex source) {
+        FxRateTable rates = fxRateProvider.getRates();
+        FxNormalizedIndex view = fxNormalizedIndex;
+        if (view == null || view.source() != source || view.rates() != rates) {
+            view = new FxNormalizedIndex(source, rates);
+            if (source == index) {
+                fxNormalizedIndex = view;
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Applies a rule write to the index once the surrounding transaction has committed.
+     * Inactive or disabled rules are removed from the index; all others are added or replaced.
+     */
+    public void onRuleChanged(DoaRule rule) {
+        boolean resolvable = Boolean.TRUE.equals(rule.getIsActive()) && Boolean.TRUE.equals(rule.getEnabled());
+        IndexedRule indexedRule = resolvable ? IndexedRule.from(rule) : null;
+
+        TransactionHooks.runAfterCommit(() -> {
+            synchronized (this) {
+                if (index == null) {
+                    // Not loaded yet, the first load reads the committed rule from the database
+                    return;
+                }
+                index = indexedRule != null ? index.withRule(indexedRule) : index.withoutRule(rule.getId());
+                writeVersion++;
+            }
+        });
+    }
+
+    /**
+     * Applies a bulk rule write to the index in one step once the surrounding transaction has committed
+     */
+    public void onRulesChanged(Collection<DoaRule> rules) {
+        if (rules.isEmpty()) {
+            return;
+        }
+
+        List<IndexedRule> upserts = new ArrayList<>();
+        List<UUID> removals = new ArrayList<>();
+        for (DoaRule rule : rules) {
+            if (Boolean.TRUE.equals(rule.getIsActive()) && Boolean.TRUE.equals(rule.getEnabled())) {
+                upserts.add(IndexedRule.from(rule));
+            } else {
+                removals.add(rule.getId());
+            }
+        }
+
+        TransactionHooks.runAfterCommit(() -> {
+            synchronized (this) {
+                if (index == null) {
+                    return;
+                }
+                index = index.withChanges(upserts, removals);
+                writeVersion++;
+            }
+        });
+    }
+
+    @Scheduled(initialDelayString = "${app.doa.engine.reload-ms:300000}",
+            fixedDelayString = "${app.doa.engine.reload-ms:300000}")
+    public void reload() {
+        if (index == null) {
+            return;
+        }
+        try {
+            long versionAtStart;
+            synchronized (this) {
+                versionAtStart = writeVersion;
+            }
+            DoaRuleIndex reloaded = load();
+            synchronized (this) {
+                if (writeVersion == versionAtStart) {
+                    index = reloaded;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Reload of DOA routing index failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private DoaRuleIndex load() {
+        long start = System.currentTimeMillis();
+        List<IndexedRule> rules = doaRuleRepository.findByIsActiveTrueAndEnabledTrue().stream()
+                .map(IndexedRule::from)
+                .toList();
+        DoaRuleIndex loaded = DoaRuleIndex.build(rules);
+        log.info("Loaded DOA routing index with {} rules in {} partitions in {} ms",
+                loaded.size(), loaded.partitions().size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+}
@@ -0,0 +1,179 @@
+package com.sprintap.doarules.engine;
+
+import com.sprintap.doarules.entity.DoaRule;
+import com.sprintap.doarules.entity.DoaRuleVersion;
+import com.sprintap.doarules.mapper.DoaRuleMapper;
+import com.sprintap.doarules.repository.DoaRuleVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Versioned history of DOA rules.
+ * <p>
+ * Rule write paths record each written rule as a new row in the append-only {@code doa_rule_versions} table.
+ * For as-of resolution the history is also held in memory as an immutable {@link DoaRuleTimeline}, loaded on
+ * first use and extended once each write commits; like {@link DoaRoutingEngine}, every update publishes a new
+ * snapshot through a volatile field, so readers never lock. A periodic reload picks up versions written by
+ * other instances.
+ * </p>
+ * <p>
+ * Only the last {@code app.doa.history.retention-days} are held in memory (all of it if 0); as-of queries
+ * before that are answered from the database.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DoaRuleHistory {
+
+    private final DoaRuleVersionRepository doaRuleVersionRepository;
+    private final DoaRuleMapper doaRuleMapper;
+
+    @Value("${app.doa.history.retention-days:90}")
+    private int retentionDays;
+
+    private volatile DoaRuleTimeline timeline;
+
+    // Incremented on every incremental update, so a reload that raced with a write is discarded
+    private long writeVersion;
+
+    /**
+     * Records the current state of a rule as a new version. Must be called after the rule has been saved,
+     * in the same transaction.
+     */
+    public void record(DoaRule rule, DoaRuleVersion.ChangeType changeType) {
+        recordAll(List.of(rule), changeType);
+    }
+
+    /**
+     * Records the current state of many rules, all valid from the same instant
+     */
+    public void recordAll(Collection<DoaRule> rules, DoaRuleVersion.ChangeType changeType) {
+        if (rules.isEmpty()) {
+            return;
+        }
+
+        Instant validFrom = Instant.now();
+        List<DoaRuleVersion> versions = rules.stream()
+                .map(rule -> doaRuleMapper.toVersion(rule, changeType, validFrom))
+                .toList();
+        // Inserted as JDBC batches when the transaction flushes
+        doaRuleVersionRepository.saveAll(versions);
+
+        List<RuleVersion> entries = versions.stream().map(RuleVersion::from).toList();
+        TransactionHooks.runAfterCommit(() -> {
+            synchronized (this) {
+                if (timeline == null) {
+                    // Not loaded yet, the first load reads the committed versions from the database
+                    return;
+                }
+                try {
+                    timeline = withRetention(timeline.withVersions(entries));
+                } catch (IllegalArgumentException e) {
+                    // Older than the retained history (e.g. after a clock jump): reload on next use
+                    log.warn("Discarding in-memory DOA rule history: {}", e.getMessage());
+                    timeline = null;
+                }
+                writeVersion++;
+            }
+        });
+    }
+
+    /**
+     * Returns the index of the rules that were active and enabled at the given time
+     */
+    public DoaRuleIndex indexAt(Instant asOf) {
+        DoaRuleTimeline current = getTimeline();
+        if (current.covers(asOf)) {
+            return current.indexAt(asOf);
+        }
+        return loadIndexAt(asOf);
+    }
+
+    /**
+     * Returns the current timeline snapshot, loading it on first use
+     */
+    public DoaRuleTimeline getTimeline() {
+        DoaRuleTimeline current = timeline;
+        if (current == null) {
+            synchronized (this) {
+                if (timeline == null) {
+                    timeline = load();
+                }
+                return timeline;
+            }
+        }
+        return current;
+    }
+
+    @Scheduled(initialDelayString = "${app.doa.history.reload-ms:300000}",
+            fixedDelayString = "${app.doa.history.reload-ms:300000}")
+    public void reload() {
+        if (timeline == null) {
+            return;
+        }
+        try {
+            long versionAtStart;
+            synchronized (this) {
+                versionAtStart = writeVersion;
+            }
+            DoaRuleTimeline reloaded = load();
+            synchronized (this) {
+                if (writeVersion == versionAtStart) {
+                    timeline = reloaded;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Reload of DOA rule history failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private DoaRuleTimeline load() {
+        long start = System.currentTimeMillis();
+        Instant cutoff = retentionCutoff();
+        DoaRuleTimeline loaded;
+        if (cutoff == null) {
+            loaded = DoaRuleTimeline.build(toRuleVersions(
+                    doaRuleVersionRepository.findAllByOrderByValidFromAscSequenceAsc()));
+        } else {
+            // Older versions only matter through the state they leave at the cutoff
+            loaded = DoaRuleTimeline.build(loadIndexAt(cutoff), cutoff, toRuleVersions(
+                    doaRuleVersionRepository.findByValidFromAfterOrderByValidFromAscSequenceAsc(cutoff)));
+        }
+        log.info("Loaded DOA rule history with {} versions in {} ms", loaded.size(),
+                System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    /**
+     * Builds the index at the given time from the latest version of each rule in the database
+     */
+    private DoaRuleIndex loadIndexAt(Instant asOf) {
+        return DoaRuleIndex.build(toRuleVersions(doaRuleVersionRepository.findLatestPerRuleAsOf(asOf)).stream()
+                .map(RuleVersion::state)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private DoaRuleTimeline withRetention(DoaRuleTimeline current) {
+        Instant cutoff = retentionCutoff();
+        return cutoff == null ? current : current.withRetention(cutoff);
+    }
+
+    private Instant retentionCutoff() {
+        return retentionDays > 0 ? Instant.now().minus(Duration.ofDays(retentionDays)) : null;
+    }
+
+    private static List<RuleVersion> toRuleVersions(List<DoaRuleVersion> versions) {
+        return versions.stream().map(RuleVersion::from).toList();
+    }
+}
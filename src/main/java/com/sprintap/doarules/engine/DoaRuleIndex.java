@@ -0,0 +1,179 @@
+package com.sprintap.doarules.engine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the resolvable DOA rules, partitioned by (entity, currency).
+ * <p>
+ * Updates return a new snapshot that shares every untouched partition with the old one,
+ * so a single rule change only rebuilds the partitions it moves out of or into.
+ * </p>
+ */
+public final class DoaRuleIndex {
+
+    static final Comparator<IndexedRule> BY_LEVEL =
+            Comparator.comparingInt(IndexedRule::approvalLevel).thenComparing(IndexedRule::id);
+
+    private final Map<PartitionKey, RulePartition> partitions;
+    private final Map<UUID, IndexedRule> rulesById;
+
+    private DoaRuleIndex(Map<PartitionKey, RulePartition> partitions, Map<UUID, IndexedRule> rulesById) {
+        this.partitions = partitions;
+        this.rulesById = rulesById;
+    }
+
+    public static DoaRuleIndex empty() {
+        return new DoaRuleIndex(Map.of(), Map.of());
+    }
+
+    public static DoaRuleIndex build(Collection<IndexedRule> rules) {
+        Map<PartitionKey, List<IndexedRule>> grouped = new HashMap<>();
+        Map<UUID, IndexedRule> byId = new HashMap<>();
+        for (IndexedRule rule : rules) {
+            grouped.computeIfAbsent(rule.partition(), key -> new ArrayList<>()).add(rule);
+            byId.put(rule.id(), rule);
+        }
+
+        Map<PartitionKey, RulePartition> partitions = new HashMap<>();
+        grouped.forEach((key, partitionRules) -> partitions.put(key, RulePartition.of(partitionRules)));
+        return new DoaRuleIndex(Map.copyOf(partitions), Map.copyOf(byId));
+    }
+
+    /**
+     * Returns a snapshot with the rule added, or replaced if a rule with the same ID exists
+     */
+    public DoaRuleIndex withRule(IndexedRule rule) {
+        Map<PartitionKey, RulePartition> newPartitions = new HashMap<>(partitions);
+        Map<UUID, IndexedRule> newById = new HashMap<>(rulesById);
+
+        IndexedRule previous = newById.put(rule.id(), rule);
+        if (previous != null && !previous.partition().equals(rule.partition())) {
+            rebuildPartition(newPartitions, previous.partition(), previous.id(), null);
+        }
+        rebuildPartition(newPartitions, rule.partition(), rule.id(), rule);
+
+        return new DoaRuleIndex(Map.copyOf(newPartitions), Map.copyOf(newById));
+    }
+
+    /**
+     * Returns a snapshot without the rule; returns this snapshot if the rule is not indexed
+     */
+    public DoaRuleIndex withoutRule(UUID ruleId) {
+        IndexedRule previous = rulesById.get(ruleId);
+        if (previous == null) {
+            return this;
+        }
+
+        Map<PartitionKey, RulePartition> newPartitions = new HashMap<>(partitions);
+        Map<UUID, IndexedRule> newById = new HashMap<>(rulesById);
+        newById.remove(ruleId);
+        rebuildPartition(newPartitions, previous.partition(), ruleId, null);
+
+        return new DoaRuleIndex(Map.copyOf(newPartitions), Map.copyOf(newById));
+    }
+
+    /**
+     * Returns a snapshot with many rules added or replaced and others removed, rebuilding each affected
+     * partition once. Used for bulk writes, where applying {@link #withRule} per rule would copy the index
+     * once per rule.
+     */
+    public DoaRuleIndex withChanges(Collection<IndexedRule> upserts, Collection<UUID> removals) {
+        Map<UUID, IndexedRule> newById = new HashMap<>(rulesById);
+        Set<PartitionKey> touched = new HashSet<>();
+
+        for (UUID ruleId : removals) {
+            IndexedRule previous = newById.remove(ruleId);
+            if (previous != null) {
+                touched.add(previous.partition());
+            }
+        }
+        for (IndexedRule rule : upserts) {
+            IndexedRule previous = newById.put(rule.id(), rule);
+            if (previous != null) {
+                touched.add(previous.partition());
+            }
+            touched.add(rule.partition());
+        }
+        if (touched.isEmpty()) {
+            return this;
+        }
+
+        Map<PartitionKey, List<IndexedRule>> touchedRules = new HashMap<>();
+        for (IndexedRule rule : newById.values()) {
+            if (touched.contains(rule.partition())) {
+                touchedRules.computeIfAbsent(rule.partition(), key -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        Map<PartitionKey, RulePartition> newPartitions = new HashMap<>(partitions);
+        for (PartitionKey key : touched) {
+            List<IndexedRule> partitionRules = touchedRules.get(key);
+            if (partitionRules == null) {
+                newPartitions.remove(key);
+            } else {
+                newPartitions.put(key, RulePartition.of(partitionRules));
+            }
+        }
+
+        return new DoaRuleIndex(Map.copyOf(newPartitions), Map.copyOf(newById));
+    }
+
+    /**
+     * Returns the rules that apply to an invoice, ordered by approval level
+     */
+    public List<IndexedRule> resolve(String entity, String currency, BigDecimal amount,
+                                     String vendorCode, String classification) {
+        RulePartition partition = partitions.get(PartitionKey.of(entity, currency));
+        if (partition == null) {
+            return List.of();
+        }
+
+        List<IndexedRule> matches = partition.find(amount,
+                IndexedRule.normalizeOptional(vendorCode), IndexedRule.normalizeOptional(classification));
+        matches.sort(BY_LEVEL);
+        return matches;
+    }
+
+    public Map<PartitionKey, RulePartition> partitions() {
+        return partitions;
+    }
+
+    public Collection<IndexedRule> rules() {
+        return rulesById.values();
+    }
+
+    public int size() {
+        return rulesById.size();
+    }
+
+    private static void rebuildPartition(Map<PartitionKey, RulePartition> partitions, PartitionKey key,
+                                         UUID replacedId, IndexedRule replacement) {
+        List<IndexedRule> partitionRules = new ArrayList<>();
+        RulePartition existing = partitions.get(key);
+        if (existing != null) {
+            for (IndexedRule rule : existing.rules()) {
+                if (!rule.id().equals(replacedId)) {
+                    partitionRules.add(rule);
+                }
+            }
+        }
+        if (replacement != null) {
+            partitionRules.add(replacement);
+        }
+
+        if (partitionRules.isEmpty()) {
+            partitions.remove(key);
+        } else {
+            partitions.put(key, RulePartition.of(partitionRules));
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.sprintap.doarules.engine;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable timeline of DOA rule versions, answering "which rules applied at time T".
+ * <p>
+ * Versions are kept sorted by {@code validFrom} in segments of {@value #CHECKPOINT_INTERVAL}. Every segment
+ * starts with a checkpoint: the {@link DoaRuleIndex} after applying all earlier versions. The index at time T
+ * is the checkpoint of T's segment plus at most {@value #CHECKPOINT_INTERVAL} replayed versions. Full
+ * segments are never modified, so appending versions shares them and all checkpoints with the previous
+ * timeline and only copies the last segment; a new timeline can be published on every write.
+ * </p>
+ * <p>
+ * A timeline may start after the beginning of the history: its first checkpoint then holds the state at
+ * {@link #coveredFrom()} and earlier times cannot be answered. {@link #withRetention} drops old segments
+ * that way, so the in-memory history stays bounded.
+ * </p>
+ */
+public final class DoaRuleTimeline {
+
+    static final int CHECKPOINT_INTERVAL = 256;
+
+    private static final Comparator<RuleVersion> BY_VALID_FROM = Comparator.comparing(RuleVersion::validFrom);
+
+    // All segments but the last are full; the last holds 0 to CHECKPOINT_INTERVAL versions
+    private final RuleVersion[][] segments;
+    // checkpoints[s] is the index before segments[s]
+    private final DoaRuleIndex[] checkpoints;
+    private final DoaRuleIndex latest;
+    private final int size;
+    // Earliest time the timeline can answer, null if it holds the complete history
+    private final Instant coveredFrom;
+
+    private DoaRuleTimeline(RuleVersion[][] segments, DoaRuleIndex[] checkpoints, DoaRuleIndex latest,
+                            Instant coveredFrom) {
+        this.segments = segments;
+        this.checkpoints = checkpoints;
+        this.latest = latest;
+        this.size = (segments.length - 1) * CHECKPOINT_INTERVAL + segments[segments.length - 1].length;
+        this.coveredFrom = coveredFrom;
+    }
+
+    /**
+     * Builds a timeline of the complete history; versions with the same {@code validFrom} keep their given order
+     */
+    public static DoaRuleTimeline build(List<RuleVersion> versions) {
+        return build(DoaRuleIndex.empty(), null, versions);
+    }
+
+    /**
+     * Builds a timeline that starts from a known state: {@code base} is the index at {@code coveredFrom}, and
+     * {@code versions} are the versions valid from after it
+     */
+    public static DoaRuleTimeline build(DoaRuleIndex base, Instant coveredFrom, List<RuleVersion> versions) {
+        RuleVersion[] sorted = versions.toArray(new RuleVersion[0]);
+        Arrays.sort(sorted, BY_VALID_FROM);
+        return extend(new RuleVersion[0][], new DoaRuleIndex[]{base}, 0, sorted, coveredFrom);
+    }
+
+    /**
+     * Returns a timeline with the versions appended. Versions older than the newest known version
+     * (e.g. from a transaction that committed late) cause a rebuild from the segment they fall into.
+     *
+     * @throws IllegalArgumentException if a version is older than {@link #coveredFrom()}: the dropped versions
+     *                                  it would be ordered among are gone, so the timeline must be reloaded
+     */
+    public DoaRuleTimeline withVersions(List<RuleVersion> added) {
+        if (added.isEmpty()) {
+            return this;
+        }
+
+        RuleVersion[] sortedAdded = added.toArray(new RuleVersion[0]);
+        Arrays.sort(sortedAdded, BY_VALID_FROM);
+        if (!covers(sortedAdded[0].validFrom())) {
+            throw new IllegalArgumentException("Timeline starts at " + coveredFrom
+                    + ", cannot add a version valid from " + sortedAdded[0].validFrom());
+        }
+
+        // Rebuild from the segment the oldest added version falls into; in order, that is the last one
+        int insertAt = countAtOrBefore(sortedAdded[0].validFrom());
+        int keep = Math.min(segments.length - 1, insertAt / CHECKPOINT_INTERVAL);
+        return extend(segments, checkpoints, keep, merge(keep, sortedAdded), coveredFrom);
+    }
+
+    /**
+     * Returns a timeline without the segments whose versions are all older than the cutoff. The last segment
+     * is always kept, and so is the segment the cutoff falls into, so the result covers at least
+     * {@code cutoff} onwards.
+     */
+    public DoaRuleTimeline withRetention(Instant cutoff) {
+        int drop = 0;
+        while (drop < segments.length - 1) {
+            RuleVersion[] segment = segments[drop];
+            if (!segment[segment.length - 1].validFrom().isBefore(cutoff)) {
+                break;
+            }
+            drop++;
+        }
+        if (drop == 0) {
+            return this;
+        }
+
+        RuleVersion[] lastDropped = segments[drop - 1];
+        return new DoaRuleTimeline(Arrays.copyOfRange(segments, drop, segments.length),
+                Arrays.copyOfRange(checkpoints, drop, checkpoints.length), latest,
+                lastDropped[lastDropped.length - 1].validFrom());
+    }
+
+    /**
+     * Returns whether {@link #indexAt} can answer the given time
+     */
+    public boolean covers(Instant asOf) {
+        return coveredFrom == null || !asOf.isBefore(coveredFrom);
+    }
+
+    /**
+     * Returns the index of the rules that applied at the given time: every version with
+     * {@code validFrom <= asOf} is taken into account
+     *
+     * @throws IllegalArgumentException if the time is before {@link #coveredFrom()}
+     */
+    public DoaRuleIndex indexAt(Instant asOf) {
+        if (!covers(asOf)) {
+            throw new IllegalArgumentException("Timeline starts at " + coveredFrom + ", cannot resolve " + asOf);
+        }
+        int count = countAtOrBefore(asOf);
+        if (count == size) {
+            return latest;
+        }
+        int segment = count / CHECKPOINT_INTERVAL;
+        return apply(checkpoints[segment], segments[segment], 0, count % CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Earliest time the timeline can answer, or null if it holds the complete history
+     */
+    public Instant coveredFrom() {
+        return coveredFrom;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Keeps the first {@code keep} segments (all full) and their checkpoints, and builds the rest from
+     * {@code tail}, starting from {@code known[keep]}
+     */
+    private static DoaRuleTimeline extend(RuleVersion[][] segments, DoaRuleIndex[] known, int keep,
+                                          RuleVersion[] tail, Instant coveredFrom) {
+        int count = keep + Math.max(1, (tail.length + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL);
+        RuleVersion[][] newSegments = Arrays.copyOf(segments, count);
+        DoaRuleIndex[] newCheckpoints = Arrays.copyOf(known, count);
+        for (int s = keep; s < count; s++) {
+            int from = (s - keep) * CHECKPOINT_INTERVAL;
+            newSegments[s] = Arrays.copyOfRange(tail, from, Math.min(tail.length, from + CHECKPOINT_INTERVAL));
+            if (s > keep) {
+                newCheckpoints[s] = apply(newCheckpoints[s - 1], newSegments[s - 1], 0, CHECKPOINT_INTERVAL);
+            }
+        }
+        int last = count - 1;
+        DoaRuleIndex latest = apply(newCheckpoints[last], newSegments[last], 0, newSegments[last].length);
+        return new DoaRuleTimeline(newSegments, newCheckpoints, latest, coveredFrom);
+    }
+
+    /**
+     * Merges the versions of segments {@code [from, end)} with sorted added versions; on equal
+     * {@code validFrom} the existing version comes first
+     */
+    private RuleVersion[] merge(int from, RuleVersion[] added) {
+        int existing = size - from * CHECKPOINT_INTERVAL;
+        RuleVersion[] merged = new RuleVersion[existing + added.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            if (j == added.length || (i < existing
+                    && !get(from * CHECKPOINT_INTERVAL + i).validFrom().isAfter(added[j].validFrom()))) {
+                merged[k] = get(from * CHECKPOINT_INTERVAL + i++);
+            } else {
+                merged[k] = added[j++];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Applies versions [from, to) to an index; only the last version of each rule in the range counts
+     */
+    private static DoaRuleIndex apply(DoaRuleIndex base, RuleVersion[] versions, int from, int to) {
+        if (from >= to) {
+            return base;
+        }
+
+        Map<UUID, IndexedRule> finalStates = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            finalStates.put(versions[i].ruleId(), versions[i].state());
+        }
+
+        List<IndexedRule> upserts = new ArrayList<>();
+        List<UUID> removals = new ArrayList<>();
+        finalStates.forEach((ruleId, state) -> {
+            if (state != null) {
+                upserts.add(state);
+            } else {
+                removals.add(ruleId);
+            }
+        });
+        return base.withChanges(upserts, removals);
+    }
+
+    private RuleVersion get(int position) {
+        return segments[position / CHECKPOINT_INTERVAL][position % CHECKPOINT_INTERVAL];
+    }
+
+    private int countAtOrBefore(Instant asOf) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid).validFrom().isAfter(asOf)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
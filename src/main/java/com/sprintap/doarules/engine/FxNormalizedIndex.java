@@ -0,0 +1,92 @@
+package com.sprintap.doarules.engine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Currency-normalized view of a {@link DoaRuleIndex}: an invoice is matched against the rules of its entity
+ * in every currency, with each rule's thresholds converted into the invoice currency.
+ * <p>
+ * The converted thresholds of an (entity, invoice currency) pair are computed once, on its first lookup,
+ * and kept for the lifetime of this view, so resolution does no FX arithmetic. A new view is built whenever
+ * the rule index or the FX rates change. Rules in the invoice currency keep their exact thresholds;
+ * rules in a currency without a rate are left out.
+ * </p>
+ */
+public final class FxNormalizedIndex {
+
+    // Converted thresholds keep more precision than the column scale; rounding never widens a range
+    private static final int THRESHOLD_SCALE = 6;
+
+    private final DoaRuleIndex source;
+    private final FxRateTable rates;
+    private final Map<String, List<PartitionKey>> partitionsByEntity;
+    private final Map<PartitionKey, RulePartition> normalized = new ConcurrentHashMap<>();
+
+    public FxNormalizedIndex(DoaRuleIndex source, FxRateTable rates) {
+        this.source = source;
+        this.rates = rates;
+
+        Map<String, List<PartitionKey>> byEntity = new HashMap<>();
+        for (PartitionKey key : source.partitions().keySet()) {
+            byEntity.computeIfAbsent(key.entity(), entity -> new ArrayList<>()).add(key);
+        }
+        this.partitionsByEntity = Map.copyOf(byEntity);
+    }
+
+    /**
+     * Returns the rules that apply to an invoice after currency normalization, ordered by approval level.
+     * Invoices in a currency without a rate only match rules in their own currency.
+     */
+    public List<IndexedRule> resolve(String entity, String currency, BigDecimal amount,
+                                     String vendorCode, String classification) {
+        PartitionKey key = PartitionKey.of(entity, currency);
+        if (!rates.supports(key.currency())) {
+            return source.resolve(entity, currency, amount, vendorCode, classification);
+        }
+
+        List<IndexedRule> matches = normalized.computeIfAbsent(key, this::normalize).find(amount,
+                IndexedRule.normalizeOptional(vendorCode), IndexedRule.normalizeOptional(classification));
+        matches.sort(DoaRuleIndex.BY_LEVEL);
+        return matches;
+    }
+
+    public DoaRuleIndex source() {
+        return source;
+    }
+
+    public FxRateTable rates() {
+        return rates;
+    }
+
+    /**
+     * Builds the partition of all rules of the key's entity, with thresholds in the key's currency
+     */
+    private RulePartition normalize(PartitionKey key) {
+        List<IndexedRule> rules = new ArrayList<>();
+        for (PartitionKey sourceKey : partitionsByEntity.getOrDefault(key.entity(), List.of())) {
+            RulePartition partition = source.partitions().get(sourceKey);
+            if (sourceKey.currency().equals(key.currency())) {
+                rules.addAll(partition.rules());
+                continue;
+            }
+
+            BigDecimal factor = rates.factor(sourceKey.currency(), key.currency());
+            if (factor == null) {
+                continue;
+            }
+            for (IndexedRule rule : partition.rules()) {
+                rules.add(new IndexedRule(rule.id(), rule.userId(), rule.approvalLevel(),
+                        rule.minAmount().multiply(factor).setScale(THRESHOLD_SCALE, RoundingMode.CEILING),
+                        rule.maxAmount().multiply(factor).setScale(THRESHOLD_SCALE, RoundingMode.FLOOR),
+                        rule.partition(), rule.vendorCode(), rule.classification()));
+            }
+        }
+        return RulePartition.of(rules);
+    }
+}
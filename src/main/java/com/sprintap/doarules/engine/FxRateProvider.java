@@ -0,0 +1,128 @@
+package com.sprintap.doarules.engine;
+
+import com.sprintap.doarules.entity.FxRate;
+import com.sprintap.doarules.repository.FxRateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Holds the current {@link FxRateTable} for multi-currency DOA rule evaluation.
+ * <p>
+ * Rates are read from the {@code fx_rates} table, or from a local CSV file ({@code currency,unitsPerBase}
+ * per line) when {@code app.doa.fx.rates-file} is set. They are loaded on first use and reloaded
+ * periodically; a new table is only published when the rates actually changed, so the normalized rule
+ * thresholds built from it stay cached.
+ * </p>
+ */
+@Slf4j
+@Component
+public class FxRateProvider {
+
+    private final FxRateRepository fxRateRepository;
+    private final String baseCurrency;
+    private final String ratesFile;
+
+    private volatile FxRateTable rates;
+
+    public FxRateProvider(FxRateRepository fxRateRepository,
+                          @Value("${app.doa.fx.base-currency:USD}") String baseCurrency,
+                          @Value("${app.doa.fx.rates-file:}") String ratesFile) {
+        this.fxRateRepository = fxRateRepository;
+        this.baseCurrency = baseCurrency;
+        this.ratesFile = ratesFile;
+    }
+
+    /**
+     * Returns the current rates, loading them on first use. If they cannot be loaded, an empty table is used
+     * and normalized resolution falls back to the invoice's own currency until the next reload.
+     */
+    public FxRateTable getRates() {
+        FxRateTable current = rates;
+        if (current == null) {
+            synchronized (this) {
+                if (rates == null) {
+                    rates = loadOrEmpty();
+                }
+                return rates;
+            }
+        }
+        return current;
+    }
+
+    @Scheduled(initialDelayString = "${app.doa.fx.reload-ms:3600000}",
+            fixedDelayString = "${app.doa.fx.reload-ms:3600000}")
+    public void reload() {
+        if (rates == null) {
+            return;
+        }
+        try {
+            FxRateTable reloaded = load();
+            if (!reloaded.sameRates(rates)) {
+                rates = reloaded;
+            }
+        } catch (Exception e) {
+            log.warn("Reload of FX rates failed, keeping previous rates: {}", e.getMessage());
+        }
+    }
+
+    private FxRateTable loadOrEmpty() {
+        try {
+            return load();
+        } catch (Exception e) {
+            log.warn("Loading FX rates failed, currency normalization is unavailable: {}", e.getMessage());
+            return FxRateTable.empty(baseCurrency);
+        }
+    }
+
+    private FxRateTable load() throws IOException {
+        FxRateTable loaded = ratesFile.isBlank() ? loadFromDatabase() : loadFromFile(Path.of(ratesFile));
+        log.info("Loaded {} FX rates against {} from {}", loaded.size(), loaded.baseCurrency(),
+                ratesFile.isBlank() ? "fx_rates" : ratesFile);
+        return loaded;
+    }
+
+    private FxRateTable loadFromDatabase() {
+        List<FxRate> rows = fxRateRepository.findAll();
+        Map<String, BigDecimal> unitsPerBase = new HashMap<>();
+        for (FxRate row : rows) {
+            unitsPerBase.put(row.getCurrency(), row.getUnitsPerBase());
+        }
+        Instant asOf = rows.stream()
+                .map(FxRate::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(Instant::compareTo)
+                .orElse(null);
+        return FxRateTable.of(baseCurrency, unitsPerBase, asOf);
+    }
+
+    private FxRateTable loadFromFile(Path path) throws IOException {
+        Map<String, BigDecimal> unitsPerBase = new HashMap<>();
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#") || (i == 0 && line.toLowerCase(Locale.ROOT).startsWith("currency"))) {
+                continue;
+            }
+            String[] parts = line.split(",");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid FX rate on line " + (i + 1) + " of " + path);
+            }
+            unitsPerBase.put(parts[0].trim(), new BigDecimal(parts[1].trim()));
+        }
+        return FxRateTable.of(baseCurrency, unitsPerBase, Files.getLastModifiedTime(path).toInstant());
+    }
+}
@@ -0,0 +1,81 @@
+package com.sprintap.doarules.engine;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of FX rates, each given as units of a currency per one unit of the base currency.
+ * Currency codes are compared case-insensitively; the base currency always has rate 1.
+ */
+public final class FxRateTable {
+
+    private final String baseCurrency;
+    private final Map<String, BigDecimal> unitsPerBase;
+    private final Instant asOf;
+
+    private FxRateTable(String baseCurrency, Map<String, BigDecimal> unitsPerBase, Instant asOf) {
+        this.baseCurrency = baseCurrency;
+        this.unitsPerBase = unitsPerBase;
+        this.asOf = asOf;
+    }
+
+    /**
+     * @param baseCurrency the currency all rates are quoted against
+     * @param unitsPerBase units of each currency per one unit of the base currency; must be positive
+     * @param asOf         when the rates were last updated, or null if unknown
+     */
+    public static FxRateTable of(String baseCurrency, Map<String, BigDecimal> unitsPerBase, Instant asOf) {
+        String base = PartitionKey.normalize(baseCurrency);
+        Map<String, BigDecimal> rates = new HashMap<>();
+        unitsPerBase.forEach((currency, rate) -> {
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("FX rate of " + currency + " must be positive: " + rate);
+            }
+            rates.put(PartitionKey.normalize(currency), rate);
+        });
+        rates.put(base, BigDecimal.ONE);
+        return new FxRateTable(base, Map.copyOf(rates), asOf);
+    }
+
+    public static FxRateTable empty(String baseCurrency) {
+        return of(baseCurrency, Map.of(), null);
+    }
+
+    public boolean supports(String currency) {
+        return unitsPerBase.containsKey(PartitionKey.normalize(currency));
+    }
+
+    /**
+     * Factor that converts an amount in one currency into another, or null if either rate is unknown
+     */
+    public BigDecimal factor(String fromCurrency, String toCurrency) {
+        BigDecimal from = unitsPerBase.get(PartitionKey.normalize(fromCurrency));
+        BigDecimal to = unitsPerBase.get(PartitionKey.normalize(toCurrency));
+        if (from == null || to == null) {
+            return null;
+        }
+        return to.divide(from, MathContext.DECIMAL128);
+    }
+
+    public String baseCurrency() {
+        return baseCurrency;
+    }
+
+    public Instant asOf() {
+        return asOf;
+    }
+
+    public int size() {
+        return unitsPerBase.size();
+    }
+
+    /**
+     * Whether both tables hold the same rates, regardless of their timestamps
+     */
+    public boolean sameRates(FxRateTable other) {
+        return other != null && baseCurrency.equals(other.baseCurrency) && unitsPerBase.equals(other.unitsPerBase);
+    }
+}
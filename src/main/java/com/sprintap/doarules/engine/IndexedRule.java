@@ -0,0 +1,48 @@
+package com.sprintap.doarules.engine;
+
+import com.sprintap.doarules.entity.DoaRule;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Immutable view of the DOA rule fields needed for approver resolution.
+ * Optional match fields are normalized to upper case, with blank values stored as null (matches any value).
+ */
+public record IndexedRule(
+        UUID id,
+        UUID userId,
+        int approvalLevel,
+        BigDecimal minAmount,
+        BigDecimal maxAmount,
+        PartitionKey partition,
+        String vendorCode,
+        String classification) {
+
+    public static IndexedRule from(DoaRule rule) {
+        return new IndexedRule(
+                rule.getId(),
+                rule.getUserId(),
+                rule.getApprovalLevel(),
+                rule.getMinAmount(),
+                rule.getMaxAmount(),
+                PartitionKey.of(rule.getEntity(), rule.getCurrency()),
+                normalizeOptional(rule.getVendorCode()),
+                normalizeOptional(rule.getClassification()));
+    }
+
+    /**
+     * Whether the rule applies to an invoice with the given (already normalized) vendor code and classification
+     */
+    public boolean matches(String invoiceVendorCode, String invoiceClassification) {
+        return (vendorCode == null || vendorCode.equals(invoiceVendorCode))
+                && (classification == null || classification.equals(invoiceClassification));
+    }
+
+    public static String normalizeOptional(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return PartitionKey.normalize(value);
+    }
+}
@@ -0,0 +1,15 @@
+package com.sprintap.doarules.engine;
+
+import java.math.BigDecimal;
+
+/**
+ * The invoice fields that DOA rules match on, and whether its amount is matched across currencies
+ */
+public record InvoiceAttributes(
+        String entity,
+        String currency,
+        BigDecimal amount,
+        String vendorCode,
+        String classification,
+        boolean normalizeCurrency) {
+}
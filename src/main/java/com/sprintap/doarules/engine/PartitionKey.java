@@ -0,0 +1,17 @@
+package com.sprintap.doarules.engine;
+
+import java.util.Locale;
+
+/**
+ * Key of a rule partition: rules are grouped by entity and currency, compared case-insensitively
+ */
+public record PartitionKey(String entity, String currency) {
+
+    public static PartitionKey of(String entity, String currency) {
+        return new PartitionKey(normalize(entity), normalize(currency));
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,81 @@
+package com.sprintap.doarules.engine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable interval index over the rules of one partition.
+ * <p>
+ * Rules are sorted by {@code minAmount}, and {@code maxPrefix[i]} holds the largest {@code maxAmount}
+ * among the first {@code i + 1} rules. A lookup binary-searches the last rule whose range starts at or
+ * below the amount and walks backwards, stopping as soon as no earlier rule can reach the amount.
+ * Ranges are inclusive at both ends.
+ * </p>
+ */
+public final class RulePartition {
+
+    private static final Comparator<IndexedRule> BY_MIN_AMOUNT =
+            Comparator.comparing(IndexedRule::minAmount).thenComparing(IndexedRule::id);
+
+    private final IndexedRule[] rules;
+    private final BigDecimal[] maxPrefix;
+
+    private RulePartition(IndexedRule[] rules) {
+        this.rules = rules;
+        this.maxPrefix = new BigDecimal[rules.length];
+        BigDecimal runningMax = null;
+        for (int i = 0; i < rules.length; i++) {
+            BigDecimal max = rules[i].maxAmount();
+            runningMax = runningMax == null || max.compareTo(runningMax) > 0 ? max : runningMax;
+            maxPrefix[i] = runningMax;
+        }
+    }
+
+    public static RulePartition of(Collection<IndexedRule> rules) {
+        IndexedRule[] sorted = rules.toArray(new IndexedRule[0]);
+        Arrays.sort(sorted, BY_MIN_AMOUNT);
+        return new RulePartition(sorted);
+    }
+
+    /**
+     * Returns all rules whose amount range contains the amount and that match the vendor code and classification
+     */
+    public List<IndexedRule> find(BigDecimal amount, String vendorCode, String classification) {
+        List<IndexedRule> matches = new ArrayList<>();
+        for (int i = lastStartingAtOrBelow(amount); i >= 0 && maxPrefix[i].compareTo(amount) >= 0; i--) {
+            IndexedRule rule = rules[i];
+            if (rule.maxAmount().compareTo(amount) >= 0 && rule.matches(vendorCode, classification)) {
+                matches.add(rule);
+            }
+        }
+        return matches;
+    }
+
+    public List<IndexedRule> rules() {
+        return List.of(rules);
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    private int lastStartingAtOrBelow(BigDecimal amount) {
+        int low = 0;
+        int high = rules.length - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (rules[mid].minAmount().compareTo(amount) <= 0) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,29 @@
+package com.sprintap.doarules.engine;
+
+import com.sprintap.doarules.entity.DoaRuleVersion;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of the rule timeline: from {@code validFrom}, the rule resolves as {@code state},
+ * or not at all if {@code state} is null (disabled or deleted)
+ */
+public record RuleVersion(UUID ruleId, Instant validFrom, IndexedRule state) {
+
+    public static RuleVersion from(DoaRuleVersion version) {
+        boolean resolvable = Boolean.TRUE.equals(version.getIsActive()) && Boolean.TRUE.equals(version.getEnabled());
+        IndexedRule state = resolvable
+                ? new IndexedRule(
+                        version.getRuleId(),
+                        version.getUserId(),
+                        version.getApprovalLevel(),
+                        version.getMinAmount(),
+                        version.getMaxAmount(),
+                        PartitionKey.of(version.getEntity(), version.getCurrency()),
+                        IndexedRule.normalizeOptional(version.getVendorCode()),
+                        IndexedRule.normalizeOptional(version.getClassification()))
+                : null;
+        return new RuleVersion(version.getRuleId(), version.getValidFrom(), state);
+    }
+}
@@ -0,0 +1,66 @@
+package com.sprintap.doarules.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Read-only entity over the doa_rule_stats_mv materialized view: aggregates of the active DOA rules
+ * per entity, currency, approval level and enabled state
+ */
+@Entity
+@Immutable
+@Table(name = "doa_rule_stats_mv", schema = "public")
+@IdClass(DoaRuleStats.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaRuleStats {
+
+    @Id
+    @Column(name = "entity")
+    private String entity;
+
+    @Id
+    @Column(name = "currency")
+    private String currency;
+
+    @Id
+    @Column(name = "approval_level")
+    private Integer approvalLevel;
+
+    @Id
+    @Column(name = "enabled")
+    private Boolean enabled;
+
+    @Column(name = "rule_count")
+    private Long ruleCount;
+
+    @Column(name = "approver_count")
+    private Long approverCount;
+
+    @Column(name = "min_amount")
+    private BigDecimal minAmount;
+
+    @Column(name = "max_amount")
+    private BigDecimal maxAmount;
+
+    @Column(name = "refreshed_at")
+    private Instant refreshedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String entity;
+        private String currency;
+        private Integer approvalLevel;
+        private Boolean enabled;
+    }
+}
@@ -0,0 +1,83 @@
+package com.sprintap.doarules.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing one version of a DOA rule: the rule's full state from {@code validFrom} until its next
+ * version. Versions are append-only.
+ */
+@Entity
+@Table(name = "doa_rule_versions", schema = "public")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoaRuleVersion {
+
+    /**
+     * The kind of write that produced a version
+     */
+    public enum ChangeType {
+        CREATED, UPDATED, ENABLED, DISABLED, DELETED, BACKFILLED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "version_id")
+    private UUID id;
+
+    // Assigned by the database; orders versions with the same validFrom
+    @Column(name = "seq", insertable = false, updatable = false)
+    private Long sequence;
+
+    @Column(name = "doa_rule_id", nullable = false, updatable = false)
+    private UUID ruleId;
+
+    @Column(name = "valid_from", nullable = false, updatable = false)
+    private Instant validFrom;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, updatable = false, length = 20)
+    private ChangeType changeType;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Column(name = "entity", nullable = false, updatable = false, length = 255)
+    private String entity;
+
+    @Column(name = "approval_level", nullable = false, updatable = false)
+    private Integer approvalLevel;
+
+    @Column(name = "min_amount", nullable = false, updatable = false, precision = 38, scale = 2)
+    private BigDecimal minAmount;
+
+    @Column(name = "max_amount", nullable = false, updatable = false, precision = 38, scale = 2)
+    private BigDecimal maxAmount;
+
+    @Column(name = "currency", nullable = false, updatable = false, length = 10)
+    private String currency;
+
+    @Column(name = "vendor_code", updatable = false, length = 255)
+    private String vendorCode;
+
+    @Column(name = "po_number", updatable = false, length = 255)
+    private String poNumber;
+
+    @Column(name = "classification", updatable = false, length = 255)
+    private String classification;
+
+    @Column(name = "enabled", updatable = false)
+    private Boolean enabled;
+
+    @Column(name = "is_active", updatable = false)
+    private Boolean isActive;
+}
@@ -0,0 +1,34 @@
+package com.sprintap.doarules.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Entity representing an FX rate: units of a currency per one unit of the base currency
+ */
+@Entity
+@Table(name = "fx_rates", schema = "public")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxRate {
+
+    @Id
+    @Column(name = "currency", length = 10)
+    private String currency;
+
+    @Column(name = "units_per_base", nullable = false, precision = 24, scale = 10)
+    private BigDecimal unitsPerBase;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -0,0 +1,15 @@
+package com.sprintap.doarules.exception;
+
+/**
+ * Exception thrown when a DOA rule's amount range overlaps another rule at the same approval level
+ */
+public class DoaRuleConflictException extends RuntimeException {
+
+    public DoaRuleConflictException(String message) {
+        super(message);
+    }
+
+    public DoaRuleConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
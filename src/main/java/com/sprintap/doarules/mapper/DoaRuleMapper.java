@@ -2,10 +2,14 @@ package com.sprintap.doarules.mapper;
 
 import com.sprintap.doarules.dto.DoaRuleRequest;
 import com.sprintap.doarules.dto.DoaRuleResponse;
+import com.sprintap.doarules.dto.DoaRuleVersionResponse;
 import com.sprintap.doarules.entity.DoaRule;
+import com.sprintap.doarules.entity.DoaRuleVersion;
+import com.sprintap.usermanagement.dto.UserSummary;
 import com.sprintap.usermanagement.entity.User;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -50,18 +54,88 @@ public class DoaRuleMapper {
         entity.setEnabled(request.getEnabled() != null ? request.getEnabled() : true);
     }
 
+    /**
+     * Snapshot the current state of a DoaRule as a new DoaRuleVersion
+     */
+    public DoaRuleVersion toVersion(DoaRule entity, DoaRuleVersion.ChangeType changeType, Instant validFrom) {
+        return DoaRuleVersion.builder()
+                .ruleId(entity.getId())
+                .validFrom(validFrom)
+                .changeType(changeType)
+                .userId(entity.getUserId())
+                .entity(entity.getEntity())
+                .approvalLevel(entity.getApprovalLevel())
+                .minAmount(entity.getMinAmount())
+                .maxAmount(entity.getMaxAmount())
+                .currency(entity.getCurrency())
+                .vendorCode(entity.getVendorCode())
+                .poNumber(entity.getPoNumber())
+                .classification(entity.getClassification())
+                .enabled(entity.getEnabled())
+                .isActive(entity.getIsActive())
+                .build();
+    }
+
+    /**
+     * Convert DoaRuleVersion entity to DoaRuleVersionResponse
+     */
+    public DoaRuleVersionResponse toVersionResponse(DoaRuleVersion version) {
+        return DoaRuleVersionResponse.builder()
+                .ruleId(version.getRuleId())
+                .validFrom(version.getValidFrom())
+                .changeType(version.getChangeType())
+                .userId(version.getUserId())
+                .entity(version.getEntity())
+                .approvalLevel(version.getApprovalLevel())
+                .fromAmount(version.getMinAmount())
+                .toAmount(version.getMaxAmount())
+                .currency(version.getCurrency())
+                .vendorCode(version.getVendorCode())
+                .poNumber(version.getPoNumber())
+                .classification(version.getClassification())
+                .enabled(version.getEnabled())
+                .isActive(version.getIsActive())
+                .build();
+    }
+
     /**
      * Convert DoaRule entity to DoaRuleResponse
      */
     public DoaRuleResponse toResponse(DoaRule entity) {
-        return toResponse(entity, null);
+        return toResponse(entity, (User) null);
     }
 
     /**
      * Convert DoaRule entity to DoaRuleResponse with user details
      */
     public DoaRuleResponse toResponse(DoaRule entity, User user) {
-        DoaRuleResponse.DoaRuleResponseBuilder builder = DoaRuleResponse.builder()
+        DoaRuleResponse.DoaRuleResponseBuilder builder = baseResponse(entity);
+
+        // Populate user details if available
+        if (user != null) {
+            builder.userName(user.getFullName())
+                    .emailId(user.getEmail());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Convert DoaRule entity to DoaRuleResponse with user details from a batch-loaded user summary
+     */
+    public DoaRuleResponse toResponse(DoaRule entity, UserSummary user) {
+        DoaRuleResponse.DoaRuleResponseBuilder builder = baseResponse(entity);
+
+        if (user != null) {
+            builder.userName(user.getFullName())
+                    .emailId(user.getEmail());
+        }
+
+        return builder.build();
+    }
+
+    private DoaRuleResponse.DoaRuleResponseBuilder baseResponse(DoaRule entity) {
+        return DoaRuleResponse.builder()
                 .id(entity.getId())
                 .userId(entity.getUserId())
                 .fromAmount(entity.getMinAmount())
@@ -77,15 +151,6 @@ public class DoaRuleMapper {
                 .createdAt(entity.getCreatedAt())
                 .updatedAt(entity.getUpdatedAt())
                 .createdByUserId(entity.getCreatedByUserId());
-
-        // Populate user details if available
-        if (user != null) {
-            builder.userName(user.getFullName())
-                    .emailId(user.getEmail())
-                    .country(null); // TODO: Fetch country from user attributes or separate table
-        }
-
-        return builder.build();
     }
 }
 
@@ -0,0 +1,77 @@
+package com.sprintap.doarules.repository;
+
+import com.sprintap.doarules.entity.DoaRule;
+import com.sprintap.usermanagement.exception.InvalidOperationException;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Keyset cursor for DOA rule listings: the sort field, direction, and the sort value and ID of the last
+ * rule on the previous page. The next page is everything strictly after {@code (value, id)} in
+ * {@code ORDER BY sortField, doa_rule_id}, so deep pages cost the same as the first one.
+ * <p>
+ * Cursors are opaque to clients (URL-safe Base64). Only non-null columns can be used as keys.
+ * </p>
+ */
+public record DoaRuleCursor(String sortBy, Sort.Direction direction, Comparable<?> value, UUID id) {
+
+    private static final Map<String, KeyField> KEY_FIELDS = Map.of(
+            "createdAt", new KeyField(DoaRule::getCreatedAt, Instant::parse),
+            "approvalLevel", new KeyField(DoaRule::getApprovalLevel, Integer::valueOf),
+            "minAmount", new KeyField(DoaRule::getMinAmount, BigDecimal::new),
+            "maxAmount", new KeyField(DoaRule::getMaxAmount, BigDecimal::new),
+            "entity", new KeyField(DoaRule::getEntity, value -> value),
+            "currency", new KeyField(DoaRule::getCurrency, value -> value));
+
+    /**
+     * Whether listings sorted by this field can be paged by cursor
+     */
+    public static boolean supports(String sortBy) {
+        return KEY_FIELDS.containsKey(sortBy);
+    }
+
+    /**
+     * Cursor pointing after the given rule
+     */
+    public static DoaRuleCursor after(DoaRule rule, String sortBy, Sort.Direction direction) {
+        return new DoaRuleCursor(sortBy, direction, KEY_FIELDS.get(sortBy).getter().apply(rule), rule.getId());
+    }
+
+    public static DoaRuleCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // The value goes last, so it may itself contain the separator
+            String[] parts = decoded.split(":", 4);
+            KeyField field = KEY_FIELDS.get(parts[0]);
+            if (parts.length != 4 || field == null) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            return new DoaRuleCursor(parts[0], Sort.Direction.fromString(parts[1]),
+                    field.parser().apply(parts[3]), UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new InvalidOperationException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = sortBy + ":" + direction.name() + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sort order of the cursor, with the rule ID as tie-breaker
+     */
+    public Sort sort() {
+        return Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+    }
+
+    private record KeyField(Function<DoaRule, Comparable<?>> getter, Function<String, Comparable<?>> parser) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.sprintap.doarules.repository;
+
+import com.sprintap.doarules.dto.DoaRuleExportRow;
+import com.sprintap.doarules.entity.DoaRule;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Custom repository fragment for streaming DOA rule exports
+ */
+public interface DoaRuleExportRepository {
+
+    /**
+     * Stream the DOA rules matching the specification, joined to their approvers, newest first.
+     * Rows are read through a forward-only cursor, {@code fetchSize} at a time. Must be called inside a
+     * transaction, and the stream must be closed.
+     */
+    Stream<DoaRuleExportRow> streamExportRows(Specification<DoaRule> spec, int fetchSize);
+}
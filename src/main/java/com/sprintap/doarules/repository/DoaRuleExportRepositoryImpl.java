@@ -0,0 +1,67 @@
+package com.sprintap.doarules.repository;
+
+import com.sprintap.doarules.dto.DoaRuleExportRow;
+import com.sprintap.doarules.entity.DoaRule;
+import com.sprintap.usermanagement.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaEntityJoin;
+import org.hibernate.query.criteria.JpaRoot;
+import org.hibernate.query.sqm.tree.SqmJoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Criteria-based implementation of {@link DoaRuleExportRepository}.
+ * DoaRule has no mapped association to User, so the approver is joined with a Hibernate entity join.
+ */
+public class DoaRuleExportRepositoryImpl implements DoaRuleExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<DoaRuleExportRow> streamExportRows(Specification<DoaRule> spec, int fetchSize) {
+        HibernateCriteriaBuilder criteriaBuilder = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        JpaCriteriaQuery<DoaRuleExportRow> query = criteriaBuilder.createQuery(DoaRuleExportRow.class);
+        JpaRoot<DoaRule> root = query.from(DoaRule.class);
+
+        JpaEntityJoin<User> user = root.join(User.class, SqmJoinType.LEFT);
+        user.on(criteriaBuilder.equal(user.get("userId"), root.get("userId")));
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.select(criteriaBuilder.construct(DoaRuleExportRow.class,
+                        root.get("id"),
+                        root.get("userId"),
+                        user.get("fullName"),
+                        user.get("email"),
+                        root.get("entity"),
+                        root.get("currency"),
+                        root.get("approvalLevel"),
+                        root.get("minAmount"),
+                        root.get("maxAmount"),
+                        root.get("vendorCode"),
+                        root.get("poNumber"),
+                        root.get("classification"),
+                        root.get("isActive"),
+                        root.get("enabled"),
+                        root.get("createdAt"),
+                        root.get("updatedAt"),
+                        root.get("createdByUserId")))
+                .orderBy(criteriaBuilder.desc(root.get("createdAt")), criteriaBuilder.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -1,21 +1,31 @@
 package com.sprintap.doarules.repository;
 
+import com.sprintap.doarules.dto.DoaRuleCoverage;
 import com.sprintap.doarules.entity.DoaRule;
+import com.sprintap.doarules.validation.RuleRange;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for DOA rules entity
  */
 @Repository
-public interface DoaRuleRepository extends JpaRepository<DoaRule, UUID>, JpaSpecificationExecutor<DoaRule> {
+public interface DoaRuleRepository extends JpaRepository<DoaRule, UUID>, JpaSpecificationExecutor<DoaRule>,
+        DoaRuleSliceRepository, DoaRuleExportRepository {
 
     /**
      * Find all DOA rules by user ID with pagination
@@ -37,5 +47,63 @@ public interface DoaRuleRepository extends JpaRepository<DoaRule, UUID>, JpaSpec
      * Find all active DOA rules with pagination
      */
     Page<DoaRule> findByIsActiveTrue(Pageable pageable);
-}
 
+    /**
+     * Find all DOA rules that take part in approver resolution
+     */
+    List<DoaRule> findByIsActiveTrueAndEnabledTrue();
+
+    /**
+     * Find the active DOA rules of a set of approvers, used to match bulk upserts by natural key
+     */
+    List<DoaRule> findByUserIdInAndIsActiveTrue(Collection<UUID> userIds);
+
+    /**
+     * Take a transaction-scoped advisory lock on a range validation scope, serializing overlap checks and writes
+     * of the same scope until the transaction ends
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(:scopeKey))", nativeQuery = true)
+    Integer lockRangeScope(@Param("scopeKey") String scopeKey);
+
+    /**
+     * Find the ranges of the active, enabled rules at one approval level of an entity and currency,
+     * matched the way {@link RuleRange#scope()} normalizes them (trimmed, case-insensitive)
+     */
+    @Query("SELECT new com.sprintap.doarules.validation.RuleRange(d.id, d.entity, d.currency, d.approvalLevel, "
+            + "d.vendorCode, d.classification, d.minAmount, d.maxAmount) FROM DoaRule d "
+            + "WHERE d.isActive = true AND d.enabled = true AND upper(trim(d.entity)) = upper(trim(:entity)) "
+            + "AND upper(trim(d.currency)) = upper(trim(:currency)) AND d.approvalLevel = :approvalLevel")
+    List<RuleRange> findActiveRangesAtLevel(@Param("entity") String entity,
+                                            @Param("currency") String currency,
+                                            @Param("approvalLevel") Integer approvalLevel);
+
+    /**
+     * Stream the ranges of all active, enabled rules, ordered by scope and amount for the range audit sweep
+     */
+    @Query("SELECT new com.sprintap.doarules.validation.RuleRange(d.id, d.entity, d.currency, d.approvalLevel, "
+            + "d.vendorCode, d.classification, d.minAmount, d.maxAmount) FROM DoaRule d "
+            + "WHERE d.isActive = true AND d.enabled = true "
+            + "ORDER BY upper(trim(d.entity)), upper(trim(d.currency)), d.approvalLevel, "
+            + "upper(trim(coalesce(d.vendorCode, ''))), upper(trim(coalesce(d.classification, ''))), "
+            + "d.minAmount, d.maxAmount")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<RuleRange> streamActiveRangesForAudit();
+
+    /**
+     * Find the active, enabled rules whose amount range covers the amount, ordered by approval level.
+     * Entity and currency match exactly as stored. Served by an index-only scan of
+     * {@code idx_doa_rules_active_amount_range} (see {@code db/migration/add_doa_rules_amount_range.sql}).
+     */
+    @Query(value = "SELECT d.doa_rule_id AS id, d.user_id AS userId, d.approval_level AS approvalLevel, "
+            + "d.vendor_code AS vendorCode, d.classification AS classification, "
+            + "lower(d.amount_range) AS minAmount, upper(d.amount_range) AS maxAmount "
+            + "FROM public.doa_rules d "
+            + "WHERE d.entity = :entity AND d.currency = :currency "
+            + "AND d.amount_range @> CAST(:amount AS numeric) "
+            + "AND d.is_active = true AND d.enabled = true "
+            + "ORDER BY d.approval_level, d.doa_rule_id",
+            nativeQuery = true)
+    List<DoaRuleCoverage> findCoveringRules(@Param("entity") String entity,
+                                            @Param("currency") String currency,
+                                            @Param("amount") BigDecimal amount);
+}
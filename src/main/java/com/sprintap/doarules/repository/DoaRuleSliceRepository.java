@@ -0,0 +1,18 @@
+package com.sprintap.doarules.repository;
+
+import com.sprintap.doarules.entity.DoaRule;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Custom repository fragment for DOA rule listings that do not need a total count
+ */
+public interface DoaRuleSliceRepository {
+
+    /**
+     * Find one page of DOA rules matching the specification, without running a count query.
+     * Fetches one extra row to determine whether a next page exists.
+     */
+    Slice<DoaRule> findSlice(Specification<DoaRule> spec, Pageable pageable);
+}
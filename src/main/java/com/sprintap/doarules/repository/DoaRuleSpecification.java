@@ -1,7 +1,9 @@
 package com.sprintap.doarules.repository;
 
 import com.sprintap.doarules.entity.DoaRule;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.util.ArrayList;
@@ -52,16 +54,46 @@ public class DoaRuleSpecification {
                 ));
             }
 
+            // Boolean filters are rendered as literals rather than bind parameters, so PostgreSQL
+            // can match them against the partial "WHERE is_active = true" indexes in every plan
             if (isActive != null) {
-                predicates.add(criteriaBuilder.equal(root.get("isActive"), isActive));
+                predicates.add(isActive ? criteriaBuilder.isTrue(root.get("isActive"))
+                        : criteriaBuilder.isFalse(root.get("isActive")));
             }
 
             if (enabled != null) {
-                predicates.add(criteriaBuilder.equal(root.get("enabled"), enabled));
+                predicates.add(enabled ? criteriaBuilder.isTrue(root.get("enabled"))
+                        : criteriaBuilder.isFalse(root.get("enabled")));
             }
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
 
+    /**
+     * Create a keyset specification selecting the rules that come after the cursor in its sort order.
+     * The redundant non-strict bound on the sort field gives PostgreSQL an index start position;
+     * the OR alone would be applied as a filter while scanning from the first row.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<DoaRule> after(DoaRuleCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            Expression<Comparable> sortKey = root.get(cursor.sortBy());
+            Expression<UUID> id = root.get("id");
+            Comparable value = cursor.value();
+
+            if (cursor.direction() == Sort.Direction.ASC) {
+                return criteriaBuilder.and(
+                        criteriaBuilder.greaterThanOrEqualTo(sortKey, value),
+                        criteriaBuilder.or(
+                                criteriaBuilder.greaterThan(sortKey, value),
+                                criteriaBuilder.greaterThan(id, cursor.id())));
+            }
+            return criteriaBuilder.and(
+                    criteriaBuilder.lessThanOrEqualTo(sortKey, value),
+                    criteriaBuilder.or(
+                            criteriaBuilder.lessThan(sortKey, value),
+                            criteriaBuilder.lessThan(id, cursor.id())));
+        };
+    }
+}
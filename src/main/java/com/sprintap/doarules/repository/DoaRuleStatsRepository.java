@@ -0,0 +1,35 @@
+package com.sprintap.doarules.repository;
+
+import com.sprintap.doarules.entity.DoaRuleStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository for the DOA rule statistics materialized view
+ */
+@Repository
+public interface DoaRuleStatsRepository extends JpaRepository<DoaRuleStats, DoaRuleStats.Key> {
+
+    /**
+     * Find the statistics rows, optionally filtered by entity and currency (case-insensitive)
+     */
+    @Query("SELECT s FROM DoaRuleStats s "
+            + "WHERE (:entity IS NULL OR upper(s.entity) = upper(:entity)) "
+            + "AND (:currency IS NULL OR upper(s.currency) = upper(:currency)) "
+            + "ORDER BY s.entity, s.currency, s.approvalLevel, s.enabled DESC")
+    List<DoaRuleStats> findFiltered(@Param("entity") String entity, @Param("currency") String currency);
+
+    /**
+     * Recompute the materialized view without blocking concurrent readers
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "REFRESH MATERIALIZED VIEW CONCURRENTLY public.doa_rule_stats_mv", nativeQuery = true)
+    void refresh();
+}
@@ -0,0 +1,41 @@
+package com.sprintap.doarules.repository;
+
+import com.sprintap.doarules.entity.DoaRuleVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for DOA rule versions
+ */
+@Repository
+public interface DoaRuleVersionRepository extends JpaRepository<DoaRuleVersion, UUID> {
+
+    /**
+     * Find the versions of one rule, oldest first
+     */
+    List<DoaRuleVersion> findByRuleIdOrderBySequenceAsc(UUID ruleId);
+
+    /**
+     * Find all versions of all rules in timeline order
+     */
+    List<DoaRuleVersion> findAllByOrderByValidFromAscSequenceAsc();
+
+    /**
+     * Find the versions valid from after the given time, in timeline order
+     */
+    List<DoaRuleVersion> findByValidFromAfterOrderByValidFromAscSequenceAsc(Instant after);
+
+    /**
+     * Find the state of every rule at the given time: the latest version of each rule valid from at or before it
+     */
+    @Query(value = "SELECT DISTINCT ON (v.doa_rule_id) v.* FROM public.doa_rule_versions v " +
+            "WHERE v.valid_from <= :asOf ORDER BY v.doa_rule_id, v.valid_from DESC, v.seq DESC",
+            nativeQuery = true)
+    List<DoaRuleVersion> findLatestPerRuleAsOf(@Param("asOf") Instant asOf);
+}
@@ -0,0 +1,12 @@
+package com.sprintap.doarules.repository;
+
+import com.sprintap.doarules.entity.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for FX rates
+ */
+@Repository
+public interface FxRateRepository extends JpaRepository<FxRate, String> {
+}
@@ -0,0 +1,324 @@
+package com.sprintap.doarules.service;
+
+import com.sprintap.doarules.dto.DoaRuleBulkRequest;
+import com.sprintap.doarules.dto.DoaRuleBulkResponse;
+import com.sprintap.doarules.dto.DoaRuleBulkStatusRequest;
+import com.sprintap.doarules.dto.DoaRuleRequest;
+import com.sprintap.doarules.engine.DoaRoutingEngine;
+import com.sprintap.doarules.engine.DoaRuleHistory;
+import com.sprintap.doarules.entity.DoaRule;
+import com.sprintap.doarules.entity.DoaRuleVersion;
+import com.sprintap.doarules.mapper.DoaRuleMapper;
+import com.sprintap.doarules.repository.DoaRuleRepository;
+import com.sprintap.doarules.validation.DoaRuleRangeValidator;
+import com.sprintap.doarules.validation.RuleRange;
+import com.sprintap.usermanagement.dto.UserSummary;
+import com.sprintap.usermanagement.exception.InvalidOperationException;
+import com.sprintap.usermanagement.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Service for bulk DOA rule writes.
+ * <p>
+ * Each operation runs in one transaction: rows are validated up front (bean validation in parallel,
+ * approvers and existing rules looked up in one query each), and the valid rows are written together so
+ * Hibernate sends them as JDBC batches at flush. Invalid rows are reported per row and do not stop the others.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoaRuleBulkService {
+
+    private final DoaRuleRepository doaRuleRepository;
+    private final DoaRuleMapper doaRuleMapper;
+    private final UserRepository userRepository;
+    private final DoaRoutingEngine doaRoutingEngine;
+    private final DoaRuleHistory doaRuleHistory;
+    private final DoaRuleStatsService doaRuleStatsService;
+    private final Validator validator;
+    private final DoaRuleRangeValidator doaRuleRangeValidator;
+
+    @Value("${app.doa.bulk.max-rows:5000}")
+    private int maxRows;
+
+    /**
+     * Create many DOA rules
+     */
+    @Transactional
+    public DoaRuleBulkResponse createDoaRules(DoaRuleBulkRequest request, UUID createdByUserId) {
+        log.info("Bulk creating {} DOA rules", request.getRules().size());
+        return writeRules(request.getRules(), createdByUserId, false);
+    }
+
+    /**
+     * Create or update many DOA rules, matched to existing active rules by natural key
+     * (user, entity, currency and approval level)
+     */
+    @Transactional
+    public DoaRuleBulkResponse upsertDoaRules(DoaRuleBulkRequest request, UUID createdByUserId) {
+        log.info("Bulk upserting {} DOA rules", request.getRules().size());
+        return writeRules(request.getRules(), createdByUserId, true);
+    }
+
+    /**
+     * Enable or disable many DOA rules
+     */
+    @Transactional
+    public DoaRuleBulkResponse toggleDoaRulesStatus(DoaRuleBulkStatusRequest request) {
+        if (request.getEnabled() == null) {
+            throw new InvalidOperationException("Enabled status is required");
+        }
+        log.info("Bulk toggling {} DOA rules to enabled: {}", request.getIds().size(), request.getEnabled());
+
+        // Rules being enabled must not overlap the enabled rules or each other
+        DoaRuleRangeValidator.Batch rangeCheck = doaRuleRangeValidator.newBatch();
+        return updateStatus(request.getIds(), rule -> {
+            if (request.getEnabled() && Boolean.TRUE.equals(rule.getIsActive())) {
+                Optional<String> conflict = rangeCheck.check(RuleRange.of(rule));
+                if (conflict.isPresent()) {
+                    return conflict.get();
+                }
+            }
+            rule.setEnabled(request.getEnabled());
+            return null;
+        }, DoaRuleBulkResponse.Status.TOGGLED, request.getEnabled()
+                ? DoaRuleVersion.ChangeType.ENABLED : DoaRuleVersion.ChangeType.DISABLED);
+    }
+
+    /**
+     * Soft delete many DOA rules
+     */
+    @Transactional
+    public DoaRuleBulkResponse deleteDoaRules(DoaRuleBulkStatusRequest request) {
+        log.info("Bulk deleting {} DOA rules", request.getIds().size());
+        return updateStatus(request.getIds(), rule -> {
+            rule.setIsActive(false);
+            return null;
+        }, DoaRuleBulkResponse.Status.DELETED, DoaRuleVersion.ChangeType.DELETED);
+    }
+
+    private DoaRuleBulkResponse writeRules(List<DoaRuleRequest> rows, UUID createdByUserId, boolean upsert) {
+        validateSize(rows.size());
+        DoaRuleBulkResponse.RowResult[] results = new DoaRuleBulkResponse.RowResult[rows.size()];
+
+        // Bean validation is CPU-bound and independent per row
+        IntStream.range(0, rows.size()).parallel().forEach(i -> {
+            List<String> errors = validate(rows.get(i));
+            if (!errors.isEmpty()) {
+                results[i] = failed(i, errors);
+            }
+        });
+
+        Set<UUID> userIds = IntStream.range(0, rows.size())
+                .filter(i -> results[i] == null)
+                .mapToObj(i -> rows.get(i).getUserId())
+                .collect(Collectors.toSet());
+        Set<UUID> existingUserIds = userIds.isEmpty() ? Set.of() : userRepository.findByUserIdIn(userIds).stream()
+                .map(UserSummary::getUserId)
+                .collect(Collectors.toSet());
+
+        Map<NaturalKey, List<DoaRule>> existingRules = upsert && !userIds.isEmpty()
+                ? doaRuleRepository.findByUserIdInAndIsActiveTrue(userIds).stream()
+                        .collect(Collectors.groupingBy(NaturalKey::of))
+                : Map.of();
+
+        Map<NaturalKey, Integer> firstRowByKey = new HashMap<>();
+        DoaRuleRangeValidator.Batch rangeCheck = doaRuleRangeValidator.newBatch();
+        List<DoaRule> created = new ArrayList<>();
+        List<DoaRule> updated = new ArrayList<>();
+
+        for (int i = 0; i < rows.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            DoaRuleRequest row = rows.get(i);
+            if (!existingUserIds.contains(row.getUserId())) {
+                results[i] = failed(i, List.of("User not found with id: " + row.getUserId()));
+                continue;
+            }
+
+            DoaRule existing = null;
+            if (upsert) {
+                NaturalKey key = NaturalKey.of(row);
+                Integer firstRow = firstRowByKey.putIfAbsent(key, i);
+                if (firstRow != null) {
+                    results[i] = failed(i, List.of("Duplicate of row " + firstRow));
+                    continue;
+                }
+                List<DoaRule> matches = existingRules.getOrDefault(key, List.of());
+                if (matches.size() > 1) {
+                    results[i] = failed(i, List.of(matches.size()
+                            + " active rules match this user, entity, currency and approval level"));
+                    continue;
+                }
+                existing = matches.isEmpty() ? null : matches.get(0);
+            }
+
+            if (!Boolean.FALSE.equals(row.getEnabled())) {
+                Optional<String> conflict = rangeCheck.check(
+                        RuleRange.of(existing != null ? existing.getId() : null, row));
+                if (conflict.isPresent()) {
+                    results[i] = failed(i, List.of(conflict.get()));
+                    continue;
+                }
+            }
+
+            DoaRuleBulkResponse.Status status = DoaRuleBulkResponse.Status.CREATED;
+            DoaRule doaRule = existing;
+            if (doaRule != null) {
+                doaRuleMapper.updateEntity(doaRule, row);
+                status = DoaRuleBulkResponse.Status.UPDATED;
+                updated.add(doaRule);
+            } else {
+                doaRule = doaRuleRepository.save(doaRuleMapper.toEntity(row, createdByUserId));
+                created.add(doaRule);
+            }
+
+            results[i] = succeeded(i, doaRule.getId(), status);
+        }
+
+        // Inserts and updates are sent as JDBC batches when the transaction flushes
+        doaRuleHistory.recordAll(created, DoaRuleVersion.ChangeType.CREATED);
+        doaRuleHistory.recordAll(updated, DoaRuleVersion.ChangeType.UPDATED);
+        List<DoaRule> written = new ArrayList<>(created);
+        written.addAll(updated);
+        doaRoutingEngine.onRulesChanged(written);
+        doaRuleStatsService.markStale();
+
+        return toResponse(results);
+    }
+
+    /**
+     * Apply a change to each rule by ID. The change returns an error message to reject the rule, or null.
+     */
+    private DoaRuleBulkResponse updateStatus(List<UUID> ids, Function<DoaRule, String> change,
+                                             DoaRuleBulkResponse.Status status,
+                                             DoaRuleVersion.ChangeType changeType) {
+        validateSize(ids.size());
+
+        Map<UUID, DoaRule> rulesById = doaRuleRepository.findAllById(new HashSet<>(ids)).stream()
+                .collect(Collectors.toMap(DoaRule::getId, Function.identity()));
+
+        DoaRuleBulkResponse.RowResult[] results = new DoaRuleBulkResponse.RowResult[ids.size()];
+        Set<DoaRule> changed = new LinkedHashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            DoaRule doaRule = rulesById.get(ids.get(i));
+            if (doaRule == null) {
+                results[i] = DoaRuleBulkResponse.RowResult.builder()
+                        .index(i)
+                        .id(ids.get(i))
+                        .status(DoaRuleBulkResponse.Status.NOT_FOUND)
+                        .errors(List.of("DOA rule not found with id: " + ids.get(i)))
+                        .build();
+                continue;
+            }
+            String error = change.apply(doaRule);
+            if (error != null) {
+                results[i] = DoaRuleBulkResponse.RowResult.builder()
+                        .index(i)
+                        .id(doaRule.getId())
+                        .status(DoaRuleBulkResponse.Status.FAILED)
+                        .errors(List.of(error))
+                        .build();
+                continue;
+            }
+            changed.add(doaRule);
+            results[i] = succeeded(i, doaRule.getId(), status);
+        }
+
+        // Dirty rules are written as batched updates when the transaction flushes
+        doaRuleHistory.recordAll(changed, changeType);
+        doaRoutingEngine.onRulesChanged(changed);
+        doaRuleStatsService.markStale();
+
+        return toResponse(results);
+    }
+
+    private void validateSize(int rows) {
+        if (rows > maxRows) {
+            throw new InvalidOperationException("Bulk request contains " + rows + " rows, the maximum is " + maxRows);
+        }
+    }
+
+    private List<String> validate(DoaRuleRequest row) {
+        if (row == null) {
+            return List.of("Row is empty");
+        }
+        return validator.validate(row).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static DoaRuleBulkResponse.RowResult succeeded(int index, UUID id, DoaRuleBulkResponse.Status status) {
+        return DoaRuleBulkResponse.RowResult.builder()
+                .index(index)
+                .id(id)
+                .status(status)
+                .build();
+    }
+
+    private static DoaRuleBulkResponse.RowResult failed(int index, List<String> errors) {
+        return DoaRuleBulkResponse.RowResult.builder()
+                .index(index)
+                .status(DoaRuleBulkResponse.Status.FAILED)
+                .errors(errors)
+                .build();
+    }
+
+    private static DoaRuleBulkResponse toResponse(DoaRuleBulkResponse.RowResult[] results) {
+        int failed = (int) Arrays.stream(results)
+                .filter(result -> result.getStatus() == DoaRuleBulkResponse.Status.FAILED
+                        || result.getStatus() == DoaRuleBulkResponse.Status.NOT_FOUND)
+                .count();
+
+        return DoaRuleBulkResponse.builder()
+                .total(results.length)
+                .succeeded(results.length - failed)
+                .failed(failed)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    /**
+     * Natural key used to match upserted rows to existing rules; entity and currency compare case-insensitively
+     */
+    private record NaturalKey(UUID userId, String entity, String currency, Integer approvalLevel) {
+
+        static NaturalKey of(DoaRuleRequest row) {
+            return new NaturalKey(row.getUserId(), normalize(row.getEntity()), normalize(row.getCurrency()),
+                    row.getApprovalLevel());
+        }
+
+        static NaturalKey of(DoaRule rule) {
+            return new NaturalKey(rule.getUserId(), normalize(rule.getEntity()), normalize(rule.getCurrency()),
+                    rule.getApprovalLevel());
+        }
+
+        private static String normalize(String value) {
+            return value == null ? null : value.trim().toUpperCase(Locale.ROOT);
+        }
+    }
+}
@@ -1,26 +1,61 @@
 package com.sprintap.doarules.service;
 
+import com.sprintap.doarules.dto.DoaBatchResolveRequest;
+import com.sprintap.doarules.dto.DoaResolveRequest;
+import com.sprintap.doarules.dto.DoaResolveResponse;
+import com.sprintap.doarules.dto.DoaRuleExportRow;
+import com.sprintap.doarules.dto.DoaRulePageResponse;
+import com.sprintap.doarules.dto.DoaRuleRangeIssue;
 import com.sprintap.doarules.dto.DoaRuleRequest;
 import com.sprintap.doarules.dto.DoaRuleResponse;
+import com.sprintap.doarules.dto.DoaRuleVersionResponse;
 import com.sprintap.doarules.dto.ToggleStatusResponse;
+import com.sprintap.doarules.engine.ColumnarRuleSnapshot;
+import com.sprintap.doarules.engine.DoaBatchEvaluator;
+import com.sprintap.doarules.engine.DoaRoutingEngine;
+import com.sprintap.doarules.engine.DoaRuleHistory;
+import com.sprintap.doarules.engine.FxNormalizedIndex;
+import com.sprintap.doarules.engine.IndexedRule;
+import com.sprintap.doarules.engine.InvoiceAttributes;
 import com.sprintap.doarules.entity.DoaRule;
+import com.sprintap.doarules.entity.DoaRuleVersion;
 import com.sprintap.doarules.exception.DoaRuleNotFoundException;
 import com.sprintap.doarules.mapper.DoaRuleMapper;
+import com.sprintap.doarules.repository.DoaRuleCursor;
 import com.sprintap.doarules.repository.DoaRuleRepository;
 import com.sprintap.doarules.repository.DoaRuleSpecification;
+import com.sprintap.doarules.repository.DoaRuleVersionRepository;
+import com.sprintap.doarules.validation.DoaRuleRangeValidator;
+import com.sprintap.doarules.validation.RuleRange;
+import com.sprintap.usermanagement.dto.UserSummary;
 import com.sprintap.usermanagement.entity.User;
+import com.sprintap.usermanagement.exception.InvalidOperationException;
 import com.sprintap.usermanagement.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for managing DOA rules
@@ -33,16 +68,37 @@ public class DoaRuleService {
     private final DoaRuleRepository doaRuleRepository;
     private final DoaRuleMapper doaRuleMapper;
     private final UserRepository userRepository;
+    private final DoaRoutingEngine doaRoutingEngine;
+    private final DoaBatchEvaluator doaBatchEvaluator;
+    private final DoaRuleRangeValidator doaRuleRangeValidator;
+    private final DoaRuleHistory doaRuleHistory;
+    private final DoaRuleVersionRepository doaRuleVersionRepository;
+    private final DoaRuleStatsService doaRuleStatsService;
+
+    @Value("${app.doa.engine.batch-max-size:500000}")
+    private int batchMaxSize;
+
+    @Value("${app.doa.engine.batch-chunk-size:20000}")
+    private int batchChunkSize;
+
+    @Value("${app.doa.export.fetch-size:1000}")
+    private int exportFetchSize;
 
     /**
-     * Get all DOA rules with filtering and pagination
+     * Get all DOA rules with filtering and pagination.
+     * <p>
+     * A cursor from a previous response switches to keyset paging in the cursor's sort order; otherwise
+     * the page number is used. The count query only runs for page-number requests with {@code withTotal}.
+     * </p>
      */
     @Transactional(readOnly = true)
-    public Page<DoaRuleResponse> getAllDoaRules(
+    public DoaRulePageResponse getAllDoaRules(
             Integer page,
             Integer size,
             String sortBy,
             String sortOrder,
+            String cursor,
+            boolean withTotal,
             UUID userId,
             String entity,
             String currency,
@@ -50,28 +106,87 @@ public class DoaRuleService {
             Boolean isActive,
             Boolean enabled) {
 
-        log.info("Fetching DOA rules with filters - page: {}, size: {}, sortBy: {}, sortOrder: {}",
-                page, size, sortBy, sortOrder);
+        log.info("Fetching DOA rules with filters - page: {}, size: {}, sortBy: {}, sortOrder: {}, cursor: {}",
+                page, size, sortBy, sortOrder, cursor != null);
+
+        // Create specification with filters
+        Specification<DoaRule> spec = DoaRuleSpecification.withFilters(
+                userId, entity, currency, classification, isActive, enabled);
+
+        if (cursor != null && !cursor.isBlank()) {
+            DoaRuleCursor after = DoaRuleCursor.decode(cursor);
+            Slice<DoaRule> slice = doaRuleRepository.findSlice(
+                    spec.and(DoaRuleSpecification.after(after)), PageRequest.of(0, size, after.sort()));
+            return toPageResponse(slice, null, after.sortBy(), after.direction());
+        }
 
-        // Create sort
+        // Create sort, with the rule ID as tie-breaker so pages are stable
         Sort.Direction direction = "asc".equalsIgnoreCase(sortOrder) ? Sort.Direction.ASC : Sort.Direction.DESC;
-        Sort sort = Sort.by(direction, sortBy);
+        Sort sort = Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
 
         // Create pageable
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        // Create specification with filters
+        // Fetch data
+        Slice<DoaRule> doaRules = withTotal
+                ? doaRuleRepository.findAll(spec, pageable)
+                : doaRuleRepository.findSlice(spec, pageable);
+
+        // Convert to response DTOs with user details
+        return toPageResponse(doaRules, page, sortBy, direction);
+    }
+
+    /**
+     * Export all DOA rules matching the filters, passing each row to the sink as it is read.
+     * Rows come from a forward-only database cursor as DTO projections, so memory use does not grow
+     * with the size of the export. Must be called from the thread that writes the response.
+     *
+     * @return the number of exported rules
+     */
+    @Transactional(readOnly = true)
+    public long exportDoaRules(
+            UUID userId,
+            String entity,
+            String currency,
+            String classification,
+            Boolean isActive,
+            Boolean enabled,
+            Consumer<DoaRuleExportRow> sink) {
+
+        log.info("Exporting DOA rules with filters - userId: {}, entity: {}, currency: {}, classification: {}",
+                userId, entity, currency, classification);
+        long start = System.currentTimeMillis();
+
         Specification<DoaRule> spec = DoaRuleSpecification.withFilters(
                 userId, entity, currency, classification, isActive, enabled);
 
-        // Fetch data
-        Page<DoaRule> doaRulesPage = doaRuleRepository.findAll(spec, pageable);
+        long count = 0;
+        try (Stream<DoaRuleExportRow> rows = doaRuleRepository.streamExportRows(spec, exportFetchSize)) {
+            Iterator<DoaRuleExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                count++;
+            }
+        }
+
+        log.info("Exported {} DOA rules in {} ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
 
-        // Convert to response DTOs with user details
-        return doaRulesPage.map(doaRule -> {
-            User user = userRepository.findById(doaRule.getUserId()).orElse(null);
-            return doaRuleMapper.toResponse(doaRule, user);
-        });
+    /**
+     * Audit the amount ranges of all active, enabled DOA rules, passing each overlap or gap to the sink as it
+     * is found. The rules are streamed from the database in sweep order, so memory use stays constant.
+     */
+    @Transactional(readOnly = true)
+    public void auditRanges(Consumer<DoaRuleRangeIssue> sink) {
+        log.info("Auditing DOA rule amount ranges");
+        long start = System.currentTimeMillis();
+
+        try (Stream<RuleRange> ranges = doaRuleRepository.streamActiveRangesForAudit()) {
+            doaRuleRangeValidator.audit(ranges, sink);
+        }
+
+        log.info("Audited DOA rule amount ranges in {} ms", System.currentTimeMillis() - start);
     }
 
     /**
@@ -97,8 +212,15 @@ public class DoaRuleService {
 
         // TODO: Validate if user exists in users table
 
+        if (!Boolean.FALSE.equals(request.getEnabled())) {
+            doaRuleRangeValidator.validateNoOverlap(RuleRange.of(null, request));
+        }
+
         DoaRule doaRule = doaRuleMapper.toEntity(request, createdByUserId);
         DoaRule savedDoaRule = doaRuleRepository.save(doaRule);
+        doaRuleHistory.record(savedDoaRule, DoaRuleVersion.ChangeType.CREATED);
+        doaRoutingEngine.onRuleChanged(savedDoaRule);
+        doaRuleStatsService.markStale();
 
         log.info("DOA rule created successfully with id: {}", savedDoaRule.getId());
 
@@ -118,8 +240,15 @@ public class DoaRuleService {
 
         // TODO: Validate if user exists in users table
 
+        if (Boolean.TRUE.equals(existingDoaRule.getIsActive()) && !Boolean.FALSE.equals(request.getEnabled())) {
+            doaRuleRangeValidator.validateNoOverlap(RuleRange.of(id, request));
+        }
+
         doaRuleMapper.updateEntity(existingDoaRule, request);
         DoaRule updatedDoaRule = doaRuleRepository.save(existingDoaRule);
+        doaRuleHistory.record(updatedDoaRule, DoaRuleVersion.ChangeType.UPDATED);
+        doaRoutingEngine.onRuleChanged(updatedDoaRule);
+        doaRuleStatsService.markStale();
 
         log.info("DOA rule updated successfully with id: {}", updatedDoaRule.getId());
 
@@ -139,10 +268,30 @@ public class DoaRuleService {
 
         doaRule.setIsActive(false);
         doaRuleRepository.save(doaRule);
+        doaRuleHistory.record(doaRule, DoaRuleVersion.ChangeType.DELETED);
+        doaRoutingEngine.onRuleChanged(doaRule);
+        doaRuleStatsService.markStale();
 
         log.info("DOA rule soft deleted successfully with id: {}", id);
     }
 
+    /**
+     * Get the version history of a DOA rule, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<DoaRuleVersionResponse> getDoaRuleHistory(UUID id) {
+        log.info("Fetching history of DOA rule with id: {}", id);
+
+        List<DoaRuleVersion> versions = doaRuleVersionRepository.findByRuleIdOrderBySequenceAsc(id);
+        if (versions.isEmpty() && !doaRuleRepository.existsById(id)) {
+            throw new DoaRuleNotFoundException("DOA rule not found with id: " + id);
+        }
+
+        return versions.stream()
+                .map(doaRuleMapper::toVersionResponse)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Toggle DOA rule status (enable/disable)
      */
@@ -153,8 +302,16 @@ public class DoaRuleService {
         DoaRule doaRule = doaRuleRepository.findById(id)
                 .orElseThrow(() -> new DoaRuleNotFoundException("DOA rule not found with id: " + id));
 
+        if (Boolean.TRUE.equals(enabled) && Boolean.TRUE.equals(doaRule.getIsActive())) {
+            doaRuleRangeValidator.validateNoOverlap(RuleRange.of(doaRule));
+        }
+
         doaRule.setEnabled(enabled);
         DoaRule updatedDoaRule = doaRuleRepository.save(doaRule);
+        doaRuleHistory.record(updatedDoaRule, Boolean.TRUE.equals(enabled)
+                ? DoaRuleVersion.ChangeType.ENABLED : DoaRuleVersion.ChangeType.DISABLED);
+        doaRoutingEngine.onRuleChanged(updatedDoaRule);
+        doaRuleStatsService.markStale();
 
         log.info("DOA rule status toggled successfully for id: {}", id);
 
@@ -169,32 +326,242 @@ public class DoaRuleService {
      * Get DOA rules by user ID
      */
     @Transactional(readOnly = true)
-    public Page<DoaRuleResponse> getDoaRulesByUserId(UUID userId, Integer page, Integer size) {
+    public DoaRulePageResponse getDoaRulesByUserId(UUID userId, Integer page, Integer size) {
         log.info("Fetching DOA rules for user id: {}", userId);
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<DoaRule> doaRulesPage = doaRuleRepository.findByUserId(userId, pageable);
 
-        return doaRulesPage.map(doaRule -> {
-            User user = userRepository.findById(doaRule.getUserId()).orElse(null);
-            return doaRuleMapper.toResponse(doaRule, user);
-        });
+        return toPageResponse(doaRulesPage, page, null, null);
     }
 
     /**
      * Get DOA rules by entity
      */
     @Transactional(readOnly = true)
-    public Page<DoaRuleResponse> getDoaRulesByEntity(String entity, Integer page, Integer size) {
+    public DoaRulePageResponse getDoaRulesByEntity(String entity, Integer page, Integer size) {
         log.info("Fetching DOA rules for entity: {}", entity);
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<DoaRule> doaRulesPage = doaRuleRepository.findByEntity(entity, pageable);
 
-        return doaRulesPage.map(doaRule -> {
-            User user = userRepository.findById(doaRule.getUserId()).orElse(null);
-            return doaRuleMapper.toResponse(doaRule, user);
-        });
+        return toPageResponse(doaRulesPage, page, null, null);
+    }
+
+    /**
+     * Resolve the ordered approver chain for an invoice.
+     * Served from the in-memory routing index; only the approvers' user details are read from the database.
+     */
+    @Transactional(readOnly = true)
+    public DoaResolveResponse resolveApprovers(DoaResolveRequest request) {
+        log.info("Resolving approvers for entity: {}, currency: {}, amount: {}",
+                request.getEntity(), request.getCurrency(), request.getAmount());
+
+        validateAsOf(request.getAsOf(), request.getNormalizeCurrency());
+
+        List<IndexedRule> rules;
+        Instant fxRatesAsOf = null;
+        if (request.getAsOf() != null) {
+            rules = doaRuleHistory.indexAt(request.getAsOf()).resolve(request.getEntity(), request.getCurrency(),
+                    request.getAmount(), request.getVendorCode(), request.getClassification());
+        } else if (Boolean.TRUE.equals(request.getNormalizeCurrency())) {
+            FxNormalizedIndex normalized = doaRoutingEngine.getFxNormalizedIndex(doaRoutingEngine.getIndex());
+            rules = normalized.resolve(request.getEntity(), request.getCurrency(),
+                    request.getAmount(), request.getVendorCode(), request.getClassification());
+            fxRatesAsOf = normalized.rates().asOf();
+        } else {
+            rules = doaRoutingEngine.resolve(request.getEntity(), request.getCurrency(),
+                    request.getAmount(), request.getVendorCode(), request.getClassification());
+        }
+        Map<UUID, UserSummary> usersById = loadUserSummaries(rules.stream().map(IndexedRule::userId));
+
+        return toResolveResponse(request, rules, usersById, request.getAsOf(), fxRatesAsOf);
+    }
+
+    /**
+     * Check that a batch resolve request is within the configured size limit and that its options can be combined
+     */
+    public void validateBatch(DoaBatchResolveRequest request) {
+        if (request.getInvoices().size() > batchMaxSize) {
+            throw new InvalidOperationException("Batch contains " + request.getInvoices().size()
+                    + " invoices, the maximum is " + batchMaxSize);
+        }
+        for (DoaResolveRequest invoice : request.getInvoices()) {
+            if (invoice.getAsOf() != null) {
+                throw new InvalidOperationException("Set asOf on the batch, not on individual invoices");
+            }
+            validateAsOf(request.getAsOf(), invoice.getNormalizeCurrency());
+        }
+    }
+
+    /**
+     * Resolve the approver chains of a batch of invoices, passing one response per invoice to the sink
+     * in input order.
+     * <p>
+     * The whole batch is evaluated against one snapshot of the rules. Invoices are processed in chunks:
+     * each chunk is evaluated in parallel on the columnar snapshot, then the approvers' user details are
+     * loaded in one query and the chunk is handed to the sink before the next one starts, so results can be
+     * streamed while the rest of the batch is still being evaluated.
+     * </p>
+     */
+    public void resolveApproversBatch(DoaBatchResolveRequest request, Consumer<DoaResolveResponse> sink) {
+        List<DoaResolveRequest> invoices = request.getInvoices();
+        log.info("Resolving approvers for a batch of {} invoices", invoices.size());
+        long start = System.currentTimeMillis();
+
+        ColumnarRuleSnapshot snapshot = request.getAsOf() != null
+                ? ColumnarRuleSnapshot.of(doaRuleHistory.indexAt(request.getAsOf()))
+                : doaRoutingEngine.getColumnarSnapshot();
+        FxNormalizedIndex normalized = doaRoutingEngine.getFxNormalizedIndex(snapshot.source());
+        Instant fxRatesAsOf = normalized.rates().asOf();
+        for (int from = 0; from < invoices.size(); from += batchChunkSize) {
+            List<DoaResolveRequest> chunk = invoices.subList(from, Math.min(from + batchChunkSize, invoices.size()));
+
+            List<List<IndexedRule>> results = doaBatchEvaluator.evaluate(snapshot, normalized, chunk.stream()
+                    .map(invoice -> new InvoiceAttributes(invoice.getEntity(), invoice.getCurrency(),
+                            invoice.getAmount(), invoice.getVendorCode(), invoice.getClassification(),
+                            Boolean.TRUE.equals(invoice.getNormalizeCurrency())))
+                    .toList());
+
+            Map<UUID, UserSummary> usersById = loadUserSummaries(results.stream()
+                    .flatMap(List::stream)
+                    .map(IndexedRule::userId));
+
+            for (int i = 0; i < chunk.size(); i++) {
+                DoaResolveRequest invoice = chunk.get(i);
+                sink.accept(toResolveResponse(invoice, results.get(i), usersById, request.getAsOf(),
+                        Boolean.TRUE.equals(invoice.getNormalizeCurrency()) ? fxRatesAsOf : null));
+            }
+        }
+
+        log.info("Resolved approvers for {} invoices in {} ms", invoices.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * As-of resolution uses the rules of that time but today's FX rates, so the two cannot be combined
+     */
+    private static void validateAsOf(Instant asOf, Boolean normalizeCurrency) {
+        if (asOf != null && Boolean.TRUE.equals(normalizeCurrency)) {
+            throw new InvalidOperationException("asOf cannot be combined with normalizeCurrency");
+        }
     }
-}
 
+    private DoaResolveResponse toResolveResponse(DoaResolveRequest request, List<IndexedRule> rules,
+                                                 Map<UUID, UserSummary> usersById, Instant asOf,
+                                                 Instant fxRatesAsOf) {
+        return DoaResolveResponse.builder()
+                .reference(request.getReference())
+                .entity(request.getEntity())
+                .currency(request.getCurrency())
+                .amount(request.getAmount())
+                .asOf(asOf)
+                .fxRatesAsOf(fxRatesAsOf)
+                .approvalChain(toApprovalChain(rules, usersById))
+                .build();
+    }
+
+    /**
+     * Group rules (already ordered by approval level) into approval steps with user details
+     */
+    private List<DoaResolveResponse.ApprovalStep> toApprovalChain(List<IndexedRule> rules,
+                                                                  Map<UUID, UserSummary> usersById) {
+        Map<Integer, List<DoaResolveResponse.Approver>> approversByLevel = new LinkedHashMap<>();
+        for (IndexedRule rule : rules) {
+            UserSummary user = usersById.get(rule.userId());
+            approversByLevel.computeIfAbsent(rule.approvalLevel(), level -> new ArrayList<>())
+                    .add(DoaResolveResponse.Approver.builder()
+                            .ruleId(rule.id())
+                            .userId(rule.userId())
+                            .userName(user != null ? user.getFullName() : null)
+                            .emailId(user != null ? user.getEmail() : null)
+                            .build());
+        }
+
+        return approversByLevel.entrySet().stream()
+                .map(entry -> DoaResolveResponse.ApprovalStep.builder()
+                        .approvalLevel(entry.getKey())
+                        .approvers(entry.getValue())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Convert a page of DOA rules to the listing envelope, loading the user details of all rules on the page
+     * in one query instead of one lookup per rule.
+     *
+     * @param page      the requested page number, or null for a cursor page
+     * @param sortBy    the sort field, or null if the listing cannot be continued by cursor
+     * @param direction the sort direction
+     */
+    private DoaRulePageResponse toPageResponse(Slice<DoaRule> doaRules, Integer page, String sortBy,
+                                               Sort.Direction direction) {
+        Map<UUID, UserSummary> usersById = loadUserSummaries(doaRules.stream().map(DoaRule::getUserId));
+
+        List<DoaRuleResponse> content = doaRules.getContent().stream()
+                .map(doaRule -> doaRuleMapper.toResponse(doaRule, usersById.get(doaRule.getUserId())))
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (doaRules.hasNext() && sortBy != null && DoaRuleCursor.supports(sortBy)) {
+            DoaRule last = doaRules.getContent().get(doaRules.getNumberOfElements() - 1);
+            nextCursor = DoaRuleCursor.after(last, sortBy, direction).encode();
+        }
+
+        DoaRulePageResponse.DoaRulePageResponseBuilder response = DoaRulePageResponse.builder()
+                .content(content)
+                .number(page)
+                .size(doaRules.getSize())
+                .numberOfElements(doaRules.getNumberOfElements())
+                .first(page != null && doaRules.isFirst())
+                .last(!doaRules.hasNext())
+                .nextCursor(nextCursor);
+
+        if (doaRules instanceof Page<DoaRule> counted) {
+            response.totalElements(counted.getTotalElements())
+                    .totalPages(counted.getTotalPages());
+        }
+        return response.build();
+    }
+
+    /**
+     * Load the user details for a set of user IDs; users in the second-level cache are not queried,
+     * the rest are read in one query
+     */
+    private Map<UUID, UserSummary> loadUserSummaries(Stream<UUID> userIdStream) {
+        Set<UUID> userIds = userIdStream
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllByIdCached(userIds).stream()
+                .<UserSummary>map(ApproverSummary::of)
+                .collect(Collectors.toMap(UserSummary::getUserId, Function.identity()));
+    }
+
+    /**
+     * Display details of an approver, copied from the cached user entity
+     */
+    private record ApproverSummary(UUID userId, String fullName, String email) implements UserSummary {
+
+        static ApproverSummary of(User user) {
+            return new ApproverSummary(user.getUserId(), user.getFullName(), user.getEmail());
+        }
+
+        @Override
+        public UUID getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String getFullName() {
+            return fullName;
+        }
+
+        @Override
+        public String getEmail() {
+            return email;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.sprintap.doarules.service;
+
+import com.sprintap.doarules.dto.DoaRuleStatsResponse;
+import com.sprintap.doarules.engine.TransactionHooks;
+import com.sprintap.doarules.entity.DoaRuleStats;
+import com.sprintap.doarules.repository.DoaRuleStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Service for aggregate DOA rule statistics.
+ * <p>
+ * Statistics are read from the doa_rule_stats_mv materialized view, so a request reads a few hundred
+ * pre-aggregated rows instead of the rules. Rule writes mark the view stale once they commit, and a scheduled
+ * task refreshes it concurrently (readers are not blocked); several writes between two runs cost one refresh.
+ * The view is also refreshed when it is older than the maximum age, to pick up writes from other instances.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoaRuleStatsService {
+
+    private final DoaRuleStatsRepository doaRuleStatsRepository;
+
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    private volatile long lastRefreshMillis;
+
+    @Value("${app.doa.stats.max-age-ms:900000}")
+    private long maxAgeMs;
+
+    /**
+     * Get the statistics of the active DOA rules, optionally for one entity and/or currency
+     */
+    @Transactional(readOnly = true)
+    public DoaRuleStatsResponse getStats(String entity, String currency) {
+        log.info("Fetching DOA rule statistics - entity: {}, currency: {}", entity, currency);
+
+        List<DoaRuleStats> rows = doaRuleStatsRepository.findFiltered(blankToNull(entity), blankToNull(currency));
+
+        long enabled = rows.stream().filter(row -> Boolean.TRUE.equals(row.getEnabled()))
+                .mapToLong(DoaRuleStats::getRuleCount).sum();
+        long total = rows.stream().mapToLong(DoaRuleStats::getRuleCount).sum();
+        Instant refreshedAt = rows.stream()
+                .map(DoaRuleStats::getRefreshedAt)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+
+        return DoaRuleStatsResponse.builder()
+                .refreshedAt(refreshedAt)
+                .totalRules(total)
+                .enabledRules(enabled)
+                .disabledRules(total - enabled)
+                .groups(rows.stream()
+                        .map(row -> DoaRuleStatsResponse.Group.builder()
+                                .entity(row.getEntity())
+                                .currency(row.getCurrency())
+                                .approvalLevel(row.getApprovalLevel())
+                                .enabled(row.getEnabled())
+                                .ruleCount(row.getRuleCount())
+                                .approverCount(row.getApproverCount())
+                                .minAmount(row.getMinAmount())
+                                .maxAmount(row.getMaxAmount())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Marks the statistics stale once the surrounding transaction has committed
+     */
+    public void markStale() {
+        TransactionHooks.runAfterCommit(() -> stale.set(true));
+    }
+
+    @Scheduled(initialDelayString = "${app.doa.stats.refresh-ms:30000}",
+            fixedDelayString = "${app.doa.stats.refresh-ms:30000}")
+    public void refreshIfStale() {
+        boolean expired = System.currentTimeMillis() - lastRefreshMillis >= maxAgeMs;
+        if (!stale.getAndSet(false) && !expired) {
+            return;
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            doaRuleStatsRepository.refresh();
+            lastRefreshMillis = System.currentTimeMillis();
+            log.info("Refreshed DOA rule statistics in {} ms", lastRefreshMillis - start);
+        } catch (Exception e) {
+            stale.set(true);
+            log.warn("Refresh of DOA rule statistics failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
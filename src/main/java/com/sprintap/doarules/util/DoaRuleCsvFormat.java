@@ -0,0 +1,83 @@
+package com.sprintap.doarules.util;
+
+import com.sprintap.doarules.dto.DoaRuleExportRow;
+
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * CSV format of the DOA rule export (RFC 4180: comma separated, fields quoted when needed).
+ * Free-text values that a spreadsheet would evaluate as a formula are written as text.
+ */
+public final class DoaRuleCsvFormat {
+
+    public static final String HEADER = "id,userId,userName,emailId,entity,currency,approvalLevel,minAmount,"
+            + "maxAmount,vendorCode,poNumber,classification,isActive,enabled,createdAt,updatedAt,createdByUserId";
+
+    public static final String LINE_END = "\r\n";
+
+    // Same format as the @JsonFormat timestamps of the NDJSON export and the rule API responses
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZone(ZoneOffset.UTC);
+
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private DoaRuleCsvFormat() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Format one export row as a CSV line, without the line terminator.
+     *
+     * @param row the export row
+     * @return the CSV line
+     */
+    public static String toLine(DoaRuleExportRow row) {
+        StringBuilder line = new StringBuilder(256);
+        append(line, row.getId()).append(',');
+        append(line, row.getUserId()).append(',');
+        appendText(line, row.getUserName()).append(',');
+        appendText(line, row.getEmailId()).append(',');
+        appendText(line, row.getEntity()).append(',');
+        appendText(line, row.getCurrency()).append(',');
+        append(line, row.getApprovalLevel()).append(',');
+        append(line, row.getMinAmount() != null ? row.getMinAmount().toPlainString() : null).append(',');
+        append(line, row.getMaxAmount() != null ? row.getMaxAmount().toPlainString() : null).append(',');
+        appendText(line, row.getVendorCode()).append(',');
+        appendText(line, row.getPoNumber()).append(',');
+        appendText(line, row.getClassification()).append(',');
+        append(line, row.getIsActive()).append(',');
+        append(line, row.getEnabled()).append(',');
+        append(line, format(row.getCreatedAt())).append(',');
+        append(line, format(row.getUpdatedAt())).append(',');
+        append(line, row.getCreatedByUserId());
+        return line.toString();
+    }
+
+    /**
+     * Appends a free-text value. Spreadsheets run a cell starting with =, +, -, @, tab or CR as a formula,
+     * so such values are prefixed with ' (and quoted) to be shown as text.
+     */
+    private static StringBuilder appendText(StringBuilder line, String value) {
+        if (value == null || value.isEmpty() || FORMULA_PREFIXES.indexOf(value.charAt(0)) < 0) {
+            return append(line, value);
+        }
+        return line.append("\"'").append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static StringBuilder append(StringBuilder line, Object value) {
+        if (value == null) {
+            return line;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return line.append(text);
+        }
+        return line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private static String format(TemporalAccessor instant) {
+        return instant != null ? TIMESTAMP.format(instant) : null;
+    }
+}
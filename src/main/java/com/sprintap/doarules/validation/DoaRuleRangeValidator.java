@@ -0,0 +1,183 @@
+package com.sprintap.doarules.validation;
+
+import com.sprintap.doarules.dto.DoaRuleRangeIssue;
+import com.sprintap.doarules.exception.DoaRuleConflictException;
+import com.sprintap.doarules.repository.DoaRuleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Validates DOA rule amount ranges within a {@link RuleRange.Scope}.
+ * <p>
+ * Two active, enabled rules in the same scope conflict when their inclusive ranges share an amount,
+ * unless the ranges are identical (several approvers at the same level). Conflicts are rejected on write:
+ * before a scope's stored ranges are loaded, the writing transaction takes an advisory lock on the scope, so
+ * concurrent writes to one scope are checked one after the other and each sees the other's committed rule.
+ * The audit additionally reports gaps, i.e. amounts between two consecutive ranges that no rule covers.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class DoaRuleRangeValidator {
+
+    // Smallest amount step at the doa_rules column scale: [a, b] and [b + 0.01, c] are contiguous
+    private static final BigDecimal AMOUNT_STEP = new BigDecimal("0.01");
+
+    private final DoaRuleRepository doaRuleRepository;
+
+    @Value("${app.doa.validation.reject-overlaps:true}")
+    private boolean rejectOverlaps;
+
+    /**
+     * Checks an active, enabled rule against the stored rules of its scope.
+     * Must run in the transaction that writes the rule, which holds the scope lock until it ends.
+     *
+     * @throws DoaRuleConflictException if the rule's range overlaps another rule's
+     */
+    public void validateNoOverlap(RuleRange candidate) {
+        newBatch().check(candidate).ifPresent(message -> {
+            throw new DoaRuleConflictException(message);
+        });
+    }
+
+    /**
+     * Starts a check of many rules, each validated against the stored rules and the rules accepted before it
+     */
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    /**
+     * Reports all overlaps and gaps in a stream of ranges, using a single sweep.
+     * The stream must be ordered by scope and then by minimum and maximum amount, so each scope is contiguous.
+     * The ranges of the current scope that are still open at the sweep position are kept in a min-heap on
+     * their maximum amount, so each range is reported against every earlier range it overlaps; memory is bounded
+     * by the deepest overlap, not by the size of the scope.
+     *
+     * @param ranges the active, enabled rule ranges in sweep order
+     * @param sink   receives each issue as it is found
+     */
+    public void audit(Stream<RuleRange> ranges, Consumer<DoaRuleRangeIssue> sink) {
+        RuleRange.Scope scope = null;
+        PriorityQueue<RuleRange> open = new PriorityQueue<>(Comparator.comparing(RuleRange::maxAmount));
+        RuleRange reach = null;
+
+        Iterator<RuleRange> iterator = ranges.iterator();
+        while (iterator.hasNext()) {
+            RuleRange range = iterator.next();
+            if (!range.scope().equals(scope)) {
+                scope = range.scope();
+                open.clear();
+                open.add(range);
+                reach = range;
+                continue;
+            }
+
+            // Ranges ending before this one starts cannot overlap it or any later range of the scope
+            while (!open.isEmpty() && open.peek().maxAmount().compareTo(range.minAmount()) < 0) {
+                open.poll();
+            }
+
+            if (open.isEmpty() && range.minAmount().compareTo(reach.maxAmount().add(AMOUNT_STEP)) > 0) {
+                sink.accept(issue(DoaRuleRangeIssue.Type.GAP, reach, range, reach.maxAmount().add(AMOUNT_STEP),
+                        range.minAmount().subtract(AMOUNT_STEP)));
+            }
+
+            // Every range still open starts at or before this one and ends at or after its start
+            for (RuleRange other : open) {
+                if (!range.sameRange(other)) {
+                    sink.accept(issue(DoaRuleRangeIssue.Type.OVERLAP, other, range, range.minAmount(),
+                            range.maxAmount().min(other.maxAmount())));
+                }
+            }
+
+            open.add(range);
+            if (range.maxAmount().compareTo(reach.maxAmount()) > 0) {
+                reach = range;
+            }
+        }
+    }
+
+    private static DoaRuleRangeIssue issue(DoaRuleRangeIssue.Type type, RuleRange before, RuleRange after,
+                                           BigDecimal from, BigDecimal to) {
+        return DoaRuleRangeIssue.builder()
+                .type(type)
+                .entity(after.entity())
+                .currency(after.currency())
+                .approvalLevel(after.approvalLevel())
+                .vendorCode(after.vendorCode())
+                .classification(after.classification())
+                .ruleId(before.id())
+                .otherRuleId(after.id())
+                .fromAmount(from)
+                .toAmount(to)
+                .build();
+    }
+
+    /**
+     * Overlap check for a sequence of writes in one transaction. Stored rules are loaded once per scope, after
+     * locking it; concurrent batches locking shared scopes in a different order can deadlock, in which case
+     * PostgreSQL aborts one of them.
+     */
+    public class Batch {
+
+        private final Map<RuleRange.Scope, List<RuleRange>> rangesByScope = new HashMap<>();
+
+        private Batch() {
+        }
+
+        /**
+         * Checks an active, enabled rule and, if it has no conflict, records it so later rules are checked against it.
+         * A stored version of the same rule (same ID) is replaced rather than compared.
+         *
+         * @return a description of the conflict, or empty if there is none
+         */
+        public Optional<String> check(RuleRange candidate) {
+            if (!rejectOverlaps) {
+                return Optional.empty();
+            }
+
+            List<RuleRange> ranges = rangesByScope.computeIfAbsent(candidate.scope(), scope -> load(candidate));
+            for (RuleRange other : ranges) {
+                boolean sameRule = candidate.id() != null && candidate.id().equals(other.id());
+                if (!sameRule && candidate.overlaps(other) && !candidate.sameRange(other)) {
+                    return Optional.of("Amount range " + candidate.minAmount() + " - " + candidate.maxAmount()
+                            + " overlaps rule " + other.id() + " (" + other.minAmount() + " - " + other.maxAmount()
+                            + ") at approval level " + candidate.approvalLevel());
+                }
+            }
+
+            if (candidate.id() != null) {
+                ranges.removeIf(other -> candidate.id().equals(other.id()));
+            }
+            ranges.add(candidate);
+            return Optional.empty();
+        }
+
+        private List<RuleRange> load(RuleRange candidate) {
+            RuleRange.Scope scope = candidate.scope();
+            doaRuleRepository.lockRangeScope(scope.lockKey());
+            List<RuleRange> ranges = new ArrayList<>();
+            for (RuleRange stored : doaRuleRepository.findActiveRangesAtLevel(
+                    candidate.entity(), candidate.currency(), candidate.approvalLevel())) {
+                if (stored.scope().equals(scope)) {
+                    ranges.add(stored);
+                }
+            }
+            return ranges;
+        }
+    }
+}
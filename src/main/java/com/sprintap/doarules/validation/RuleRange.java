@@ -0,0 +1,71 @@
+package com.sprintap.doarules.validation;
+
+import com.sprintap.doarules.dto.DoaRuleRequest;
+import com.sprintap.doarules.entity.DoaRule;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * The fields of a DOA rule that range validation looks at
+ */
+public record RuleRange(
+        UUID id,
+        String entity,
+        String currency,
+        Integer approvalLevel,
+        String vendorCode,
+        String classification,
+        BigDecimal minAmount,
+        BigDecimal maxAmount) {
+
+    public static RuleRange of(DoaRule rule) {
+        return new RuleRange(rule.getId(), rule.getEntity(), rule.getCurrency(), rule.getApprovalLevel(),
+                rule.getVendorCode(), rule.getClassification(), rule.getMinAmount(), rule.getMaxAmount());
+    }
+
+    public static RuleRange of(UUID id, DoaRuleRequest request) {
+        return new RuleRange(id, request.getEntity(), request.getCurrency(), request.getApprovalLevel(),
+                request.getVendorCode(), request.getClassification(), request.getMinAmount(), request.getMaxAmount());
+    }
+
+    /**
+     * The rules whose ranges must not overlap: same entity, currency, approval level, vendor code and
+     * classification, compared case-insensitively. A vendor- or classification-specific rule is a deliberate
+     * exception to the general rule, so it is checked separately.
+     */
+    public Scope scope() {
+        return new Scope(normalize(entity), normalize(currency), approvalLevel,
+                normalize(vendorCode), normalize(classification));
+    }
+
+    /**
+     * Whether both ranges contain at least one common amount (bounds are inclusive)
+     */
+    public boolean overlaps(RuleRange other) {
+        return minAmount.compareTo(other.maxAmount) <= 0 && other.minAmount.compareTo(maxAmount) <= 0;
+    }
+
+    /**
+     * Whether both ranges are identical: rules with the same range are co-approvers, not a conflict
+     */
+    public boolean sameRange(RuleRange other) {
+        return minAmount.compareTo(other.minAmount) == 0 && maxAmount.compareTo(other.maxAmount) == 0;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public record Scope(String entity, String currency, Integer approvalLevel, String vendorCode,
+                        String classification) {
+
+        /**
+         * Key identifying the scope, for the advisory lock taken while it is validated
+         */
+        public String lockKey() {
+            return String.join("|", entity, currency, String.valueOf(approvalLevel), vendorCode, classification);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.sprintap.usermanagement.config;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interned authorities, each with a small stable index used as its bit in {@link CompactAuthorities}.
+ * <p>
+ * Authorities are only ever added: the set of role names Keycloak can put in a token is small and fixed,
+ * and a registered index must stay valid for every bitset that uses it. Lookups are lock-free; registration
+ * is synchronized and only happens the first time a role name is seen.
+ * </p>
+ */
+final class AuthorityRegistry {
+
+    private final ConcurrentMap<String, Integer> indexes = new ConcurrentHashMap<>();
+
+    // Written before the index is published in the map, so a reader that found the index sees the entry
+    private volatile GrantedAuthority[] authorities = new GrantedAuthority[64];
+
+    private int count;
+
+    /**
+     * Index of an authority, or -1 if it was never registered
+     */
+    int indexOf(String authority) {
+        Integer index = indexes.get(authority);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Index of an authority, registering it on first use
+     */
+    int register(String authority) {
+        Integer index = indexes.get(authority);
+        return index != null ? index : add(authority);
+    }
+
+    GrantedAuthority get(int index) {
+        return authorities[index];
+    }
+
+    private synchronized int add(String authority) {
+        Integer existing = indexes.get(authority);
+        if (existing != null) {
+            return existing;
+        }
+        GrantedAuthority[] current = authorities;
+        if (count == current.length) {
+            current = Arrays.copyOf(current, count * 2);
+        }
+        current[count] = new SimpleGrantedAuthority(authority);
+        authorities = current;
+        indexes.put(authority, count);
+        return count++;
+    }
+}
@@ -0,0 +1,79 @@
+package com.sprintap.usermanagement.config;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.AbstractCollection;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable set of authorities stored as a bitset over {@link AuthorityRegistry} indexes.
+ * <p>
+ * Membership tests are a map lookup and a bit test, whatever the number of roles, and iteration returns
+ * the shared interned {@link GrantedAuthority} instances. Instances are shared between all requests
+ * carrying the same roles.
+ * </p>
+ */
+final class CompactAuthorities extends AbstractCollection<GrantedAuthority> {
+
+    private final AuthorityRegistry registry;
+    private final BitSet bits;
+    private final int size;
+
+    CompactAuthorities(AuthorityRegistry registry, BitSet bits) {
+        this.registry = registry;
+        this.bits = (BitSet) bits.clone();
+        this.size = bits.cardinality();
+    }
+
+    /**
+     * Whether the set holds the authority with the given name
+     */
+    boolean containsAuthority(String authority) {
+        int index = registry.indexOf(authority);
+        return index >= 0 && bits.get(index);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof GrantedAuthority authority && containsAuthority(authority.getAuthority());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return new Iterator<>() {
+            private int next = bits.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public GrantedAuthority next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                GrantedAuthority authority = registry.get(next);
+                next = bits.nextSetBit(next + 1);
+                return authority;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CompactAuthorities other && registry == other.registry && bits.equals(other.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return bits.hashCode();
+    }
+}
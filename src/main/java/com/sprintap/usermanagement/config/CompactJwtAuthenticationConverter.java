@@ -0,0 +1,87 @@
+package com.sprintap.usermanagement.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Converts a Keycloak JWT to an authentication token with {@code ROLE_}-prefixed, upper-cased realm roles and
+ * roles of the configured client.
+ * <p>
+ * The authorities are memoized per distinct pair of realm and client role lists: requests with the same
+ * roles share one {@link CompactAuthorities} instance, built from interned authorities, so the per-request
+ * work is the role claim lookup and one cache hit. The memo cache is bounded and exported as {@code cache.*}
+ * metrics with {@code cache=jwt-authorities}.
+ * </p>
+ */
+public class CompactJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final String clientId;
+    private final AuthorityRegistry registry = new AuthorityRegistry();
+    private final Cache<RoleSet, CompactAuthorities> authorities;
+    private final Function<RoleSet, CompactAuthorities> toAuthorities = this::toAuthorities;
+
+    public CompactJwtAuthenticationConverter(String clientId, long maximumSize, MeterRegistry meterRegistry) {
+        this.clientId = clientId;
+        this.authorities = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, authorities, "jwt-authorities");
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        RoleSet roles = new RoleSet(realmRoles(jwt), clientRoles(jwt));
+        return new CompactJwtAuthenticationToken(jwt, authorities.get(roles, toAuthorities),
+                jwt.getClaimAsString(JwtClaimNames.SUB));
+    }
+
+    private CompactAuthorities toAuthorities(RoleSet roles) {
+        BitSet bits = new BitSet();
+        for (String role : roles.realmRoles()) {
+            bits.set(registry.register("ROLE_" + role.toUpperCase()));
+        }
+        for (String role : roles.clientRoles()) {
+            bits.set(registry.register("ROLE_" + role.toUpperCase()));
+        }
+        return new CompactAuthorities(registry, bits);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<String> realmRoles(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaim("realm_access");
+        return realmAccess != null && realmAccess.containsKey("roles")
+                ? (Collection<String>) realmAccess.get("roles")
+                : List.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<String> clientRoles(Jwt jwt) {
+        Map<String, Object> resourceAccess = jwt.getClaim("resource_access");
+        if (resourceAccess == null) {
+            return List.of();
+        }
+        Map<String, Object> clientAccess = (Map<String, Object>) resourceAccess.get(clientId);
+        return clientAccess != null && clientAccess.containsKey("roles")
+                ? (Collection<String>) clientAccess.get("roles")
+                : List.of();
+    }
+
+    /**
+     * Memo key: the role claims as they appear in the token (not copied; claims are never modified)
+     */
+    private record RoleSet(Collection<String> realmRoles, Collection<String> clientRoles) {
+    }
+}
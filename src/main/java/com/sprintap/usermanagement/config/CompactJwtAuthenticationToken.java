@@ -0,0 +1,42 @@
+package com.sprintap.usermanagement.config;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link JwtAuthenticationToken} holding its authorities as shared {@link CompactAuthorities}.
+ * The base class copies authorities into a new list per token, so they are kept here instead.
+ */
+public class CompactJwtAuthenticationToken extends JwtAuthenticationToken {
+
+    private final CompactAuthorities authorities;
+
+    CompactJwtAuthenticationToken(Jwt jwt, CompactAuthorities authorities, String name) {
+        super(jwt, List.of(), name);
+        this.authorities = authorities;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CompactJwtAuthenticationToken other
+                && getToken().equals(other.getToken())
+                && authorities.equals(other.authorities)
+                && isAuthenticated() == other.isAuthenticated()
+                && Objects.equals(getDetails(), other.getDetails());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getToken(), authorities);
+    }
+}
@@ -0,0 +1,180 @@
+package com.sprintap.usermanagement.config;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Method security expression handler whose {@code hasRole}/{@code hasAuthority} checks test the bitset of
+ * {@link CompactAuthorities} directly, instead of copying the authorities into a new set on every secured
+ * call. Other authentications, and every other expression, go to the default expression root.
+ * <p>
+ * With a role hierarchy configured the default root is used as is, since it expands roles first.
+ * </p>
+ */
+public class CompactMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+        EvaluationContext context = super.createEvaluationContext(authentication, mi);
+        if (getRoleHierarchy() == null && context instanceof StandardEvaluationContext standardContext) {
+            MethodSecurityExpressionOperations root =
+                    (MethodSecurityExpressionOperations) standardContext.getRootObject().getValue();
+            standardContext.setRootObject(new CompactExpressionRoot(root, getDefaultRolePrefix()));
+        }
+        return context;
+    }
+
+    /**
+     * Expression root that answers authority checks from {@link CompactAuthorities} and delegates the rest
+     */
+    public static class CompactExpressionRoot implements MethodSecurityExpressionOperations {
+
+        private final MethodSecurityExpressionOperations delegate;
+        private final String rolePrefix;
+
+        CompactExpressionRoot(MethodSecurityExpressionOperations delegate, String rolePrefix) {
+            this.delegate = delegate;
+            this.rolePrefix = rolePrefix;
+        }
+
+        @Override
+        public boolean hasAuthority(String authority) {
+            return getAuthorities() instanceof CompactAuthorities compact
+                    ? compact.containsAuthority(authority)
+                    : delegate.hasAuthority(authority);
+        }
+
+        @Override
+        public boolean hasAnyAuthority(String... authorities) {
+            if (!(getAuthorities() instanceof CompactAuthorities compact)) {
+                return delegate.hasAnyAuthority(authorities);
+            }
+            for (String authority : authorities) {
+                if (compact.containsAuthority(authority)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasRole(String role) {
+            return getAuthorities() instanceof CompactAuthorities compact
+                    ? compact.containsAuthority(withRolePrefix(role))
+                    : delegate.hasRole(role);
+        }
+
+        @Override
+        public boolean hasAnyRole(String... roles) {
+            if (!(getAuthorities() instanceof CompactAuthorities compact)) {
+                return delegate.hasAnyRole(roles);
+            }
+            for (String role : roles) {
+                if (compact.containsAuthority(withRolePrefix(role))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Authentication getAuthentication() {
+            return delegate.getAuthentication();
+        }
+
+        /**
+         * For {@code principal} in expressions, as on the default root
+         */
+        public Object getPrincipal() {
+            return getAuthentication().getPrincipal();
+        }
+
+        @Override
+        public boolean permitAll() {
+            return delegate.permitAll();
+        }
+
+        @Override
+        public boolean denyAll() {
+            return delegate.denyAll();
+        }
+
+        @Override
+        public boolean isAnonymous() {
+            return delegate.isAnonymous();
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return delegate.isAuthenticated();
+        }
+
+        @Override
+        public boolean isRememberMe() {
+            return delegate.isRememberMe();
+        }
+
+        @Override
+        public boolean isFullyAuthenticated() {
+            return delegate.isFullyAuthenticated();
+        }
+
+        @Override
+        public boolean hasPermission(Object target, Object permission) {
+            return delegate.hasPermission(target, permission);
+        }
+
+        @Override
+        public boolean hasPermission(Object targetId, String targetType, Object permission) {
+            return delegate.hasPermission(targetId, targetType, permission);
+        }
+
+        @Override
+        public void setFilterObject(Object filterObject) {
+            delegate.setFilterObject(filterObject);
+        }
+
+        @Override
+        public Object getFilterObject() {
+            return delegate.getFilterObject();
+        }
+
+        @Override
+        public void setReturnObject(Object returnObject) {
+            delegate.setReturnObject(returnObject);
+        }
+
+        @Override
+        public Object getReturnObject() {
+            return delegate.getReturnObject();
+        }
+
+        @Override
+        public Object getThis() {
+            return delegate.getThis();
+        }
+
+        private Collection<? extends GrantedAuthority> getAuthorities() {
+            Authentication authentication = getAuthentication();
+            return authentication == null ? null : authentication.getAuthorities();
+        }
+
+        /**
+         * Same rule as the default root: add the prefix unless the role already starts with it
+         */
+        private String withRolePrefix(String role) {
+            if (role == null || rolePrefix == null || rolePrefix.isEmpty() || role.startsWith(rolePrefix)) {
+                return role;
+            }
+            return rolePrefix + role;
+        }
+    }
+}
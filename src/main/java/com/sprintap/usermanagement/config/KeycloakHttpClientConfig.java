@@ -0,0 +1,94 @@
+package com.sprintap.usermanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP client for direct calls to Keycloak (token endpoint).
+ * <p>
+ * Connections are pooled and kept alive between requests, so token calls reuse an open TCP/TLS connection
+ * instead of handshaking every time. Connect, response and pool-wait timeouts keep a slow Keycloak from
+ * tying up request threads. Pool usage is published as {@code httpcomponents.httpclient.pool.*} metrics
+ * (tag {@code httpclient=keycloak}); the RestTemplate is built with Boot's builder, so requests also show up
+ * in {@code http.client.requests}.
+ * </p>
+ */
+@Configuration
+public class KeycloakHttpClientConfig {
+
+    @Value("${app.keycloak.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${app.keycloak.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${app.keycloak.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.keycloak.http.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${app.keycloak.http.pool-timeout-ms:1000}")
+    private long poolTimeoutMs;
+
+    @Value("${app.keycloak.http.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    @Value("${app.keycloak.http.connection-ttl-ms:300000}")
+    private long connectionTtlMs;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager keycloakConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        // Bounded lifetime, so DNS changes and load balancer rotation are picked up
+                        .setTimeToLive(TimeValue.ofMilliseconds(connectionTtlMs))
+                        // Keycloak or a proxy may close idle connections; check before reusing them
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "keycloak").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient keycloakHttpClient(
+            @Qualifier("keycloakConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeoutMs))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate keycloakRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                             @Qualifier("keycloakHttpClient") CloseableHttpClient httpClient) {
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.sprintap.usermanagement.config;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token signing keys from Keycloak's JWK set URI, fetched in the background instead of at startup.
+ * <p>
+ * Creating the decoder needs no network call: keys are fetched by a scheduled task (first run right after
+ * startup, then every {@code app.security.jwk.refresh-ms}) through the pooled Keycloak client. If
+ * {@code app.security.jwk.snapshot-file} is set, every fetched set is written there and read back on the next
+ * start, so tokens can be verified before Keycloak is reachable. A token signed with a key that is not in the
+ * current set (a rotation, or no keys yet) triggers an immediate fetch, at most once per
+ * {@code app.security.jwk.min-refresh-interval-ms}. Such tokens are not verified yet, so only one request
+ * thread fetches at a time; the others do not wait for it and are answered from the current set.
+ * </p>
+ */
+@Slf4j
+@Component
+public class PrefetchedJwkSource implements JWKSource<SecurityContext> {
+
+    private final RestTemplate restTemplate;
+
+    private final String jwkSetUri;
+
+    private final Path snapshotFile;
+
+    private final long minRefreshIntervalMs;
+
+    private final LongSupplier clock;
+
+    // Held during every fetch; request threads only try it, so at most one of them ever waits on Keycloak
+    private final ReentrantLock fetchLock = new ReentrantLock();
+
+    private volatile JWKSet jwkSet;
+
+    private volatile long lastFetchAttempt;
+
+    @Autowired
+    public PrefetchedJwkSource(@Qualifier("keycloakRestTemplate") RestTemplate restTemplate,
+                               @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                               @Value("${app.security.jwk.snapshot-file:}") String snapshotFile,
+                               @Value("${app.security.jwk.min-refresh-interval-ms:30000}") long minRefreshIntervalMs) {
+        this(restTemplate, jwkSetUri, snapshotFile, minRefreshIntervalMs, System::currentTimeMillis);
+    }
+
+    PrefetchedJwkSource(RestTemplate restTemplate, String jwkSetUri, String snapshotFile, long minRefreshIntervalMs,
+                        LongSupplier clock) {
+        this.restTemplate = restTemplate;
+        this.jwkSetUri = jwkSetUri;
+        this.snapshotFile = snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+        this.minRefreshIntervalMs = minRefreshIntervalMs;
+        this.clock = clock;
+        this.jwkSet = readSnapshot();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        JWKSet current = jwkSet;
+        List<JWK> keys = current == null ? List.of() : jwkSelector.select(current);
+        if (!keys.isEmpty()) {
+            return keys;
+        }
+
+        // Unknown key: the signing keys may have been rotated since the last fetch
+        refreshIfDue();
+        current = jwkSet;
+        if (current == null) {
+            throw new KeySourceException("JWK set not available yet from " + jwkSetUri);
+        }
+        return jwkSelector.select(current);
+    }
+
+    /**
+     * Fetches the JWK set in the background, so startup does not wait for Keycloak
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.security.jwk.refresh-ms:300000}")
+    public void refresh() {
+        fetchLock.lock();
+        try {
+            fetch();
+        } catch (RuntimeException | ParseException e) {
+            log.warn("Failed to refresh JWK set from {}: {}", jwkSetUri, e.getMessage());
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    /**
+     * Fetches now unless a fetch was attempted within the minimum refresh interval, or another thread is
+     * fetching already, in which case the caller goes on with the current set
+     */
+    private void refreshIfDue() {
+        if (!isDue() || !fetchLock.tryLock()) {
+            return;
+        }
+        try {
+            // Checked again: a fetch may have completed between the first check and taking the lock
+            if (isDue()) {
+                fetch();
+            }
+        } catch (RuntimeException | ParseException e) {
+            log.warn("Failed to fetch JWK set from {}: {}", jwkSetUri, e.getMessage());
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    private boolean isDue() {
+        return clock.getAsLong() - lastFetchAttempt >= minRefreshIntervalMs;
+    }
+
+    private void fetch() throws ParseException {
+        lastFetchAttempt = clock.getAsLong();
+        String body = restTemplate.getForObject(jwkSetUri, String.class);
+        JWKSet fetched = JWKSet.parse(body).toPublicJWKSet();
+        jwkSet = fetched;
+        log.debug("Loaded {} signing keys from {}", fetched.getKeys().size(), jwkSetUri);
+        writeSnapshot(fetched);
+    }
+
+    private JWKSet readSnapshot() {
+        if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) {
+            return null;
+        }
+        try {
+            JWKSet snapshot = JWKSet.parse(Files.readString(snapshotFile, StandardCharsets.UTF_8));
+            log.info("Loaded {} signing keys from JWK snapshot {}", snapshot.getKeys().size(), snapshotFile);
+            return snapshot;
+        } catch (IOException | ParseException e) {
+            log.warn("Ignoring unreadable JWK snapshot {}: {}", snapshotFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot(JWKSet keys) {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            // Write then move, so a crash never leaves a truncated snapshot behind
+            Path parent = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "jwks", ".tmp");
+            Files.writeString(temp, keys.toString(true), StandardCharsets.UTF_8);
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write JWK snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sprintap.usermanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Read-only {@link DataSource} that serves connections from the replica pool and falls back to the primary
+ * pool while the replica is unhealthy.
+ * <p>
+ * A failure to obtain a replica connection marks the replica unhealthy for the retry interval; during that
+ * window read-only transactions go straight to the primary instead of waiting for the replica's connection
+ * timeout again. The first request after the window probes the replica.
+ * </p>
+ */
+@Slf4j
+public class ReplicaFallbackDataSource extends DelegatingDataSource {
+
+    private final DataSource primary;
+    private final long retryMs;
+    private final Counter fallbacks;
+
+    private volatile long unhealthyUntil;
+
+    public ReplicaFallbackDataSource(DataSource replica, DataSource primary, long retryMs, MeterRegistry meterRegistry) {
+        super(replica);
+        this.primary = primary;
+        this.retryMs = retryMs;
+        this.fallbacks = Counter.builder("datasource.replica.fallbacks")
+                .description("Read-only connections served by the primary because the replica was unavailable")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (System.currentTimeMillis() < unhealthyUntil) {
+            fallbacks.increment();
+            return primary.getConnection();
+        }
+
+        try {
+            return obtainTargetDataSource().getConnection();
+        } catch (SQLException e) {
+            unhealthyUntil = System.currentTimeMillis() + retryMs;
+            log.warn("Replica connection failed, routing read-only transactions to the primary for {} ms: {}",
+                    retryMs, e.getMessage());
+            fallbacks.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Pooled connections use the configured credentials
+        return getConnection();
+    }
+
+    /**
+     * Whether read-only transactions are currently served by the replica
+     */
+    public boolean isReplicaHealthy() {
+        return System.currentTimeMillis() >= unhealthyUntil;
+    }
+}
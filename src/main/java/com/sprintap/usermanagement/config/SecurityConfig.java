@@ -1,26 +1,27 @@
 package com.sprintap.usermanagement.config;
 
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.DefaultJOSEObjectTypeVerifier;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtDecoders;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.beans.factory.annotation.Value;
 
-import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Configuration
 @EnableWebSecurity
@@ -33,8 +34,22 @@ public class SecurityConfig {
     @Value("${keycloak.resource}")
     private String keycloakClientId;
 
+    @Value("${app.security.jwk.algorithms:RS256}")
+    private List<String> jwsAlgorithms;
+
+    @Value("${app.security.authority-cache.maximum-size:1000}")
+    private long authorityCacheMaximumSize;
+
+    @Value("${app.security.jwt-cache.enabled:true}")
+    private boolean jwtCacheEnabled;
+
+    @Value("${app.security.jwt-cache.maximum-size:10000}")
+    private long jwtCacheMaximumSize;
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   CompactJwtAuthenticationConverter jwtAuthenticationConverter)
+            throws Exception {
         http
                 .cors(cors -> cors.configure(http)) // Enable CORS with custom configuration
                 .csrf(csrf -> csrf.disable()) // Disable CSRF for stateless API
@@ -48,7 +63,7 @@ public class SecurityConfig {
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
                         .jwt(jwt -> jwt
-                                .jwtAuthenticationConverter(jwtAuthenticationConverter())
+                                .jwtAuthenticationConverter(jwtAuthenticationConverter)
                         )
                 )
                 .sessionManagement(session -> session
@@ -58,50 +73,44 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * JWT decoder for bearer tokens; verified tokens are cached until they expire.
+     * <p>
+     * Keys come from the configured JWK set URI through {@link PrefetchedJwkSource} and the issuer is checked
+     * against the configured issuer URI, so no OIDC discovery call is made at startup.
+     * </p>
+     */
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return JwtDecoders.fromIssuerLocation(issuerUri);
+    public JwtDecoder jwtDecoder(PrefetchedJwkSource jwkSource, MeterRegistry meterRegistry) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(jwsAlgorithms.stream()
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toSet()), jwkSource));
+        jwtProcessor.setJWSTypeVerifier(new DefaultJOSEObjectTypeVerifier<>(
+                JOSEObjectType.JWT, new JOSEObjectType("at+jwt"), null));
+        // Claims are validated by the Spring Security validators below
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return jwtCacheEnabled ? new CachingJwtDecoder(decoder, jwtCacheMaximumSize, meterRegistry) : decoder;
     }
 
     /**
-     * Converts JWT token to Spring Security Authentication with roles from Keycloak
+     * Converts JWT token to Spring Security Authentication with roles from Keycloak.
+     * Authorities are memoized per distinct role set and held as a bitset, see {@link CompactJwtAuthenticationConverter}
      */
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(jwtGrantedAuthoritiesConverter());
-        return converter;
+    public CompactJwtAuthenticationConverter jwtAuthenticationConverter(MeterRegistry meterRegistry) {
+        return new CompactJwtAuthenticationConverter(keycloakClientId, authorityCacheMaximumSize, meterRegistry);
     }
 
     /**
-     * Extracts roles from Keycloak JWT token
+     * Evaluates hasRole/hasAuthority in @PreAuthorize against the authority bitset
      */
-    private Converter<Jwt, Collection<GrantedAuthority>> jwtGrantedAuthoritiesConverter() {
-        return jwt -> {
-            // Extract realm roles
-            Map<String, Object> realmAccess = jwt.getClaim("realm_access");
-            Collection<String> realmRoles = realmAccess != null && realmAccess.containsKey("roles")
-                    ? (Collection<String>) realmAccess.get("roles")
-                    : List.of();
-
-            // Extract resource/client roles (optional, if you use client-specific roles)
-            Map<String, Object> resourceAccess = jwt.getClaim("resource_access");
-            Collection<String> clientRoles = List.of();
-
-            if (resourceAccess != null) {
-                // Get roles for specific client using the configured client ID
-                Map<String, Object> clientAccess = (Map<String, Object>) resourceAccess.get(keycloakClientId);
-                if (clientAccess != null && clientAccess.containsKey("roles")) {
-                    clientRoles = (Collection<String>) clientAccess.get("roles");
-                }
-            }
-
-            return Stream.concat(
-                    realmRoles.stream(),
-                    clientRoles.stream()
-            )
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
-                    .collect(Collectors.toList());
-        };
+    @Bean
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        return new CompactMethodSecurityExpressionHandler();
     }
 }
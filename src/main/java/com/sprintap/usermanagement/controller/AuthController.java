@@ -17,8 +17,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.sprintap.usermanagement.dto.TokenRequest;
 import com.sprintap.usermanagement.dto.TokenResponse;
+import com.sprintap.usermanagement.service.TokenRateLimiter;
 import com.sprintap.usermanagement.service.TokenService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -35,6 +37,8 @@ public class AuthController {
 
     private final TokenService tokenService;
 
+    private final TokenRateLimiter tokenRateLimiter;
+
     /**
      * Public endpoint accessible without authentication.
      *
@@ -51,19 +55,26 @@ public class AuthController {
     /**
      * Retrieves an access token using client credentials flow.
      * This is a public endpoint that allows clients to obtain tokens using their client ID and secret.
+     * Requests are rate limited per source IP and per client ID (requests that get no token do not count for the
+     * client); rejected requests get 429 with Retry-After.
      *
      * @param tokenRequest the token request containing client credentials
+     * @param request      the HTTP request, for the source IP
      * @return ResponseEntity containing the token response
      */
     @PostMapping("/public/token")
-    public ResponseEntity<TokenResponse> getClientToken(@Valid @RequestBody TokenRequest tokenRequest) {
+    public ResponseEntity<TokenResponse> getClientToken(@Valid @RequestBody TokenRequest tokenRequest,
+                                                        HttpServletRequest request) {
         log.info("Token request received for client: {}", tokenRequest.getClientId());
-        
+        tokenRateLimiter.acquire(tokenRequest.getClientId(), request.getRemoteAddr());
+
         try {
             TokenResponse tokenResponse = tokenService.getToken(tokenRequest);
             return ResponseEntity.ok(tokenResponse);
         } catch (Exception e) {
             log.error("Error retrieving token: {}", e.getMessage());
+            // No token issued: a request with a wrong secret must not use up the client's limit
+            tokenRateLimiter.release(tokenRequest.getClientId());
             throw e;
         }
     }
@@ -1,14 +1,21 @@
 package com.sprintap.usermanagement.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.sprintap.usermanagement.dto.*;
 import com.sprintap.usermanagement.service.GroupService;
 import com.sprintap.usermanagement.util.ResponseHelper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +29,7 @@ import java.util.Map;
 public class GroupController {
 
     private final GroupService groupService;
+    private final ObjectMapper objectMapper;
 
     /**
      * POST /api/groups : Create a new group
@@ -44,6 +52,47 @@ public class GroupController {
         return ResponseHelper.created("Group created successfully", "group", createdGroup);
     }
 
+    /**
+     * POST /api/groups/{groupId}/subgroups : Create a subgroup under an existing group
+     *
+     * @param groupId the parent group ID
+     * @param request the group creation request containing the subgroup name and optional user IDs
+     * @return ResponseEntity with the created subgroup details
+     */
+    @PostMapping("/{groupId}/subgroups")
+    public ResponseEntity<Map<String, Object>> createSubGroup(
+            @PathVariable String groupId,
+            @Valid @RequestBody CreateGroupRequest request) {
+        log.info("REST request to create subgroup '{}' under group: {}", request.getGroupName(), groupId);
+        GroupDTO createdGroup = groupService.createSubGroup(groupId, request);
+        return ResponseHelper.created("Subgroup created successfully", "group", createdGroup);
+    }
+
+    @GetMapping("/{groupId}/subgroups")
+    public ResponseEntity<List<GroupDTO>> getSubGroups(
+            @PathVariable String groupId,
+            @RequestParam(required = false, defaultValue = "false") Boolean includeCounts) {
+        log.info("REST request to get subgroups for group: {}", groupId);
+
+        List<GroupDTO> subGroups = groupService.getSubGroups(groupId, includeCounts);
+
+        return ResponseEntity.ok(subGroups);
+    }
+
+    /**
+     * GET /api/groups/tree : Get the full group hierarchy
+     *
+     * @return top-level groups with their subgroups nested under them
+     */
+    @GetMapping("/tree")
+    public ResponseEntity<List<GroupTreeNodeDTO>> getGroupTree() {
+        log.info("REST request to get group tree");
+
+        List<GroupTreeNodeDTO> tree = groupService.getGroupTree();
+
+        return ResponseEntity.ok(tree);
+    }
+
     @DeleteMapping("/{groupId}")
     public ResponseEntity<Map<String, Object>> deleteGroup(@PathVariable String groupId) {
         log.info("REST request to delete group: {}", groupId);
@@ -51,11 +100,26 @@ public class GroupController {
         return ResponseHelper.ok("Group deleted successfully");
     }
 
+    /**
+     * GET /api/groups : Get groups with optional name search and pagination
+     *
+     * @param keyword       Optional search term matched against group names
+     * @param pageSize      Number of items per page (default: 10)
+     * @param pageNumber    Page number starting from 1 (default: 1)
+     * @param includeCounts whether to include the member count of each group (default: true).
+     *                      Pass false to skip member lookups entirely; userCount is then omitted.
+     * @return PaginatedResponse containing groups and pagination metadata
+     */
     @GetMapping
-    public ResponseEntity<List<GroupDTO>> getAllGroups() {
-        log.info("REST request to get all groups");
+    public ResponseEntity<PaginatedResponse<GroupDTO>> getAllGroups(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false, defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false, defaultValue = "1") Integer pageNumber,
+            @RequestParam(required = false, defaultValue = "true") Boolean includeCounts) {
+        log.info("REST request to get groups with keyword: {}, pageSize: {}, pageNumber: {}, includeCounts: {}",
+                keyword, pageSize, pageNumber, includeCounts);
 
-        List<GroupDTO> groups = groupService.getAllGroups();
+        PaginatedResponse<GroupDTO> groups = groupService.getAllGroups(keyword, pageSize, pageNumber, includeCounts);
 
         return ResponseEntity.ok(groups);
     }
@@ -69,15 +133,79 @@ public class GroupController {
         return ResponseEntity.ok(rolesPrivileges);
     }
 
+    /**
+     * GET /api/groups/{groupId}/effective-roles-privileges : Get roles and privileges including inherited ones
+     *
+     * Returns the roles and privileges mapped to the group itself plus those inherited from its parent groups.
+     *
+     * @param groupId the group ID
+     * @return the group's effective roles and privileges
+     */
+    @GetMapping("/{groupId}/effective-roles-privileges")
+    public ResponseEntity<GroupRolesPrivilegesDTO> getEffectiveRolesAndPrivilegesForGroup(@PathVariable String groupId) {
+        log.info("REST request to get effective roles and privileges for group: {}", groupId);
+
+        GroupRolesPrivilegesDTO rolesPrivileges = groupService.getEffectiveRolesAndPrivilegesForGroup(groupId);
+
+        return ResponseEntity.ok(rolesPrivileges);
+    }
+
+    /**
+     * GET /api/groups/{groupId}/users : Get one page of the group's members
+     *
+     * @param groupId    the group ID
+     * @param pageSize   Number of items per page (default: 10)
+     * @param pageNumber Page number starting from 1 (default: 1)
+     * @return PaginatedResponse containing users and pagination metadata
+     */
     @GetMapping("/{groupId}/users")
-    public ResponseEntity<List<UserDTO>> getUsersInGroup(@PathVariable String groupId) {
-        log.info("REST request to get users for group: {}", groupId);
+    public ResponseEntity<PaginatedResponse<UserDTO>> getUsersInGroup(
+            @PathVariable String groupId,
+            @RequestParam(required = false, defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false, defaultValue = "1") Integer pageNumber) {
+        log.info("REST request to get users for group: {} (pageSize: {}, pageNumber: {})", groupId, pageSize, pageNumber);
 
-        List<UserDTO> users = groupService.getUsersInGroup(groupId);
+        PaginatedResponse<UserDTO> users = groupService.getUsersInGroup(groupId, pageSize, pageNumber);
 
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * GET /api/groups/{groupId}/users/stream : Stream all members of the group
+     * <p>
+     * Writes one JSON object per line (NDJSON). Members are read from Keycloak page by page
+     * and returned without their roles and groups.
+     * </p>
+     *
+     * @param groupId the group ID
+     * @return streaming NDJSON response with the group's members
+     */
+    @GetMapping(value = "/{groupId}/users/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamUsersInGroup(@PathVariable String groupId) {
+        log.info("REST request to stream users for group: {}", groupId);
+
+        // Fail with 404 before the response is committed
+        groupService.validateGroupExists(groupId);
+
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(UserDTO.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            groupService.forEachUserInGroup(groupId, user -> {
+                try {
+                    writer.writeValue(outputStream, user);
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @PutMapping("/{groupId}/users")
     public ResponseEntity<Map<String, Object>> updateGroupUsers(
             @PathVariable String groupId,
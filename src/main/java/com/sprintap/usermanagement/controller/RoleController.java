@@ -3,6 +3,8 @@ package com.sprintap.usermanagement.controller;
 import com.sprintap.usermanagement.dto.CreateRoleRequest;
 import com.sprintap.usermanagement.dto.PrivilegeDTO;
 import com.sprintap.usermanagement.dto.RoleDTO;
+import com.sprintap.usermanagement.dto.RoleMatrixDTO;
+import com.sprintap.usermanagement.dto.RoleUsageReportDTO;
 import com.sprintap.usermanagement.dto.UpdateRoleRequest;
 import com.sprintap.usermanagement.service.RoleService;
 import com.sprintap.usermanagement.util.ResponseHelper;
@@ -67,6 +69,42 @@ public class RoleController {
         return ResponseEntity.ok(privileges);
     }
 
+    /**
+     * GET /api/roles/matrix : Get all roles with their privileges in one call
+     *
+     * Privileges are returned once in a shared table and each role lists the indexes of its privileges
+     * in that table. Replaces calling GET /api/roles followed by GET /api/roles/{roleId}/privileges per role.
+     *
+     * @return the role x privilege matrix
+     */
+    @GetMapping("/matrix")
+    public ResponseEntity<RoleMatrixDTO> getRoleMatrix() {
+        log.info("REST request to get role privilege matrix");
+
+        RoleMatrixDTO matrix = roleService.getRoleMatrix();
+
+        return ResponseEntity.ok(matrix);
+    }
+
+    /**
+     * GET /api/roles/usage : Get usage counts for all roles and privileges
+     *
+     * Returns, per role and privilege, the number of users it is assigned to directly, the number of groups
+     * it is mapped to and the number of members of those groups. Counts come from a periodic background
+     * aggregation and may lag behind recent changes; computedAt tells when they were taken. Until the first
+     * aggregation after startup has completed, the response is 503 with a Retry-After header.
+     *
+     * @return the role and privilege usage report
+     */
+    @GetMapping("/usage")
+    public ResponseEntity<RoleUsageReportDTO> getRoleUsage() {
+        log.info("REST request to get role usage statistics");
+
+        RoleUsageReportDTO usage = roleService.getRoleUsage();
+
+        return ResponseEntity.ok(usage);
+    }
+
     @GetMapping("/privileges")
     public ResponseEntity<List<PrivilegeDTO>> getAllPrivileges() {
         log.info("REST request to get all privileges");
@@ -1,4 +1,5 @@
 package com.sprintap.usermanagement.dto;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -7,8 +8,11 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GroupDTO {
     private String id;
     private String name;
+    private String path;
+    private String parentId;
     private Integer userCount;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.sprintap.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a group in the group hierarchy, with its subgroups nested under it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupTreeNodeDTO {
+    private String id;
+    private String name;
+    private String path;
+    private String parentId;
+    private List<String> ancestorIds;
+    private List<GroupTreeNodeDTO> children;
+}
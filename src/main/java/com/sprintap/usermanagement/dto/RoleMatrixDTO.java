@@ -0,0 +1,20 @@
+package com.sprintap.usermanagement.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+import java.util.List;
+/**
+ * All roles with their privileges in one response.
+ * Each role lists its privileges as indexes into the shared {@code privileges} table.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleMatrixDTO {
+    private Instant builtAt;
+    private List<PrivilegeDTO> privileges;
+    private List<RoleMatrixEntryDTO> roles;
+}
\ No newline at end of file
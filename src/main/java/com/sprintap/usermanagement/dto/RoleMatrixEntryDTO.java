@@ -0,0 +1,16 @@
+package com.sprintap.usermanagement.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleMatrixEntryDTO {
+    private String id;
+    private String name;
+    private String displayName;  // Name without 'role_' prefix for UI display
+    private String description;
+    private int[] privilegeIndexes;  // Positions in RoleMatrixDTO.privileges
+}
\ No newline at end of file
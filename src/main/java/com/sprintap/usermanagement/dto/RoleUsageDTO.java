@@ -0,0 +1,18 @@
+package com.sprintap.usermanagement.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleUsageDTO {
+    private String id;
+    private String name;
+    private String displayName;
+    private int directUserCount;   // Users the role or privilege is assigned to directly
+    private int groupCount;        // Groups the role or privilege is mapped to
+    private int groupUserCount;    // Distinct members of those groups and their subgroups
+    private int roleCount;         // For privileges: roles that include the privilege
+}
\ No newline at end of file
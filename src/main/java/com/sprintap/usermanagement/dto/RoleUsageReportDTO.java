@@ -0,0 +1,16 @@
+package com.sprintap.usermanagement.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+import java.util.List;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleUsageReportDTO {
+    private Instant computedAt;
+    private List<RoleUsageDTO> roles;
+    private List<RoleUsageDTO> privileges;
+}
\ No newline at end of file
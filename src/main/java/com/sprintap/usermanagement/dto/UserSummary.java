@@ -0,0 +1,16 @@
+package com.sprintap.usermanagement.dto;
+
+import java.util.UUID;
+
+/**
+ * Projection of the user columns needed to render user details next to other records,
+ * e.g. the approver on a DOA rule.
+ */
+public interface UserSummary {
+
+    UUID getUserId();
+
+    String getFullName();
+
+    String getEmail();
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -14,15 +16,23 @@ import java.util.UUID;
 /**
  * Entity representing users in the database
  * This table is synchronized with Keycloak user data
+ * <p>
+ * Held in the second-level cache (region {@value #CACHE_REGION}), so rendering the same approver on many
+ * DOA rules only reads the row once.
+ * </p>
  */
 @Entity
 @Table(name = "users", schema = "public")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
 
+    public static final String CACHE_REGION = "users";
+
     @Id
     @Column(name = "user_id")
     private UUID userId;
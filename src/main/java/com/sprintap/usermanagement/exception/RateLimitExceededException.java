@@ -0,0 +1,18 @@
+package com.sprintap.usermanagement.exception;
+
+/**
+ * Exception thrown when a caller exceeds its request rate; mapped to 429 with a {@code Retry-After} header
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,19 @@
+package com.sprintap.usermanagement.exception;
+
+/**
+ * Exception thrown when a background-computed report has not been computed yet; mapped to 503 with a
+ * {@code Retry-After} header
+ */
+public class ReportNotReadyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ReportNotReadyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
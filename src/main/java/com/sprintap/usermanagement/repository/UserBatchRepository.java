@@ -0,0 +1,20 @@
+package com.sprintap.usermanagement.repository;
+
+import com.sprintap.usermanagement.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Custom repository fragment for loading many users by ID through the second-level cache
+ */
+public interface UserBatchRepository {
+
+    /**
+     * Find the users with the given IDs. Users already in the persistence context or the second-level cache
+     * are served from there; only the rest are read from the database, in one query.
+     * IDs without a user are skipped.
+     */
+    List<User> findAllByIdCached(Collection<UUID> userIds);
+}
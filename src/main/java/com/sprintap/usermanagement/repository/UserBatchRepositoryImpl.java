@@ -0,0 +1,41 @@
+package com.sprintap.usermanagement.repository;
+
+import com.sprintap.usermanagement.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Implementation of {@link UserBatchRepository} using Hibernate's multi-load, which checks the session and
+ * the second-level cache before querying ({@code findAllById} always queries)
+ */
+public class UserBatchRepositoryImpl implements UserBatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllByIdCached(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(User.class)
+                .enableSessionCheck(true)
+                .with(CacheMode.NORMAL)
+                .multiLoad(new ArrayList<>(userIds))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -1,16 +1,19 @@
 package com.sprintap.usermanagement.repository;
 
+import com.sprintap.usermanagement.dto.UserSummary;
 import com.sprintap.usermanagement.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Repository for User entity
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, UserBatchRepository {
 
     /**
      * Find user by email
@@ -21,5 +24,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * Check if user exists by email
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Find the display columns of several users in a single query
+     */
+    List<UserSummary> findByUserIdIn(Collection<UUID> userIds);
 }
 
@@ -0,0 +1,217 @@
+package com.sprintap.usermanagement.service;
+
+import com.sprintap.usermanagement.dto.TokenRequest;
+import com.sprintap.usermanagement.dto.TokenResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of client-credentials tokens, keyed by client ID, a SHA-256 hash of the client secret and scope.
+ * <p>
+ * A token is served until its expiry minus a skew, so callers never receive one that is about to expire.
+ * Once it is past its refresh point (the later of half its lifetime and {@code refresh-ahead-seconds} before
+ * expiry), the next request triggers a background refresh while still getting the cached token. Concurrent
+ * loads for the same key are collapsed into a single Keycloak call that every waiting request shares.
+ * </p>
+ * <p>
+ * The secret itself is never stored. A token issued before a secret rotation is still served under the old
+ * secret's key until it expires.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ClientTokenCache {
+
+    private final ConcurrentMap<CacheKey, Slot> slots = new ConcurrentHashMap<>();
+
+    private final LongSupplier clock;
+
+    private final Executor refreshExecutor;
+
+    @Value("${app.auth.token-cache.expiry-skew-seconds:30}")
+    private long expirySkewSeconds;
+
+    @Value("${app.auth.token-cache.refresh-ahead-seconds:60}")
+    private long refreshAheadSeconds;
+
+    @Autowired
+    public ClientTokenCache() {
+        this(System::currentTimeMillis, task -> Thread.ofVirtual().name("token-refresh").start(task));
+    }
+
+    ClientTokenCache(LongSupplier clock, Executor refreshExecutor) {
+        this.clock = clock;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Returns a token for the request, from the cache or loaded through {@code loader}.
+     * The returned response is a copy with {@code expires_in} set to the token's remaining lifetime.
+     *
+     * @param request the token request
+     * @param loader  fetches a new token from Keycloak
+     * @return the token response
+     */
+    public TokenResponse get(TokenRequest request, Function<TokenRequest, TokenResponse> loader) {
+        CacheKey key = CacheKey.of(request);
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+        long now = clock.getAsLong();
+
+        CachedToken cached = slot.token;
+        if (cached != null && now < cached.usableUntil()) {
+            if (now >= cached.refreshAt()) {
+                load(key, slot, request, loader, true);
+            }
+            return cached.response(now);
+        }
+
+        try {
+            return load(key, slot, request, loader, false).join().response(clock.getAsLong());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops cached tokens that have expired, so keys of clients that stopped calling do not accumulate
+     */
+    @Scheduled(initialDelayString = "${app.auth.token-cache.sweep-ms:300000}",
+            fixedDelayString = "${app.auth.token-cache.sweep-ms:300000}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        slots.entrySet().removeIf(entry -> {
+            CachedToken token = entry.getValue().token;
+            return entry.getValue().inFlight.get() == null && (token == null || token.expiresAt() <= now);
+        });
+    }
+
+    /**
+     * Starts a load for the slot, or joins the one already running. A synchronous load runs on the calling
+     * thread; a background refresh runs on the refresh executor (a virtual thread per refresh).
+     */
+    private CompletableFuture<CachedToken> load(CacheKey key, Slot slot, TokenRequest request,
+                                                Function<TokenRequest, TokenResponse> loader, boolean background) {
+        CompletableFuture<CachedToken> future = new CompletableFuture<>();
+        while (!slot.inFlight.compareAndSet(null, future)) {
+            CompletableFuture<CachedToken> running = slot.inFlight.get();
+            if (running != null) {
+                return running;
+            }
+        }
+
+        Runnable task = () -> {
+            try {
+                CachedToken token = toCachedToken(loader.apply(request));
+                if (token.cacheable()) {
+                    slot.token = token;
+                }
+                future.complete(token);
+            } catch (RuntimeException e) {
+                if (background) {
+                    log.warn("Background token refresh failed for client: {}; serving the cached token until it expires",
+                            key.clientId(), e);
+                } else if (slot.token == null) {
+                    // Do not keep slots for credentials that fail, e.g. a wrong secret
+                    slots.remove(key, slot);
+                }
+                future.completeExceptionally(e);
+            } finally {
+                slot.inFlight.compareAndSet(future, null);
+            }
+        };
+
+        if (background) {
+            refreshExecutor.execute(task);
+        } else {
+            task.run();
+        }
+        return future;
+    }
+
+    private CachedToken toCachedToken(TokenResponse response) {
+        if (response == null || response.getExpiresIn() == null) {
+            return CachedToken.uncacheable(response);
+        }
+        long issuedAt = clock.getAsLong();
+        long lifetimeMs = response.getExpiresIn() * 1000L;
+        long expiresAt = issuedAt + lifetimeMs;
+        long usableUntil = expiresAt - expirySkewSeconds * 1000;
+        if (usableUntil <= issuedAt) {
+            // Lifetime shorter than the skew: caching would never serve it
+            return CachedToken.uncacheable(response);
+        }
+        long refreshAt = Math.max(issuedAt + lifetimeMs / 2, expiresAt - refreshAheadSeconds * 1000);
+        return new CachedToken(response, expiresAt, usableUntil, Math.min(refreshAt, usableUntil));
+    }
+
+    private record CacheKey(String clientId, String secretHash, String scope) {
+
+        static CacheKey of(TokenRequest request) {
+            String scope = request.getScope() == null ? "" : request.getScope().trim();
+            return new CacheKey(request.getClientId(), sha256(request.getClientSecret()), scope);
+        }
+
+        private static String sha256(String value) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+
+    private static final class Slot {
+        volatile CachedToken token;
+        final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+    }
+
+    private record CachedToken(TokenResponse source, long expiresAt, long usableUntil, long refreshAt) {
+
+        /**
+         * A response that is handed to the waiting requests but not kept, returned unchanged
+         */
+        static CachedToken uncacheable(TokenResponse response) {
+            return new CachedToken(response, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE);
+        }
+
+        boolean cacheable() {
+            return expiresAt != Long.MAX_VALUE;
+        }
+
+        /**
+         * Copy of the cached response with {@code expires_in} counting down from the original expiry
+         */
+        TokenResponse response(long now) {
+            if (source == null) {
+                return null;
+            }
+            TokenResponse copy = new TokenResponse(source.getAccessToken(), source.getExpiresIn(),
+                    source.getRefreshExpiresIn(), source.getRefreshToken(), source.getTokenType(),
+                    source.getNotBeforePolicy(), source.getSessionState(), source.getScope());
+            if (cacheable()) {
+                copy.setExpiresIn((int) Math.max(0, (expiresAt - now) / 1000));
+            }
+            return copy;
+        }
+    }
+}
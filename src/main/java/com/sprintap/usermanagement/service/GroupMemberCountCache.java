@@ -0,0 +1,156 @@
+package com.sprintap.usermanagement.service;
+
+import org.keycloak.admin.client.resource.GroupResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-group cache of member counts.
+ * <p>
+ * Counts are computed by paging through the group's members with brief representations,
+ * so only one page of lightweight user objects is held in memory at a time.
+ * Membership writes made through this service record or evict the cached value,
+ * and entries expire after a configurable TTL so changes made directly in Keycloak are picked up.
+ * </p>
+ * <p>
+ * Concurrent misses for one group share a single load. Every write bumps the group's generation, and a load
+ * only publishes its count if the generation is unchanged, so a load that overlapped a membership change
+ * never puts the count from before the change back into the cache.
+ * </p>
+ */
+@Component
+public class GroupMemberCountCache {
+
+    private static final int COUNT_PAGE_SIZE = 500;
+
+    private final ConcurrentMap<String, Slot> slots = new ConcurrentHashMap<>();
+
+    @Value("${app.groups.member-count-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /**
+     * Returns the member count for the group, loading it from Keycloak on a cache miss.
+     *
+     * @param groupId       the group ID
+     * @param groupResource the Keycloak resource for the group
+     * @return the number of direct members of the group
+     */
+    public int getCount(String groupId, GroupResource groupResource) {
+        Slot slot = slots.computeIfAbsent(groupId, id -> new Slot());
+        CompletableFuture<Integer> running;
+        CompletableFuture<Integer> future = null;
+        long generation;
+        synchronized (slot) {
+            if (slot.cached != null && slot.cached.expiresAt() > System.currentTimeMillis()) {
+                return slot.cached.count();
+            }
+            running = slot.inFlight;
+            if (running == null) {
+                future = new CompletableFuture<>();
+                slot.inFlight = future;
+            }
+            generation = slot.generation;
+        }
+        if (running != null) {
+            return join(running);
+        }
+
+        try {
+            int count = countMembers(groupResource);
+            synchronized (slot) {
+                if (slot.generation == generation) {
+                    slot.cached = new CachedCount(count, System.currentTimeMillis() + ttlSeconds * 1000);
+                }
+                if (slot.inFlight == future) {
+                    slot.inFlight = null;
+                }
+            }
+            future.complete(count);
+            return count;
+        } catch (RuntimeException e) {
+            synchronized (slot) {
+                if (slot.inFlight == future) {
+                    slot.inFlight = null;
+                }
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Records a count that is known exactly, e.g. for a group that was just created.
+     *
+     * @param groupId the group ID
+     * @param count   the number of direct members of the group
+     */
+    public void put(String groupId, int count) {
+        Slot slot = slots.computeIfAbsent(groupId, id -> new Slot());
+        synchronized (slot) {
+            slot.generation++;
+            slot.cached = new CachedCount(count, System.currentTimeMillis() + ttlSeconds * 1000);
+            slot.inFlight = null;
+        }
+    }
+
+    /**
+     * Removes the cached count for the group. A load already running is not shared with later requests
+     * and its result is discarded.
+     *
+     * @param groupId the group ID
+     */
+    public void evict(String groupId) {
+        Slot slot = slots.get(groupId);
+        if (slot == null) {
+            // No load can be running; the next one starts after the change that caused the eviction
+            return;
+        }
+        synchronized (slot) {
+            slot.generation++;
+            slot.cached = null;
+            slot.inFlight = null;
+        }
+    }
+
+    private int countMembers(GroupResource groupResource) {
+        int total = 0;
+        int first = 0;
+        List<UserRepresentation> page;
+        do {
+            page = groupResource.members(first, COUNT_PAGE_SIZE, true);
+            total += page.size();
+            first += COUNT_PAGE_SIZE;
+        } while (page.size() == COUNT_PAGE_SIZE);
+        return total;
+    }
+
+    private static int join(CompletableFuture<Integer> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cache state of one group, guarded by its own monitor; Keycloak is never called while holding it
+     */
+    private static final class Slot {
+        long generation;
+        CachedCount cached;
+        CompletableFuture<Integer> inFlight;
+    }
+
+    private record CachedCount(int count, long expiresAt) {
+    }
+}
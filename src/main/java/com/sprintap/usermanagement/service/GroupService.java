@@ -23,6 +23,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -36,10 +37,18 @@ public class GroupService {
     private static final int PRIVILEGE_PREFIX_LENGTH = 5;
 
     private final Keycloak keycloak;
+    private final GroupMemberCountCache memberCountCache;
+    private final GroupTreeCache groupTreeCache;
 
     @Value("${keycloak.realm}")
     private String realm;
 
+    @Value("${app.pagination.default-page-size}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-page-size}")
+    private int maxPageSize;
+
     /**
      * Creates a new group with the specified name and optional users.
      * Roles and privileges must be assigned separately using the updateGroupRolesAndPrivileges endpoint.
@@ -55,13 +64,100 @@ public class GroupService {
         String groupId = createGroupInKeycloak(groupsResource, request.getGroupName());
 
         // Add users to the group if provided
+        int userCount = 0;
         if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
             log.info("Adding {} users to group '{}'", request.getUserIds().size(), request.getGroupName());
             addUsersToGroup(groupId, request.getUserIds());
+            userCount = (int) request.getUserIds().stream().distinct().count();
             log.info("Added {} users to group '{}'", request.getUserIds().size(), request.getGroupName());
         }
 
-        return mapToGroupDTO(groupsResource.group(groupId).toRepresentation());
+        // The group is new, so its member count is known without asking Keycloak
+        memberCountCache.put(groupId, userCount);
+        groupTreeCache.onGroupCreated(groupId, request.getGroupName(), null);
+
+        return mapToGroupDTO(groupsResource.group(groupId).toRepresentation(), true);
+    }
+
+    /**
+     * Creates a subgroup under the given parent group, with optional users.
+     *
+     * @param parentGroupId the ID of the parent group
+     * @param request       the group creation request containing group name and optional user IDs
+     * @return the created subgroup DTO
+     */
+    public GroupDTO createSubGroup(String parentGroupId, CreateGroupRequest request) {
+        log.info("Creating subgroup '{}' under group: {}", request.getGroupName(), parentGroupId);
+
+        GroupResource parentResource = getGroupResource(parentGroupId);
+        String groupId = createSubGroupInKeycloak(parentResource, request.getGroupName());
+
+        int userCount = 0;
+        if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+            addUsersToGroup(groupId, request.getUserIds());
+            userCount = (int) request.getUserIds().stream().distinct().count();
+            log.info("Added {} users to subgroup '{}'", request.getUserIds().size(), request.getGroupName());
+        }
+
+        memberCountCache.put(groupId, userCount);
+        groupTreeCache.onGroupCreated(groupId, request.getGroupName(), parentGroupId);
+
+        return mapToGroupDTO(getGroupsResource().group(groupId).toRepresentation(), true);
+    }
+
+    /**
+     * Returns the direct subgroups of a group, served from the cached group tree.
+     *
+     * @param groupId       the parent group ID
+     * @param includeCounts whether to populate the member count of each subgroup
+     * @return the list of direct subgroups
+     */
+    public List<GroupDTO> getSubGroups(String groupId, boolean includeCounts) {
+        log.info("Fetching subgroups for group: {}", groupId);
+
+        GroupTreeCache.GroupTree tree = groupTreeCache.getTree();
+        GroupTreeCache.GroupNode node = getTreeNode(tree, groupId);
+
+        return node.childIds().stream()
+                .map(tree::get)
+                .map(child -> {
+                    GroupDTO dto = mapToGroupDTO(child);
+                    if (includeCounts) {
+                        dto.setUserCount(memberCountCache.getCount(child.id(), getGroupsResource().group(child.id())));
+                    }
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the full group hierarchy, served from the cached group tree.
+     *
+     * @return the top-level groups with their subgroups nested under them
+     */
+    public List<GroupTreeNodeDTO> getGroupTree() {
+        log.info("Fetching group tree");
+
+        GroupTreeCache.GroupTree tree = groupTreeCache.getTree();
+        return tree.rootIds().stream()
+                .map(rootId -> mapToTreeNodeDTO(tree, tree.get(rootId)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the roles and privileges that apply to members of a group, including those
+     * inherited from its parent groups. Resolved from the cached group tree without calling Keycloak.
+     *
+     * @param groupId the group ID
+     * @return the group's own and inherited roles and privileges
+     */
+    public GroupRolesPrivilegesDTO getEffectiveRolesAndPrivilegesForGroup(String groupId) {
+        log.info("Fetching effective roles and privileges for group: {}", groupId);
+
+        GroupTreeCache.GroupTree tree = groupTreeCache.getTree();
+        getTreeNode(tree, groupId);
+
+        return splitRolesAndPrivileges(tree.effectiveRoleMappings(groupId));
     }
 
     public void deleteGroup(String groupId) {
@@ -69,15 +165,47 @@ public class GroupService {
 
         GroupResource groupResource = getGroupResource(groupId);
         groupResource.remove();
+        memberCountCache.evict(groupId);
+        groupTreeCache.onGroupDeleted(groupId);
         log.info("Group with ID '{}' deleted successfully", groupId);
     }
 
-    public List<GroupDTO> getAllGroups() {
-        log.info("Fetching all groups");
+    /**
+     * Returns one page of groups, optionally filtered by name.
+     *
+     * @param keyword       optional search term matched against group names (server-side in Keycloak)
+     * @param pageSize      number of groups per page, capped at the configured maximum page size
+     * @param pageNumber    page number starting from 1
+     * @param includeCounts whether to populate the member count of each group;
+     *                      when false, {@code userCount} is left null and no member lookups are made
+     * @return paginated list of groups
+     */
+    public PaginatedResponse<GroupDTO> getAllGroups(String keyword, Integer pageSize, Integer pageNumber,
+                                                    boolean includeCounts) {
+        int size = normalizePageSize(pageSize);
+        int page = pageNumber != null && pageNumber > 0 ? pageNumber : 1;
+        String search = keyword != null && !keyword.trim().isEmpty() ? keyword.trim() : null;
+        log.info("Fetching groups with keyword: {}, pageSize: {}, pageNumber: {}, includeCounts: {}",
+                search, size, page, includeCounts);
+
+        GroupsResource groupsResource = getGroupsResource();
+        int first = (page - 1) * size;
+
+        // Keycloak pages over top-level groups (a search returns the top-level groups whose subtree matches),
+        // while its count endpoint counts matching groups at every level, so the total is taken the same way
+        List<GroupRepresentation> groups = groupsResource.groups(search, first, size, true);
+        int totalCount = search != null
+                ? groupTreeCache.getTree().countRootsMatching(search)
+                : groupsResource.count(true).getOrDefault("count", 0L).intValue();
 
-        return getGroupsResource().groups().stream()
-                .map(this::mapToGroupDTO)
+        List<GroupDTO> groupDTOs = groups.stream()
+                .map(group -> mapToGroupDTO(group, includeCounts))
                 .collect(Collectors.toList());
+
+        return PaginatedResponse.<GroupDTO>builder()
+                .data(groupDTOs)
+                .pagination(buildPagination(page, size, totalCount))
+                .build();
     }
 
     public GroupRolesPrivilegesDTO getRolesAndPrivilegesForGroup(String groupId) {
@@ -96,6 +224,10 @@ public class GroupService {
 
         List<RoleRepresentation> roleMappings = groupResource.roles().realmLevel().listAll();
 
+        return splitRolesAndPrivileges(roleMappings);
+    }
+
+    private GroupRolesPrivilegesDTO splitRolesAndPrivileges(List<RoleRepresentation> roleMappings) {
         List<RoleDTO> roles = new ArrayList<>();
         List<PrivilegeDTO> privileges = new ArrayList<>();
 
@@ -113,25 +245,64 @@ public class GroupService {
                 .build();
     }
 
-    public List<UserDTO> getUsersInGroup(String groupId) {
-        log.info("Fetching users for group: {}", groupId);
-
-        RealmResource realmResource = keycloak.realm(realm);
-        GroupsResource groupsResource = realmResource.groups();
+    /**
+     * Returns one page of the group's members.
+     * Only the requested page is fetched from Keycloak, so memory use is bounded by the page size.
+     *
+     * @param groupId    the group ID
+     * @param pageSize   number of users per page, capped at the configured maximum page size
+     * @param pageNumber page number starting from 1
+     * @return paginated list of users in the group
+     */
+    public PaginatedResponse<UserDTO> getUsersInGroup(String groupId, Integer pageSize, Integer pageNumber) {
+        int size = normalizePageSize(pageSize);
+        int page = pageNumber != null && pageNumber > 0 ? pageNumber : 1;
+        log.info("Fetching users for group: {} (pageSize: {}, pageNumber: {})", groupId, size, page);
 
-        GroupResource groupResource;
-        try {
-            groupResource = groupsResource.group(groupId);
-            groupResource.toRepresentation();
-        } catch (jakarta.ws.rs.NotFoundException e) {
-            throw new GroupNotFoundException("Group with ID '" + groupId + "' not found");
-        }
+        GroupResource groupResource = getGroupResource(groupId);
 
-        List<UserRepresentation> members = groupResource.members();
+        List<UserRepresentation> members = groupResource.members((page - 1) * size, size, false);
+        int totalCount = memberCountCache.getCount(groupId, groupResource);
 
-        return members.stream()
+        List<UserDTO> users = members.stream()
                 .map(this::mapToUserDTO)
                 .collect(Collectors.toList());
+
+        return PaginatedResponse.<UserDTO>builder()
+                .data(users)
+                .pagination(buildPagination(page, size, totalCount))
+                .build();
+    }
+
+    /**
+     * Verifies that the group exists.
+     *
+     * @param groupId the group ID
+     * @throws GroupNotFoundException if the group does not exist
+     */
+    public void validateGroupExists(String groupId) {
+        getGroupResource(groupId);
+    }
+
+    /**
+     * Walks all members of the group page by page and hands each one to the consumer.
+     * Users are mapped without their roles and groups, so no per-user lookups are made
+     * and at most one page of members is held in memory at a time.
+     *
+     * @param groupId  the group ID
+     * @param consumer callback invoked once per member, in Keycloak order
+     */
+    public void forEachUserInGroup(String groupId, Consumer<UserDTO> consumer) {
+        log.info("Streaming users for group: {}", groupId);
+
+        GroupResource groupResource = getGroupResource(groupId);
+        int first = 0;
+        List<UserRepresentation> page;
+        do {
+            page = groupResource.members(first, maxPageSize, true);
+            page.forEach(user -> consumer.accept(mapToBasicUserDTO(user)));
+            first += maxPageSize;
+        } while (page.size() == maxPageSize);
     }
 
     public void updateGroupUsers(String groupId, UpdateGroupUsersRequest request) {
@@ -171,6 +342,7 @@ public class GroupService {
             removePrivilegesFromGroupByIds(groupId, request.getPrivilegeIdsToRemove());
         }
 
+        groupTreeCache.onGroupRolesChanged(groupId);
         log.info("Updated roles and privileges for group '{}'", groupId);
     }
 
@@ -214,6 +386,26 @@ public class GroupService {
         }
     }
 
+    // Pagination helper methods
+    private int normalizePageSize(Integer pageSize) {
+        if (pageSize == null || pageSize <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(pageSize, maxPageSize);
+    }
+
+    private PaginatedResponse.Pagination buildPagination(int pageNumber, int pageSize, int totalCount) {
+        int totalPages = (int) Math.ceil((double) totalCount / pageSize);
+        return PaginatedResponse.Pagination.builder()
+                .currentPage(pageNumber)
+                .pageSize(pageSize)
+                .totalItems(totalCount)
+                .totalPages(totalPages)
+                .hasNext(pageNumber < totalPages)
+                .hasPrevious(pageNumber > 1)
+                .build();
+    }
+
     // Helper methods for Keycloak resource access
     private RealmResource getRealmResource() {
         return keycloak.realm(realm);
@@ -253,27 +445,60 @@ public class GroupService {
         }
     }
 
+    private String createSubGroupInKeycloak(GroupResource parentResource, String groupName) {
+        GroupRepresentation groupRep = new GroupRepresentation();
+        groupRep.setName(groupName);
+
+        try (Response response = parentResource.subGroup(groupRep)) {
+            if (response.getStatus() != HTTP_CREATED) {
+                throw new InvalidOperationException("Failed to create subgroup. Status: " + response.getStatus());
+            }
+
+            String locationHeader = response.getHeaderString("Location");
+            String groupId = locationHeader.substring(locationHeader.lastIndexOf('/') + 1);
+            log.info("Subgroup '{}' created successfully with ID: {}", groupName, groupId);
+            return groupId;
+        }
+    }
+
+    private GroupTreeCache.GroupNode getTreeNode(GroupTreeCache.GroupTree tree, String groupId) {
+        GroupTreeCache.GroupNode node = tree.get(groupId);
+        if (node == null) {
+            throw new GroupNotFoundException("Group with ID '" + groupId + "' not found");
+        }
+        return node;
+    }
+
     private void addUsersToGroup(String groupId, List<String> userIds) {
         RealmResource realmResource = getRealmResource();
-        for (String userId : userIds) {
-            try {
-                realmResource.users().get(userId).joinGroup(groupId);
-                log.info("Added user '{}' to group '{}'", userId, groupId);
-            } catch (jakarta.ws.rs.NotFoundException e) {
-                throw new UserNotFoundException("User with ID '" + userId + "' not found");
+        try {
+            for (String userId : userIds) {
+                try {
+                    realmResource.users().get(userId).joinGroup(groupId);
+                    log.info("Added user '{}' to group '{}'", userId, groupId);
+                } catch (jakarta.ws.rs.NotFoundException e) {
+                    throw new UserNotFoundException("User with ID '" + userId + "' not found");
+                }
             }
+        } finally {
+            // Joining is idempotent in Keycloak, so the new count is not known without a reload
+            memberCountCache.evict(groupId);
         }
     }
 
     private void removeUsersFromGroup(String groupId, List<String> userIds) {
         RealmResource realmResource = getRealmResource();
-        for (String userId : userIds) {
-            try {
-                realmResource.users().get(userId).leaveGroup(groupId);
-                log.info("Removed user '{}' from group '{}'", userId, groupId);
-            } catch (jakarta.ws.rs.NotFoundException e) {
-                throw new UserNotFoundException("User with ID '" + userId + "' not found");
+        try {
+            for (String userId : userIds) {
+                try {
+                    realmResource.users().get(userId).leaveGroup(groupId);
+                    log.info("Removed user '{}' from group '{}'", userId, groupId);
+                } catch (jakarta.ws.rs.NotFoundException e) {
+                    throw new UserNotFoundException("User with ID '" + userId + "' not found");
+                }
             }
+        } finally {
+            memberCountCache.evict(groupId);
         }
     }
 
@@ -327,24 +552,49 @@ public class GroupService {
     }
 
     // Mapping methods
-    private GroupDTO mapToGroupDTO(GroupRepresentation group) {
-        // Get user count for the group
-        int userCount = 0;
-        try {
-            GroupResource groupResource = getGroupsResource().group(group.getId());
-            List<UserRepresentation> members = groupResource.members();
-            userCount = members != null ? members.size() : 0;
-        } catch (Exception e) {
-            log.warn("Could not fetch user count for group {}: {}", group.getId(), e.getMessage());
+    private GroupDTO mapToGroupDTO(GroupRepresentation group, boolean includeCount) {
+        // Get user count for the group from the count cache
+        Integer userCount = null;
+        if (includeCount) {
+            try {
+                userCount = memberCountCache.getCount(group.getId(), getGroupsResource().group(group.getId()));
+            } catch (Exception e) {
+                log.warn("Could not fetch user count for group {}: {}", group.getId(), e.getMessage());
+                userCount = 0;
+            }
         }
 
         return GroupDTO.builder()
                 .id(group.getId())
                 .name(group.getName())
+                .path(group.getPath())
+                .parentId(group.getParentId())
                 .userCount(userCount)
                 .build();
     }
 
+    private GroupDTO mapToGroupDTO(GroupTreeCache.GroupNode node) {
+        return GroupDTO.builder()
+                .id(node.id())
+                .name(node.name())
+                .path(node.path())
+                .parentId(node.parentId())
+                .build();
+    }
+
+    private GroupTreeNodeDTO mapToTreeNodeDTO(GroupTreeCache.GroupTree tree, GroupTreeCache.GroupNode node) {
+        return GroupTreeNodeDTO.builder()
+                .id(node.id())
+                .name(node.name())
+                .path(node.path())
+                .parentId(node.parentId())
+                .ancestorIds(node.ancestorIds())
+                .children(node.childIds().stream()
+                        .map(childId -> mapToTreeNodeDTO(tree, tree.get(childId)))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
     private RoleDTO mapToRoleDTO(RoleRepresentation role) {
         String displayName = role.getName().startsWith(ROLE_PREFIX)
                 ? role.getName().substring(ROLE_PREFIX.length())
@@ -372,6 +622,19 @@ public class GroupService {
                 .build();
     }
 
+    private UserDTO mapToBasicUserDTO(UserRepresentation user) {
+        return UserDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .enabled(user.isEnabled())
+                .emailVerified(user.isEmailVerified())
+                .createdTimestamp(user.getCreatedTimestamp())
+                .build();
+    }
+
     private UserDTO mapToUserDTO(UserRepresentation user) {
         RealmResource realmResource = keycloak.realm(realm);
         UsersResource usersResource = realmResource.users();
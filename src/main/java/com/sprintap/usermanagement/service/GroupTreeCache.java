@@ -0,0 +1,394 @@
+package com.sprintap.usermanagement.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory snapshot of the Keycloak group hierarchy.
+ * <p>
+ * The tree is loaded from Keycloak once, then kept up to date by the group write paths
+ * in {@link GroupService}, which call the {@code on*} methods after each change.
+ * Every node carries its flattened ancestor list and its direct realm role mappings,
+ * so hierarchy queries and inherited role lookups are answered from memory.
+ * </p>
+ * <p>
+ * Snapshots are immutable: writers build a new {@link GroupTree} and publish it through a
+ * volatile field, so readers never lock. A full reload is triggered in the background once
+ * the snapshot is older than the configured TTL, to pick up changes made directly in Keycloak.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GroupTreeCache {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int ROLE_FETCH_ATTEMPTS = 3;
+
+    private final Keycloak keycloak;
+
+    private final AtomicBoolean reloading = new AtomicBoolean(false);
+
+    private volatile GroupTree tree;
+
+    // Incremented on every incremental update, so a background reload that raced with a write is discarded
+    private long writeVersion;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    @Value("${app.groups.tree-ttl-seconds:600}")
+    private long ttlSeconds;
+
+    /**
+     * Returns the current group tree, loading it on first use.
+     *
+     * @return the current snapshot
+     */
+    public GroupTree getTree() {
+        GroupTree current = tree;
+        if (current == null) {
+            synchronized (this) {
+                if (tree == null) {
+                    tree = loadTree();
+                }
+                return tree;
+            }
+        }
+        if (current.loadedAt() + ttlSeconds * 1000 < System.currentTimeMillis()) {
+            reloadInBackground();
+        }
+        return current;
+    }
+
+    /**
+     * Drops the snapshot so the next read reloads it from Keycloak.
+     */
+    public synchronized void invalidate() {
+        writeVersion++;
+        tree = null;
+    }
+
+    /**
+     * Adds a newly created group to the tree.
+     *
+     * @param groupId  the new group ID
+     * @param name     the group name
+     * @param parentId the parent group ID, or null for a top-level group
+     */
+    public synchronized void onGroupCreated(String groupId, String name, String parentId) {
+        writeVersion++;
+        GroupTree current = tree;
+        if (current == null) {
+            return;
+        }
+
+        Map<String, GroupNode> nodes = new HashMap<>(current.nodes());
+        List<String> rootIds = new ArrayList<>(current.rootIds());
+        List<String> ancestors = new ArrayList<>();
+        String path = "/" + name;
+
+        if (parentId != null) {
+            GroupNode parent = nodes.get(parentId);
+            if (parent == null) {
+                // Parent is unknown to this snapshot, fall back to a full reload
+                tree = null;
+                return;
+            }
+            ancestors.addAll(parent.ancestorIds());
+            ancestors.add(parentId);
+            path = parent.path() + "/" + name;
+            nodes.put(parentId, parent.withChildIds(append(parent.childIds(), groupId)));
+        } else {
+            rootIds.add(groupId);
+        }
+
+        nodes.put(groupId, new GroupNode(groupId, name, path, parentId, List.of(),
+                List.copyOf(ancestors), List.of()));
+        tree = new GroupTree(Map.copyOf(nodes), List.copyOf(rootIds), current.loadedAt());
+    }
+
+    /**
+     * Removes a deleted group and all of its descendants from the tree.
+     *
+     * @param groupId the deleted group ID
+     */
+    public synchronized void onGroupDeleted(String groupId) {
+        writeVersion++;
+        GroupTree current = tree;
+        if (current == null || !current.nodes().containsKey(groupId)) {
+            return;
+        }
+
+        Map<String, GroupNode> nodes = new HashMap<>(current.nodes());
+        GroupNode removed = nodes.get(groupId);
+        removeSubtree(nodes, groupId);
+
+        List<String> rootIds = current.rootIds();
+        if (removed.parentId() != null) {
+            GroupNode parent = nodes.get(removed.parentId());
+            if (parent != null) {
+                List<String> childIds = new ArrayList<>(parent.childIds());
+                childIds.remove(groupId);
+                nodes.put(parent.id(), parent.withChildIds(List.copyOf(childIds)));
+            }
+        } else {
+            List<String> remainingRoots = new ArrayList<>(rootIds);
+            remainingRoots.remove(groupId);
+            rootIds = List.copyOf(remainingRoots);
+        }
+
+        tree = new GroupTree(Map.copyOf(nodes), rootIds, current.loadedAt());
+    }
+
+    /**
+     * Reloads the realm role mappings of a single group after they were changed.
+     * <p>
+     * The mappings are fetched from Keycloak without holding the writer lock. If another write was published
+     * while fetching, they may predate it, so they are fetched again; after a few such attempts the snapshot is
+     * dropped and reloaded on the next read instead.
+     * </p>
+     *
+     * @param groupId the group ID
+     */
+    public void onGroupRolesChanged(String groupId) {
+        for (int attempt = 0; attempt < ROLE_FETCH_ATTEMPTS; attempt++) {
+            long versionAtFetch;
+            synchronized (this) {
+                GroupTree current = tree;
+                if (current == null || !current.nodes().containsKey(groupId)) {
+                    // Nothing to update, but a reload that started before the change must not be published
+                    writeVersion++;
+                    return;
+                }
+                versionAtFetch = writeVersion;
+            }
+
+            List<RoleRepresentation> roleMappings = getRealmResource().groups().group(groupId)
+                    .roles().realmLevel().listAll();
+
+            synchronized (this) {
+                if (writeVersion != versionAtFetch) {
+                    continue;
+                }
+                writeVersion++;
+                GroupTree current = tree;
+                if (current == null || !current.nodes().containsKey(groupId)) {
+                    return;
+                }
+                Map<String, GroupNode> nodes = new HashMap<>(current.nodes());
+                nodes.put(groupId, nodes.get(groupId).withRoleMappings(List.copyOf(roleMappings)));
+                tree = new GroupTree(Map.copyOf(nodes), current.rootIds(), current.loadedAt());
+                return;
+            }
+        }
+
+        log.info("Group tree kept changing while reloading roles of group {}; dropping the snapshot", groupId);
+        invalidate();
+    }
+
+    private void reloadInBackground() {
+        if (!reloading.compareAndSet(false, true)) {
+            return;
+        }
+        long versionAtStart;
+        synchronized (this) {
+            versionAtStart = writeVersion;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                GroupTree reloaded = loadTree();
+                synchronized (this) {
+                    if (writeVersion == versionAtStart) {
+                        tree = reloaded;
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Background reload of group tree failed: {}", e.getMessage());
+            } finally {
+                reloading.set(false);
+            }
+        });
+    }
+
+    private GroupTree loadTree() {
+        log.info("Loading group tree from Keycloak");
+        long start = System.currentTimeMillis();
+
+        RealmResource realmResource = getRealmResource();
+        Map<String, RoleRepresentation> rolesByName = new HashMap<>();
+        realmResource.roles().list().forEach(role -> rolesByName.put(role.getName(), role));
+
+        Map<String, GroupNode> nodes = new LinkedHashMap<>();
+        List<String> rootIds = new ArrayList<>();
+
+        int first = 0;
+        List<GroupRepresentation> page;
+        do {
+            page = realmResource.groups().groups(null, first, PAGE_SIZE, false);
+            for (GroupRepresentation group : page) {
+                rootIds.add(group.getId());
+                loadSubtree(realmResource, group, null, List.of(), rolesByName, nodes);
+            }
+            first += PAGE_SIZE;
+        } while (page.size() == PAGE_SIZE);
+
+        log.info("Loaded group tree with {} groups in {} ms", nodes.size(), System.currentTimeMillis() - start);
+        return new GroupTree(Map.copyOf(nodes), List.copyOf(rootIds), System.currentTimeMillis());
+    }
+
+    private void loadSubtree(RealmResource realmResource, GroupRepresentation group, String parentId,
+                             List<String> ancestorIds, Map<String, RoleRepresentation> rolesByName,
+                             Map<String, GroupNode> nodes) {
+        List<RoleRepresentation> roleMappings = new ArrayList<>();
+        if (group.getRealmRoles() != null) {
+            for (String roleName : group.getRealmRoles()) {
+                RoleRepresentation role = rolesByName.get(roleName);
+                if (role != null) {
+                    roleMappings.add(role);
+                }
+            }
+        }
+
+        List<String> childAncestors = append(ancestorIds, group.getId());
+        List<String> childIds = new ArrayList<>();
+
+        int first = 0;
+        List<GroupRepresentation> children;
+        do {
+            children = realmResource.groups().group(group.getId()).getSubGroups(first, PAGE_SIZE, false);
+            for (GroupRepresentation child : children) {
+                childIds.add(child.getId());
+                loadSubtree(realmResource, child, group.getId(), childAncestors, rolesByName, nodes);
+            }
+            first += PAGE_SIZE;
+        } while (children.size() == PAGE_SIZE);
+
+        String path = group.getPath() != null ? group.getPath() : "/" + group.getName();
+        nodes.put(group.getId(), new GroupNode(group.getId(), group.getName(), path, parentId,
+                List.copyOf(childIds), ancestorIds, List.copyOf(roleMappings)));
+    }
+
+    private void removeSubtree(Map<String, GroupNode> nodes, String groupId) {
+        GroupNode node = nodes.remove(groupId);
+        if (node != null) {
+            node.childIds().forEach(childId -> removeSubtree(nodes, childId));
+        }
+    }
+
+    private RealmResource getRealmResource() {
+        return keycloak.realm(realm);
+    }
+
+    private static List<String> append(List<String> list, String value) {
+        List<String> result = new ArrayList<>(list.size() + 1);
+        result.addAll(list);
+        result.add(value);
+        return List.copyOf(result);
+    }
+
+    /**
+     * Immutable snapshot of the group hierarchy.
+     *
+     * @param nodes    all groups by ID
+     * @param rootIds  IDs of the top-level groups
+     * @param loadedAt time of the last full load from Keycloak, in epoch millis
+     */
+    public record GroupTree(Map<String, GroupNode> nodes, List<String> rootIds, long loadedAt) {
+
+        public GroupNode get(String groupId) {
+            return nodes.get(groupId);
+        }
+
+        /**
+         * Counts the top-level groups with at least one group in their subtree (the group itself included)
+         * whose name contains the search term, ignoring case, as Keycloak's group search matches them.
+         */
+        public int countRootsMatching(String search) {
+            String term = search.toLowerCase(Locale.ROOT);
+            int count = 0;
+            for (String rootId : rootIds) {
+                if (subtreeMatches(rootId, term)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private boolean subtreeMatches(String groupId, String term) {
+            GroupNode node = nodes.get(groupId);
+            if (node == null) {
+                return false;
+            }
+            if (node.name() != null && node.name().toLowerCase(Locale.ROOT).contains(term)) {
+                return true;
+            }
+            for (String childId : node.childIds()) {
+                if (subtreeMatches(childId, term)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the group's own role mappings followed by those inherited from its ancestors,
+         * without duplicates.
+         */
+        public List<RoleRepresentation> effectiveRoleMappings(String groupId) {
+            GroupNode node = nodes.get(groupId);
+            if (node == null) {
+                return Collections.emptyList();
+            }
+
+            Map<String, RoleRepresentation> roles = new LinkedHashMap<>();
+            node.roleMappings().forEach(role -> roles.putIfAbsent(role.getId(), role));
+            for (int i = node.ancestorIds().size() - 1; i >= 0; i--) {
+                GroupNode ancestor = nodes.get(node.ancestorIds().get(i));
+                if (ancestor != null) {
+                    ancestor.roleMappings().forEach(role -> roles.putIfAbsent(role.getId(), role));
+                }
+            }
+            return List.copyOf(roles.values());
+        }
+    }
+
+    /**
+     * A single group in the tree.
+     *
+     * @param id           group ID
+     * @param name         group name
+     * @param path         full Keycloak path, e.g. {@code /finance/approvers}
+     * @param parentId     parent group ID, or null for a top-level group
+     * @param childIds     IDs of the direct subgroups
+     * @param ancestorIds  IDs of all ancestors, from the root down to the parent
+     * @param roleMappings realm roles and privileges mapped directly to this group
+     */
+    public record GroupNode(String id, String name, String path, String parentId, List<String> childIds,
+                            List<String> ancestorIds, List<RoleRepresentation> roleMappings) {
+
+        GroupNode withChildIds(List<String> newChildIds) {
+            return new GroupNode(id, name, path, parentId, newChildIds, ancestorIds, roleMappings);
+        }
+
+        GroupNode withRoleMappings(List<RoleRepresentation> newRoleMappings) {
+            return new GroupNode(id, name, path, parentId, childIds, ancestorIds, newRoleMappings);
+        }
+    }
+}
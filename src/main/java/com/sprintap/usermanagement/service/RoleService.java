@@ -3,6 +3,9 @@ package com.sprintap.usermanagement.service;
 import com.sprintap.usermanagement.dto.CreateRoleRequest;
 import com.sprintap.usermanagement.dto.PrivilegeDTO;
 import com.sprintap.usermanagement.dto.RoleDTO;
+import com.sprintap.usermanagement.dto.RoleMatrixDTO;
+import com.sprintap.usermanagement.dto.RoleMatrixEntryDTO;
+import com.sprintap.usermanagement.dto.RoleUsageReportDTO;
 import com.sprintap.usermanagement.dto.UpdateRoleRequest;
 import com.sprintap.usermanagement.exception.InvalidOperationException;
 import com.sprintap.usermanagement.exception.PrivilegeNotFoundException;
@@ -19,10 +22,15 @@ import org.keycloak.representations.idm.UserRepresentation;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -36,10 +44,15 @@ public class RoleService {
     private static final int PRIVILEGE_PREFIX_LENGTH = 5;
 
     private final Keycloak keycloak;
+    private final GroupTreeCache groupTreeCache;
+    private final RoleUsageAggregator roleUsageAggregator;
 
     @Value("${keycloak.realm}")
     private String realm;
 
+    // Cached role x privilege matrix, dropped whenever a role is created, updated or deleted
+    private final AtomicReference<CachedRoleMatrix> roleMatrix = new AtomicReference<>(new CachedRoleMatrix(0, null));
+
     public RoleDTO createRole(CreateRoleRequest request) {
         String roleName = ensureRolePrefix(request.getRoleName());
         log.info("Creating role: {}", roleName);
@@ -58,14 +71,19 @@ public class RoleService {
         // Only create the role after all validations pass
         RoleRepresentation roleRep = buildRoleRepresentation(roleName, request.getDescription(),
                 !privileges.isEmpty());
-        rolesResource.create(roleRep);
-        log.info("Role '{}' created successfully", roleName);
-
-        // Add privileges if any (we already validated them above)
-        if (!privileges.isEmpty()) {
-            RoleResource roleResource = rolesResource.get(roleName);
-            roleResource.addComposites(privileges);
-            log.info("Added {} privileges to role '{}'", privileges.size(), roleName);
+        try {
+            rolesResource.create(roleRep);
+            log.info("Role '{}' created successfully", roleName);
+
+            // Add privileges if any (we already validated them above)
+            if (!privileges.isEmpty()) {
+                RoleResource roleResource = rolesResource.get(roleName);
+                roleResource.addComposites(privileges);
+                log.info("Added {} privileges to role '{}'", privileges.size(), roleName);
+            }
+        } finally {
+            // Also when adding the privileges failed: the role may exist in Keycloak by then
+            invalidateRoleMatrix();
         }
 
         return mapToRoleDTO(rolesResource.get(roleName).toRepresentation());
@@ -86,7 +104,12 @@ public class RoleService {
         validateRoleNotInUse(roleResource, roleName);
 
 
-        roleResource.remove();
+        try {
+            roleResource.remove();
+        } finally {
+            invalidateRoleMatrix();
+            groupTreeCache.invalidate();
+        }
         log.info("Role '{}' deleted successfully", roleName);
     }
 
@@ -100,16 +123,23 @@ public class RoleService {
 
         RoleResource roleResource = getRoleResource(roleName);
 
-        if (request.getDescription() != null) {
-            updateRoleDescription(roleResource, request.getDescription());
-        }
+        try {
+            if (request.getDescription() != null) {
+                updateRoleDescription(roleResource, request.getDescription());
+            }
 
-        if (request.getPrivilegeIdsToAdd() != null && !request.getPrivilegeIdsToAdd().isEmpty()) {
-            addPrivilegesToRoleByIds(roleName, request.getPrivilegeIdsToAdd());
-        }
+            if (request.getPrivilegeIdsToAdd() != null && !request.getPrivilegeIdsToAdd().isEmpty()) {
+                addPrivilegesToRoleByIds(roleName, request.getPrivilegeIdsToAdd());
+            }
 
-        if (request.getPrivilegeIdsToRemove() != null && !request.getPrivilegeIdsToRemove().isEmpty()) {
-            removePrivilegesFromRoleByIds(roleName, request.getPrivilegeIdsToRemove());
+            if (request.getPrivilegeIdsToRemove() != null && !request.getPrivilegeIdsToRemove().isEmpty()) {
+                removePrivilegesFromRoleByIds(roleName, request.getPrivilegeIdsToRemove());
+            }
+        } finally {
+            // The role matrix and the group role mappings in the cached group tree hold copies of the role;
+            // invalidated even if a later step failed, since the earlier ones already changed Keycloak
+            invalidateRoleMatrix();
+            groupTreeCache.invalidate();
         }
 
         return mapToRoleDTO(roleResource.toRepresentation());
@@ -150,6 +180,37 @@ public class RoleService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns every role with its privileges in a single structure.
+     * Privileges are listed once, and each role refers to them by index.
+     * The matrix is built from Keycloak on first use and rebuilt only after a role changes.
+     *
+     * @return the role x privilege matrix
+     */
+    public RoleMatrixDTO getRoleMatrix() {
+        log.info("Fetching role privilege matrix");
+
+        CachedRoleMatrix cached = roleMatrix.get();
+        if (cached.matrix() != null) {
+            return cached.matrix();
+        }
+
+        RoleMatrixDTO matrix = buildRoleMatrix();
+        // Only publish if no role changed while building: an invalidation replaces the cached entry
+        roleMatrix.compareAndSet(cached, new CachedRoleMatrix(cached.version(), matrix));
+        return matrix;
+    }
+
+    /**
+     * Returns usage counts for every role and privilege, as computed by the last background aggregation.
+     *
+     * @return the role and privilege usage report
+     */
+    public RoleUsageReportDTO getRoleUsage() {
+        log.info("Fetching role usage statistics");
+        return roleUsageAggregator.getReport();
+    }
+
     private void addPrivilegesToRoleByIds(String roleName, List<String> privilegeIds) {
         RoleResource roleResource = getRolesResource().get(roleName);
         List<RoleRepresentation> privileges = fetchPrivilegesByIds(privilegeIds);
@@ -170,6 +231,60 @@ public class RoleService {
         }
     }
 
+    private void invalidateRoleMatrix() {
+        roleMatrix.updateAndGet(cached -> new CachedRoleMatrix(cached.version() + 1, null));
+    }
+
+    private RoleMatrixDTO buildRoleMatrix() {
+        RolesResource rolesResource = getRolesResource();
+        List<RoleRepresentation> allRoles = rolesResource.list();
+
+        List<PrivilegeDTO> privileges = new ArrayList<>();
+        Map<String, Integer> privilegeIndexById = new HashMap<>();
+        for (RoleRepresentation role : allRoles) {
+            if (role.getName().startsWith(PRIVILEGE_PREFIX)) {
+                privilegeIndexById.put(role.getId(), privileges.size());
+                privileges.add(mapToPrivilegeDTO(role));
+            }
+        }
+
+        List<RoleMatrixEntryDTO> roles = new ArrayList<>();
+        for (RoleRepresentation role : allRoles) {
+            if (!role.getName().startsWith(ROLE_PREFIX)) {
+                continue;
+            }
+
+            // Only composite roles can carry privileges, so the others need no lookup
+            int[] privilegeIndexes = new int[0];
+            if (role.isComposite()) {
+                Set<RoleRepresentation> composites = rolesResource.get(role.getName()).getRoleComposites();
+                if (composites != null) {
+                    privilegeIndexes = composites.stream()
+                            .map(composite -> privilegeIndexById.get(composite.getId()))
+                            .filter(Objects::nonNull)
+                            .mapToInt(Integer::intValue)
+                            .sorted()
+                            .toArray();
+                }
+            }
+
+            roles.add(RoleMatrixEntryDTO.builder()
+                    .id(role.getId())
+                    .name(role.getName())
+                    .displayName(role.getName().substring(ROLE_PREFIX_LENGTH))
+                    .description(role.getDescription())
+                    .privilegeIndexes(privilegeIndexes)
+                    .build());
+        }
+
+        log.info("Built role privilege matrix with {} roles and {} privileges", roles.size(), privileges.size());
+        return RoleMatrixDTO.builder()
+                .builtAt(Instant.now())
+                .privileges(privileges)
+                .roles(roles)
+                .build();
+    }
+
     // Helper methods for Keycloak resource access
     private RealmResource getRealmResource() {
         return keycloak.realm(realm);
@@ -225,11 +340,12 @@ public class RoleService {
     }
 
     private void validateRoleNotInUse(RoleResource roleResource, String roleName) {
-        List<UserRepresentation> usersWithRole = roleResource.getUserMembers();
+        // Existence probe: a single member is enough to block the delete
+        List<UserRepresentation> usersWithRole = roleResource.getUserMembers(0, 1);
         if (usersWithRole != null && !usersWithRole.isEmpty()) {
             throw new RoleInUseException(
-                    "Cannot delete role '" + roleName + "'. It is currently assigned to " +
-                            usersWithRole.size() + " user(s). Please remove the role from all users first."
+                    "Cannot delete role '" + roleName + "'. It is currently assigned to one or more users. " +
+                            "Please remove the role from all users first."
             );
         }
     }
@@ -325,5 +441,7 @@ public class RoleService {
                 .description(role.getDescription())
                 .build();
     }
-}
 
+    private record CachedRoleMatrix(long version, RoleMatrixDTO matrix) {
+    }
+}
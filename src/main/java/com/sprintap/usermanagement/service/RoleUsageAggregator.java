@@ -0,0 +1,215 @@
+package com.sprintap.usermanagement.service;
+
+import com.sprintap.usermanagement.dto.RoleUsageDTO;
+import com.sprintap.usermanagement.dto.RoleUsageReportDTO;
+import com.sprintap.usermanagement.exception.ReportNotReadyException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.GroupResource;
+import org.keycloak.admin.client.resource.GroupsResource;
+import org.keycloak.admin.client.resource.RoleResource;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Periodically aggregates role and privilege usage counts from Keycloak.
+ * <p>
+ * All membership lookups use Keycloak's paged endpoints, so a role with many members is
+ * counted one page at a time instead of being downloaded in full. The first run starts on the scheduler
+ * right after startup; the last report is kept in memory and served by {@link #getReport()}, which never
+ * calls Keycloak itself and reports the usage as not ready until the first run has completed.
+ * </p>
+ * <p>
+ * Group-derived users include the members of every subgroup of a mapped group, since subgroups inherit
+ * their parents' role mappings; the subgroups are taken from the cached {@link GroupTreeCache} hierarchy.
+ * A user who is in several of these groups is counted once. Roles whose mapped groups have no subgroups
+ * and are a single group use the cached member count; for the others the member IDs of each group are
+ * paged once per run and shared between roles.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleUsageAggregator {
+
+    private static final String ROLE_PREFIX = "role_";
+    private static final String PRIVILEGE_PREFIX = "priv_";
+    private static final int PAGE_SIZE = 500;
+    private static final long NOT_READY_RETRY_AFTER_SECONDS = 30;
+
+    private final Keycloak keycloak;
+    private final GroupMemberCountCache memberCountCache;
+    private final GroupTreeCache groupTreeCache;
+
+    private volatile RoleUsageReportDTO report;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    /**
+     * Returns the most recent usage report.
+     *
+     * @return the usage report
+     * @throws ReportNotReadyException if the first aggregation has not completed yet
+     */
+    public RoleUsageReportDTO getReport() {
+        RoleUsageReportDTO current = report;
+        if (current == null) {
+            throw new ReportNotReadyException("Role usage is still being computed", NOT_READY_RETRY_AFTER_SECONDS);
+        }
+        return current;
+    }
+
+    @Scheduled(initialDelayString = "${app.roles.usage-initial-delay-ms:0}",
+            fixedDelayString = "${app.roles.usage-refresh-ms:300000}")
+    public void refresh() {
+        try {
+            report = aggregate();
+        } catch (Exception e) {
+            log.warn("Role usage aggregation failed, keeping previous report: {}", e.getMessage());
+        }
+    }
+
+    private RoleUsageReportDTO aggregate() {
+        log.info("Aggregating role and privilege usage");
+        long start = System.currentTimeMillis();
+
+        RolesResource rolesResource = keycloak.realm(realm).roles();
+        GroupsResource groupsResource = keycloak.realm(realm).groups();
+        List<RoleRepresentation> allRoles = rolesResource.list();
+
+        // Count how many roles include each privilege, from the composites of composite roles
+        Map<String, Integer> rolesPerPrivilege = new HashMap<>();
+        for (RoleRepresentation role : allRoles) {
+            if (role.getName().startsWith(ROLE_PREFIX) && role.isComposite()) {
+                Set<RoleRepresentation> composites = rolesResource.get(role.getName()).getRoleComposites();
+                if (composites != null) {
+                    composites.forEach(composite -> rolesPerPrivilege.merge(composite.getId(), 1, Integer::sum));
+                }
+            }
+        }
+
+        List<RoleUsageDTO> roles = new ArrayList<>();
+        List<RoleUsageDTO> privileges = new ArrayList<>();
+        Map<String, Set<String>> memberIdsByGroup = new HashMap<>();
+        GroupTreeCache.GroupTree tree = groupTreeCache.getTree();
+
+        for (RoleRepresentation role : allRoles) {
+            boolean isRole = role.getName().startsWith(ROLE_PREFIX);
+            boolean isPrivilege = role.getName().startsWith(PRIVILEGE_PREFIX);
+            if (!isRole && !isPrivilege) {
+                continue;
+            }
+
+            RoleResource roleResource = rolesResource.get(role.getName());
+            int directUsers = countUserMembers(roleResource);
+
+            List<String> groupIds = new ArrayList<>();
+            int first = 0;
+            Set<GroupRepresentation> groups;
+            do {
+                groups = roleResource.getRoleGroupMembers(first, PAGE_SIZE);
+                groups.forEach(group -> groupIds.add(group.getId()));
+                first += PAGE_SIZE;
+            } while (groups.size() == PAGE_SIZE);
+
+            Set<String> inheritingGroupIds = withDescendants(tree, groupIds);
+            int groupUsers;
+            if (inheritingGroupIds.size() == 1) {
+                String groupId = inheritingGroupIds.iterator().next();
+                groupUsers = memberCountCache.getCount(groupId, groupsResource.group(groupId));
+            } else {
+                Set<String> distinctUsers = new HashSet<>();
+                for (String groupId : inheritingGroupIds) {
+                    distinctUsers.addAll(memberIdsByGroup.computeIfAbsent(groupId,
+                            id -> loadMemberIds(groupsResource.group(id))));
+                }
+                groupUsers = distinctUsers.size();
+            }
+
+            String prefix = isRole ? ROLE_PREFIX : PRIVILEGE_PREFIX;
+            RoleUsageDTO usage = RoleUsageDTO.builder()
+                    .id(role.getId())
+                    .name(role.getName())
+                    .displayName(role.getName().substring(prefix.length()))
+                    .directUserCount(directUsers)
+                    .groupCount(groupIds.size())
+                    .groupUserCount(groupUsers)
+                    .roleCount(isPrivilege ? rolesPerPrivilege.getOrDefault(role.getId(), 0) : 0)
+                    .build();
+
+            if (isRole) {
+                roles.add(usage);
+            } else {
+                privileges.add(usage);
+            }
+        }
+
+        log.info("Aggregated usage for {} roles and {} privileges in {} ms",
+                roles.size(), privileges.size(), System.currentTimeMillis() - start);
+
+        return RoleUsageReportDTO.builder()
+                .computedAt(Instant.now())
+                .roles(roles)
+                .privileges(privileges)
+                .build();
+    }
+
+    /**
+     * The mapped groups and all of their subgroups. A group missing from the tree (created since it was
+     * loaded) is kept on its own.
+     */
+    private static Set<String> withDescendants(GroupTreeCache.GroupTree tree, List<String> groupIds) {
+        Set<String> result = new LinkedHashSet<>();
+        List<String> pending = new ArrayList<>(groupIds);
+        while (!pending.isEmpty()) {
+            String groupId = pending.remove(pending.size() - 1);
+            if (result.add(groupId)) {
+                GroupTreeCache.GroupNode node = tree.get(groupId);
+                if (node != null) {
+                    pending.addAll(node.childIds());
+                }
+            }
+        }
+        return result;
+    }
+
+    private Set<String> loadMemberIds(GroupResource groupResource) {
+        Set<String> ids = new HashSet<>();
+        int first = 0;
+        List<UserRepresentation> page;
+        do {
+            page = groupResource.members(first, PAGE_SIZE, true);
+            page.forEach(user -> ids.add(user.getId()));
+            first += PAGE_SIZE;
+        } while (page.size() == PAGE_SIZE);
+        return ids;
+    }
+
+    private int countUserMembers(RoleResource roleResource) {
+        int total = 0;
+        int first = 0;
+        List<UserRepresentation> page;
+        do {
+            page = roleResource.getUserMembers(first, PAGE_SIZE);
+            total += page.size();
+            first += PAGE_SIZE;
+        } while (page.size() == PAGE_SIZE);
+        return total;
+    }
+}
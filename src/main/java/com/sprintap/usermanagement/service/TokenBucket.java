@@ -0,0 +1,71 @@
+package com.sprintap.usermanagement.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code burst} tokens, refilled at a fixed rate.
+ * <p>
+ * The state is a single {@code long}, the time at which the bucket will be full again (the "theoretical
+ * arrival time" of the generic cell rate algorithm). Taking a token pushes that time one refill interval
+ * further; the request is rejected when it would end up more than {@code burst} intervals in the future.
+ * Each acquisition is one compare-and-set, so buckets are safe to share between request threads.
+ * </p>
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int burst, double refillPerSecond, long now) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.capacityNanos = intervalNanos * Math.max(1, burst);
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token if one is available
+     *
+     * @param now current {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long excess = next - now - capacityNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire}, e.g. when the request it was reserved for was refused.
+     * Never fills the bucket beyond its burst.
+     *
+     * @param now current {@link System#nanoTime()}
+     */
+    void release(long now) {
+        while (true) {
+            long current = fullAt.get();
+            if (current - now <= 0) {
+                return;
+            }
+            long next = Math.max(current - intervalNanos, now);
+            if (fullAt.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Whether the bucket has refilled completely, i.e. dropping it loses no state
+     */
+    boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
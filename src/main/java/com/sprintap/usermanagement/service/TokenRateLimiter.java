@@ -0,0 +1,147 @@
+package com.sprintap.usermanagement.service;
+
+import com.sprintap.usermanagement.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limits the public token endpoint with one {@link TokenBucket} per source IP and one per client ID.
+ * <p>
+ * Every request takes a token from its source IP's bucket, so a single host cannot flood the endpoint or
+ * spray client IDs. The client bucket keeps one client from starving others that share a NAT or proxy address.
+ * Every request reserves a token from it up front, so concurrent requests for one client cannot get past the
+ * burst together; since the client ID is not authenticated, the reservation is given back when no token is
+ * issued ({@link #release}). Requests with a wrong secret therefore stay on the IP bucket and cannot drain
+ * another client's bucket. Rejections are counted in {@code auth.token.throttled}
+ * (tag {@code limit=ip|client}); per-key tags are left out to keep metric cardinality bounded. Buckets that
+ * have refilled completely are dropped by a periodic sweep.
+ * </p>
+ * <p>
+ * Limits are per instance. Behind a reverse proxy, set {@code server.forward-headers-strategy} so the
+ * source IP is the client's and not the proxy's.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TokenRateLimiter {
+
+    private final ConcurrentMap<String, TokenBucket> ipBuckets;
+    private final ConcurrentMap<String, TokenBucket> clientBuckets;
+
+    private final Counter ipThrottled;
+    private final Counter clientThrottled;
+
+    private final LongSupplier nanoClock;
+
+    @Value("${app.auth.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.auth.rate-limit.ip.burst:50}")
+    private int ipBurst;
+
+    @Value("${app.auth.rate-limit.ip.refill-per-second:20}")
+    private double ipRefillPerSecond;
+
+    @Value("${app.auth.rate-limit.client.burst:20}")
+    private int clientBurst;
+
+    @Value("${app.auth.rate-limit.client.refill-per-second:5}")
+    private double clientRefillPerSecond;
+
+    @Autowired
+    public TokenRateLimiter(MeterRegistry meterRegistry) {
+        this(meterRegistry, System::nanoTime);
+    }
+
+    TokenRateLimiter(MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        ConcurrentMap<String, TokenBucket> ips = new ConcurrentHashMap<>();
+        ConcurrentMap<String, TokenBucket> clients = new ConcurrentHashMap<>();
+        this.ipBuckets = ips;
+        this.clientBuckets = clients;
+        this.nanoClock = nanoClock;
+        this.ipThrottled = Counter.builder("auth.token.throttled")
+                .description("Token requests rejected by the rate limiter")
+                .tag("limit", "ip")
+                .register(meterRegistry);
+        this.clientThrottled = Counter.builder("auth.token.throttled")
+                .description("Token requests rejected by the rate limiter")
+                .tag("limit", "client")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.rate-limit.buckets", () -> ips.size() + clients.size())
+                .description("Rate limit buckets currently tracked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from the source IP's bucket and reserves one from the client's bucket.
+     * Callers must {@link #release} the client token if the request does not end with a token being issued.
+     *
+     * @param clientId the client ID from the token request
+     * @param sourceIp the remote address of the request
+     * @throws RateLimitExceededException if either bucket is empty; nothing is reserved from the client's bucket
+     */
+    public void acquire(String clientId, String sourceIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+
+        long ipWait = ipBuckets.computeIfAbsent(sourceIp,
+                key -> new TokenBucket(ipBurst, ipRefillPerSecond, now)).tryAcquire(now);
+        if (ipWait > 0) {
+            ipThrottled.increment();
+            log.debug("Token request from {} throttled by source IP limit", sourceIp);
+            throw new RateLimitExceededException("Too many token requests from this address", toRetryAfter(ipWait));
+        }
+
+        long clientWait = clientBuckets.computeIfAbsent(clientId,
+                key -> new TokenBucket(clientBurst, clientRefillPerSecond, now)).tryAcquire(now);
+        if (clientWait > 0) {
+            clientThrottled.increment();
+            log.debug("Token request for client {} throttled by client limit", clientId);
+            throw new RateLimitExceededException("Too many token requests for this client", toRetryAfter(clientWait));
+        }
+    }
+
+    /**
+     * Gives back the client token reserved by {@link #acquire} when no token was issued, e.g. because the
+     * credentials were rejected
+     *
+     * @param clientId the client ID from the token request
+     */
+    public void release(String clientId) {
+        if (!enabled) {
+            return;
+        }
+        TokenBucket clientBucket = clientBuckets.get(clientId);
+        if (clientBucket != null) {
+            clientBucket.release(nanoClock.getAsLong());
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely; a new request recreates them full, so nothing is lost
+     */
+    @Scheduled(initialDelayString = "${app.auth.rate-limit.sweep-ms:60000}",
+            fixedDelayString = "${app.auth.rate-limit.sweep-ms:60000}")
+    public void sweep() {
+        long now = nanoClock.getAsLong();
+        ipBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        clientBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    static long toRetryAfter(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
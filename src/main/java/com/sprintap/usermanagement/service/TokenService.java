@@ -1,5 +1,6 @@
 package com.sprintap.usermanagement.service;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -19,6 +20,7 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service for handling token operations with Keycloak.
+ * Calls go through the pooled client from {@link com.sprintap.usermanagement.config.KeycloakHttpClientConfig}.
  */
 @Slf4j
 @Service
@@ -30,20 +32,37 @@ public class TokenService {
     @Value("${keycloak.realm}")
     private String realm;
 
+    @Value("${app.auth.token-cache.enabled:true}")
+    private boolean tokenCacheEnabled;
+
     private final RestTemplate restTemplate;
 
-    public TokenService() {
-        this.restTemplate = new RestTemplate();
+    private final ClientTokenCache tokenCache;
+
+    public TokenService(@Qualifier("keycloakRestTemplate") RestTemplate restTemplate, ClientTokenCache tokenCache) {
+        this.restTemplate = restTemplate;
+        this.tokenCache = tokenCache;
     }
 
     /**
-     * Retrieves an access token from Keycloak using client credentials.
+     * Retrieves an access token using client credentials.
+     * Client-credentials tokens are served from {@link ClientTokenCache} while they are still valid.
      *
      * @param tokenRequest the token request containing client credentials
      * @return TokenResponse containing the access token and related information
      * @throws RuntimeException if token retrieval fails
      */
     public TokenResponse getToken(TokenRequest tokenRequest) {
+        if (tokenCacheEnabled && "client_credentials".equals(tokenRequest.getGrantType())) {
+            return tokenCache.get(tokenRequest, this::fetchToken);
+        }
+        return fetchToken(tokenRequest);
+    }
+
+    /**
+     * Requests a new access token from Keycloak.
+     */
+    private TokenResponse fetchToken(TokenRequest tokenRequest) {
         log.info("Requesting token for client: {}", tokenRequest.getClientId());
 
         String tokenUrl = String.format("%s/realms/%s/protocol/openid-connect/token",
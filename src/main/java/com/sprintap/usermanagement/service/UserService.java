@@ -12,12 +12,14 @@ import com.sprintap.usermanagement.exception.InvalidOperationException;
 import com.sprintap.usermanagement.exception.RoleNotFoundException;
 import com.sprintap.usermanagement.exception.UserNotFoundException;
 import com.sprintap.usermanagement.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.ws.rs.core.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.*;
 import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 import org.springframework.beans.factory.annotation.Value;
@@ -36,6 +38,8 @@ public class UserService {
 
     private final Keycloak keycloak;
     private final UserRepository userRepository;
+    private final GroupMemberCountCache memberCountCache;
+    private final EntityManagerFactory entityManagerFactory;
 
     @Value("${keycloak.realm}")
     private String realm;
@@ -123,7 +127,9 @@ public class UserService {
         try {
             UserResource userResource = usersResource.get(userId);
             userResource.toRepresentation();
+            List<GroupRepresentation> userGroups = userResource.groups();
             userResource.remove();
+            userGroups.forEach(group -> memberCountCache.evict(group.getId()));
             log.info("User with ID '{}' deleted successfully from Keycloak", userId);
 
             // Soft delete in database by setting is_active to false
@@ -145,6 +151,7 @@ public class UserService {
             if (user != null) {
                 user.setIsActive(false);
                 userRepository.save(user);
+                evictCachedUser(userUuid);
                 log.info("User soft deleted in database with ID: {}", userId);
             } else {
                 log.warn("User {} not found in database during delete", userId);
@@ -476,6 +483,7 @@ public class UserService {
             try {
                 groupsResource.group(groupId).toRepresentation();
                 userResource.joinGroup(groupId);
+                memberCountCache.evict(groupId);
                 log.info("Added user '{}' to group '{}'", userId, groupId);
             } catch (jakarta.ws.rs.NotFoundException e) {
                 throw new GroupNotFoundException("Group with ID '" + groupId + "' not found");
@@ -491,6 +499,7 @@ public class UserService {
         for (String groupId : groupIds) {
             try {
                 userResource.leaveGroup(groupId);
+                memberCountCache.evict(groupId);
                 log.info("Removed user '{}' from group '{}'", userId, groupId);
             } catch (jakarta.ws.rs.NotFoundException e) {
                 throw new GroupNotFoundException("Group with ID '" + groupId + "' not found");
@@ -555,6 +564,13 @@ public class UserService {
                 .build();
     }
 
+    /**
+     * Drop a user from the second-level cache after a sync write, so the next lookup reads the committed row
+     */
+    private void evictCachedUser(UUID userId) {
+        entityManagerFactory.getCache().evict(User.class, userId);
+    }
+
     /**
      * Sync user data to the database
      * @param userId - Keycloak user ID
@@ -580,6 +596,7 @@ public class UserService {
                         .build();
 
                 userRepository.save(user);
+                evictCachedUser(userUuid);
                 log.info("User synced to database with ID: {}", userId);
             } else {
                 // Update existing user - only update is_active and updated_at
@@ -589,6 +606,7 @@ public class UserService {
                     // Only update is_active field (updated_at is automatically updated by @UpdateTimestamp)
                     existingUser.setIsActive(userRep.isEnabled());
                     userRepository.save(existingUser);
+                    evictCachedUser(userUuid);
                     log.info("User database record updated (is_active) for ID: {}", userId);
                 } else {
                     // If user doesn't exist in database, create it
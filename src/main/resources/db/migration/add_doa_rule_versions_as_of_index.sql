@@ -0,0 +1,11 @@
+-- Index for the state of all rules at a point in time (DoaRuleVersionRepository#findLatestPerRuleAsOf), used
+-- for as-of queries older than the in-memory history and to seed it on load: the latest version of each rule
+-- is read in index order instead of sorting the whole table
+--
+-- CREATE INDEX CONCURRENTLY does not block writes but cannot run inside a transaction block:
+-- run this script with autocommit (e.g. plain psql, without --single-transaction).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_doa_rule_versions_rule_valid_from
+    ON public.doa_rule_versions (doa_rule_id, valid_from DESC, seq DESC);
+
+ANALYZE public.doa_rule_versions;
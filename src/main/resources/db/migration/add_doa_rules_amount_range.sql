@@ -0,0 +1,26 @@
+-- Expose the amount thresholds of doa_rules as a range and index it for "rules covering this amount" lookups
+-- 1. amount_range: generated numrange over [min_amount, max_amount], inclusive at both ends like the
+--    in-memory routing engine
+-- 2. GiST index on (entity, currency, amount_range) for active, enabled rules; btree_gist provides the
+--    equality operators for the scalar columns. The INCLUDE columns let findCoveringRules run as an
+--    index-only scan.
+--
+-- Adding a STORED generated column rewrites the table under an ACCESS EXCLUSIVE lock: run it in a
+-- maintenance window. CREATE INDEX CONCURRENTLY cannot run inside a transaction block: run this script
+-- with autocommit (e.g. plain psql, without --single-transaction).
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE public.doa_rules
+    ADD COLUMN IF NOT EXISTS amount_range NUMRANGE
+    GENERATED ALWAYS AS (numrange(min_amount, max_amount, '[]')) STORED;
+
+-- Covering lookups: entity = ? AND currency = ? AND amount_range @> ? AND is_active AND enabled
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_doa_rules_active_amount_range
+    ON public.doa_rules USING gist (entity, currency, amount_range)
+    INCLUDE (doa_rule_id, user_id, approval_level, vendor_code, classification)
+    WHERE is_active = true AND enabled = true;
+
+COMMENT ON COLUMN public.doa_rules.amount_range IS 'Inclusive amount range [min_amount, max_amount], generated';
+
+ANALYZE public.doa_rules;
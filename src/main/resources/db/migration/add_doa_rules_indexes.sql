@@ -0,0 +1,36 @@
+-- Add indexes for the doa_rules listing, filter and lookup paths
+-- 1. Sort-aligned indexes for the default listing order (created_at DESC), with doa_rule_id as tie-breaker
+-- 2. Functional indexes on upper(...) matching the case-insensitive filters in DoaRuleSpecification
+-- 3. Partial indexes for active rules, which almost every listing filters on
+--
+-- CREATE INDEX CONCURRENTLY does not block writes but cannot run inside a transaction block:
+-- run this script with autocommit (e.g. plain psql, without --single-transaction).
+
+-- Default listing of active rules: WHERE is_active ORDER BY created_at DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_doa_rules_active_created_at
+    ON public.doa_rules (created_at DESC, doa_rule_id DESC)
+    WHERE is_active = true;
+
+-- Listing without an is_active filter
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_doa_rules_created_at
+    ON public.doa_rules (created_at DESC, doa_rule_id DESC);
+
+-- Entity and currency filters: upper(entity) = ? [AND upper(currency) = ?] AND is_active
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_doa_rules_active_upper_entity_currency
+    ON public.doa_rules (upper(entity), upper(currency), created_at DESC)
+    WHERE is_active = true;
+
+-- Classification filter; most rules have no classification, so null rows are left out
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_doa_rules_active_upper_classification
+    ON public.doa_rules (upper(classification), created_at DESC)
+    WHERE is_active = true AND classification IS NOT NULL;
+
+-- Rules of one approver (user filter and findByUserId), in listing order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_doa_rules_user_id_created_at
+    ON public.doa_rules (user_id, created_at DESC);
+
+-- Exact entity lookups (findByEntity)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_doa_rules_entity
+    ON public.doa_rules (entity);
+
+ANALYZE public.doa_rules;
@@ -0,0 +1,11 @@
+-- Index for the amount range overlap check (DoaRuleRepository#findActiveRangesAtLevel), which matches
+-- entity and currency trimmed and case-insensitively, like the range validation scope
+--
+-- CREATE INDEX CONCURRENTLY does not block writes but cannot run inside a transaction block:
+-- run this script with autocommit (e.g. plain psql, without --single-transaction).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_doa_rules_active_range_scope
+    ON public.doa_rules (upper(trim(entity)), upper(trim(currency)), approval_level)
+    WHERE is_active = true AND enabled = true;
+
+ANALYZE public.doa_rules;
@@ -0,0 +1,24 @@
+-- Create the doa_rule_stats_mv materialized view behind GET /api/v1/doa-rules/stats
+-- One row per (entity, currency, approval level, enabled state) of the active rules. The application
+-- refreshes it with REFRESH MATERIALIZED VIEW CONCURRENTLY after rule writes, which needs the unique index
+-- below and does not block readers.
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS public.doa_rule_stats_mv AS
+SELECT d.entity,
+       d.currency,
+       d.approval_level,
+       coalesce(d.enabled, true)  AS enabled,
+       count(*)                   AS rule_count,
+       count(DISTINCT d.user_id)  AS approver_count,
+       min(d.min_amount)          AS min_amount,
+       max(d.max_amount)          AS max_amount,
+       now()                      AS refreshed_at
+FROM public.doa_rules d
+WHERE d.is_active = true
+GROUP BY d.entity, d.currency, d.approval_level, coalesce(d.enabled, true)
+WITH DATA;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_doa_rule_stats_mv_key
+    ON public.doa_rule_stats_mv (entity, currency, approval_level, enabled);
+
+COMMENT ON MATERIALIZED VIEW public.doa_rule_stats_mv IS 'Active DOA rule counts by entity, currency, approval level and enabled state';
@@ -0,0 +1,46 @@
+-- Create the append-only doa_rule_versions table
+-- Every create, update, toggle and delete of a DOA rule appends the rule's full state as a new version, valid
+-- from valid_from until the next version of the same rule. Rows are never updated or deleted.
+-- seq orders versions written in the same instant.
+
+CREATE TABLE IF NOT EXISTS public.doa_rule_versions (
+    version_id      UUID PRIMARY KEY,
+    seq             BIGINT GENERATED ALWAYS AS IDENTITY,
+    doa_rule_id     UUID NOT NULL,
+    valid_from      TIMESTAMP WITH TIME ZONE NOT NULL,
+    change_type     VARCHAR(20) NOT NULL,
+    user_id         UUID NOT NULL,
+    entity          VARCHAR(255) NOT NULL,
+    approval_level  INTEGER NOT NULL,
+    min_amount      NUMERIC(38, 2) NOT NULL,
+    max_amount      NUMERIC(38, 2) NOT NULL,
+    currency        VARCHAR(10) NOT NULL,
+    vendor_code     VARCHAR(255),
+    po_number       VARCHAR(255),
+    classification  VARCHAR(255),
+    enabled         BOOLEAN,
+    is_active       BOOLEAN
+);
+
+-- History of one rule
+CREATE INDEX IF NOT EXISTS idx_doa_rule_versions_rule_seq
+    ON public.doa_rule_versions (doa_rule_id, seq);
+
+-- Timeline load in valid_from order
+CREATE INDEX IF NOT EXISTS idx_doa_rule_versions_valid_from_seq
+    ON public.doa_rule_versions (valid_from, seq);
+
+-- Backfill: the current state of every rule without history becomes its first version.
+-- Earlier states were overwritten in place and cannot be recovered.
+INSERT INTO public.doa_rule_versions (version_id, doa_rule_id, valid_from, change_type, user_id, entity,
+                                      approval_level, min_amount, max_amount, currency, vendor_code, po_number,
+                                      classification, enabled, is_active)
+SELECT gen_random_uuid(), d.doa_rule_id, coalesce(d.updated_at, d.created_at, now()), 'BACKFILLED', d.user_id,
+       d.entity, d.approval_level, d.min_amount, d.max_amount, d.currency, d.vendor_code, d.po_number,
+       d.classification, d.enabled, d.is_active
+FROM public.doa_rules d
+WHERE NOT EXISTS (SELECT 1 FROM public.doa_rule_versions v WHERE v.doa_rule_id = d.doa_rule_id)
+ORDER BY coalesce(d.updated_at, d.created_at, now());
+
+COMMENT ON TABLE public.doa_rule_versions IS 'Append-only history of DOA rule states';
+COMMENT ON COLUMN public.doa_rule_versions.valid_from IS 'Time from which this state applied';
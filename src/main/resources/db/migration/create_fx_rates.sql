@@ -0,0 +1,13 @@
+-- Create the fx_rates table used for multi-currency DOA rule evaluation
+-- Each row holds the number of units of a currency per one unit of the base currency
+-- (app.doa.fx.base-currency, USD by default); the base currency itself has rate 1.
+
+CREATE TABLE IF NOT EXISTS public.fx_rates (
+    currency        VARCHAR(10) PRIMARY KEY,
+    units_per_base  NUMERIC(24, 10) NOT NULL,
+    updated_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    CONSTRAINT chk_fx_rates_positive CHECK (units_per_base > 0)
+);
+
+COMMENT ON TABLE public.fx_rates IS 'FX rates against the base currency for DOA rule amount normalization';
+COMMENT ON COLUMN public.fx_rates.units_per_base IS 'Units of this currency per one unit of the base currency';
@@ -0,0 +1,179 @@
+package com.sprintap.doarules.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static com.sprintap.doarules.engine.ColumnarRuleSnapshot.OUT_OF_RANGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarRuleSnapshotTest {
+
+    private final DoaBatchEvaluator evaluator = new DoaBatchEvaluator(2);
+
+    @AfterEach
+    void tearDown() {
+        evaluator.shutdown();
+    }
+
+    @Test
+    void scalingRoundsTowardsTheComparedBound() {
+        assertEquals(100, ColumnarRuleSnapshot.scaleFloor(new BigDecimal("1.005")));
+        assertEquals(101, ColumnarRuleSnapshot.scaleCeil(new BigDecimal("1.005")));
+        assertEquals(-101, ColumnarRuleSnapshot.scaleFloor(new BigDecimal("-1.005")));
+        assertEquals(-100, ColumnarRuleSnapshot.scaleCeil(new BigDecimal("-1.005")));
+        assertEquals(250, ColumnarRuleSnapshot.scaleFloor(new BigDecimal("2.5")));
+        assertEquals(250, ColumnarRuleSnapshot.scaleCeil(new BigDecimal("2.50")));
+    }
+
+    @Test
+    void amountsOutsideTheLongRangeAreReported() {
+        BigDecimal largest = BigDecimal.valueOf(Long.MAX_VALUE - 1, 2);
+
+        assertEquals(Long.MAX_VALUE - 1, ColumnarRuleSnapshot.scaleCeil(largest));
+        assertEquals(OUT_OF_RANGE, ColumnarRuleSnapshot.scaleCeil(largest.add(new BigDecimal("0.01"))));
+        assertEquals(OUT_OF_RANGE, ColumnarRuleSnapshot.scaleFloor(new BigDecimal("1e30")));
+        assertEquals(OUT_OF_RANGE, ColumnarRuleSnapshot.scaleFloor(new BigDecimal("-1e30")));
+    }
+
+    @Test
+    void clampedRuleBoundsStillMatchInRangeAmounts() {
+        IndexedRule unbounded = rule(1, "-1e30", "1e30", null, null);
+        ColumnarRuleSnapshot snapshot = ColumnarRuleSnapshot.of(DoaRuleIndex.build(List.of(unbounded)));
+
+        assertEquals(List.of(unbounded), find(snapshot, "90000000000000000.00", null, null));
+        assertEquals(List.of(unbounded), find(snapshot, "-90000000000000000.00", null, null));
+        assertEquals(List.of(unbounded), find(snapshot, "0", null, null));
+    }
+
+    @Test
+    void boundsAreInclusiveAfterScaling() {
+        IndexedRule rule = rule(1, "10.00", "20.00", null, null);
+        ColumnarRuleSnapshot snapshot = ColumnarRuleSnapshot.of(DoaRuleIndex.build(List.of(rule)));
+
+        assertEquals(List.of(rule), find(snapshot, "10.00", null, null));
+        assertEquals(List.of(rule), find(snapshot, "20.00", null, null));
+        assertEquals(List.of(), find(snapshot, "9.999", null, null));
+        assertEquals(List.of(), find(snapshot, "20.001", null, null));
+    }
+
+    @Test
+    void dictionaryCodesSeparateWildcardsFromUnknownValues() {
+        IndexedRule wildcard = rule(1, "0", "100", null, null);
+        IndexedRule vendorRule = rule(2, "0", "100", "V1", "CAPEX");
+        ColumnarRuleSnapshot snapshot = ColumnarRuleSnapshot.of(DoaRuleIndex.build(List.of(wildcard, vendorRule)));
+
+        assertEquals(ColumnarRuleSnapshot.UNKNOWN, snapshot.vendorCode(null));
+        assertEquals(ColumnarRuleSnapshot.UNKNOWN, snapshot.vendorCode(" "));
+        assertEquals(ColumnarRuleSnapshot.UNKNOWN, snapshot.vendorCode("V9"));
+        assertNotEquals(ColumnarRuleSnapshot.ANY, snapshot.vendorCode("V1"));
+        assertEquals(snapshot.vendorCode("V1"), snapshot.vendorCode(" v1 "));
+        assertEquals(-1, snapshot.partitionCode("OTHER", "USD"));
+
+        assertEquals(List.of(wildcard, vendorRule), find(snapshot, "50", "v1", "capex"));
+        assertEquals(List.of(wildcard), find(snapshot, "50", "V1", null));
+        assertEquals(List.of(wildcard), find(snapshot, "50", "V9", "CAPEX"));
+    }
+
+    @Test
+    void randomLookupsMatchRuleIndex() {
+        Random random = new Random(11);
+        List<IndexedRule> rules = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            BigDecimal min = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            BigDecimal max = min.add(BigDecimal.valueOf(random.nextInt(500_000), 2));
+            rules.add(new IndexedRule(UUID.randomUUID(), UUID.randomUUID(), 1 + random.nextInt(4), min, max,
+                    PartitionKey.of("E" + random.nextInt(3), random.nextBoolean() ? "USD" : "EUR"),
+                    random.nextInt(3) == 0 ? "V" + random.nextInt(3) : null,
+                    random.nextInt(3) == 0 ? "C" + random.nextInt(2) : null));
+        }
+        DoaRuleIndex index = DoaRuleIndex.build(rules);
+        ColumnarRuleSnapshot snapshot = ColumnarRuleSnapshot.of(index);
+
+        List<InvoiceAttributes> invoices = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Three decimals, so amounts fall between the scaled rule bounds
+            invoices.add(new InvoiceAttributes("E" + random.nextInt(4), random.nextBoolean() ? "usd" : "EUR",
+                    BigDecimal.valueOf(random.nextInt(16_000_000), 3), "V" + random.nextInt(4),
+                    random.nextBoolean() ? "C" + random.nextInt(3) : null, false));
+        }
+
+        List<List<IndexedRule>> results = evaluator.evaluate(snapshot, new FxNormalizedIndex(index,
+                FxRateTable.empty("USD")), invoices);
+
+        assertEquals(invoices.size(), results.size());
+        for (int i = 0; i < invoices.size(); i++) {
+            InvoiceAttributes invoice = invoices.get(i);
+            assertEquals(index.resolve(invoice.entity(), invoice.currency(), invoice.amount(), invoice.vendorCode(),
+                    invoice.classification()), results.get(i), "invoice " + i);
+        }
+    }
+
+    @Test
+    void outOfRangeAmountsFallBackToRuleIndex() {
+        IndexedRule huge = rule(1, "1e20", "1e30", null, null);
+        IndexedRule small = rule(2, "0", "100", null, null);
+        DoaRuleIndex index = DoaRuleIndex.build(List.of(huge, small));
+        ColumnarRuleSnapshot snapshot = ColumnarRuleSnapshot.of(index);
+
+        List<InvoiceAttributes> invoices = List.of(
+                invoice("5e25"),
+                invoice("50"),
+                invoice("1e31"));
+        List<List<IndexedRule>> results = evaluator.evaluate(snapshot,
+                new FxNormalizedIndex(index, FxRateTable.empty("USD")), invoices);
+
+        assertEquals(List.of(List.of(huge), List.of(small), List.of()), results);
+    }
+
+    @Test
+    void normalizedInvoicesUseConvertedThresholds() {
+        IndexedRule euroRule = new IndexedRule(UUID.randomUUID(), UUID.randomUUID(), 1, BigDecimal.ZERO,
+                new BigDecimal("100"), PartitionKey.of("E", "EUR"), null, null);
+        DoaRuleIndex index = DoaRuleIndex.build(List.of(euroRule));
+        FxRateTable rates = FxRateTable.of("USD", Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("0.5")), null);
+
+        List<List<IndexedRule>> results = evaluator.evaluate(ColumnarRuleSnapshot.of(index),
+                new FxNormalizedIndex(index, rates), List.of(
+                        new InvoiceAttributes("E", "USD", new BigDecimal("150"), null, null, true),
+                        new InvoiceAttributes("E", "USD", new BigDecimal("150"), null, null, false)));
+
+        // Thresholds are returned in the invoice currency: 100 EUR at 0.5 EUR per USD
+        assertEquals(List.of(euroRule.id()), results.get(0).stream().map(IndexedRule::id).toList());
+        assertEquals(0, new BigDecimal("200").compareTo(results.get(0).get(0).maxAmount()));
+        assertTrue(results.get(1).isEmpty());
+    }
+
+    @Test
+    void emptyBatchReturnsEmptyList() {
+        DoaRuleIndex index = DoaRuleIndex.empty();
+
+        assertEquals(List.of(), evaluator.evaluate(ColumnarRuleSnapshot.of(index),
+                new FxNormalizedIndex(index, FxRateTable.empty("USD")), List.of()));
+    }
+
+    private static IndexedRule rule(int level, String min, String max, String vendor, String classification) {
+        return new IndexedRule(UUID.randomUUID(), UUID.randomUUID(), level, new BigDecimal(min), new BigDecimal(max),
+                PartitionKey.of("E", "USD"), vendor, classification);
+    }
+
+    private static InvoiceAttributes invoice(String amount) {
+        return new InvoiceAttributes("E", "USD", new BigDecimal(amount), null, null, false);
+    }
+
+    private static List<IndexedRule> find(ColumnarRuleSnapshot snapshot, String amount, String vendor,
+                                          String classification) {
+        BigDecimal value = new BigDecimal(amount);
+        return snapshot.find(snapshot.partitionCode("E", "USD"), ColumnarRuleSnapshot.scaleFloor(value),
+                ColumnarRuleSnapshot.scaleCeil(value), snapshot.vendorCode(vendor),
+                snapshot.classificationCode(classification));
+    }
+}
@@ -0,0 +1,136 @@
+package com.sprintap.doarules.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DoaRuleIndexTest {
+
+    @Test
+    void rangeBoundsAreInclusive() {
+        IndexedRule rule = rule(1, "0", "1000.00", null, null);
+        DoaRuleIndex index = DoaRuleIndex.build(List.of(rule));
+
+        assertEquals(List.of(rule), resolve(index, "0", null, null));
+        assertEquals(List.of(rule), resolve(index, "1000.00", null, null));
+        assertEquals(List.of(), resolve(index, "1000.01", null, null));
+        assertEquals(List.of(), resolve(index, "-0.01", null, null));
+    }
+
+    @Test
+    void adjacentRangesMeetAtTheBoundary() {
+        IndexedRule low = rule(1, "0", "1000", null, null);
+        IndexedRule high = rule(2, "1000", "5000", null, null);
+        DoaRuleIndex index = DoaRuleIndex.build(List.of(high, low));
+
+        assertEquals(List.of(low, high), resolve(index, "1000", null, null));
+        assertEquals(List.of(high), resolve(index, "1000.01", null, null));
+    }
+
+    @Test
+    void wildcardRulesMatchAnyVendorAndClassification() {
+        IndexedRule wildcard = rule(1, "0", "1000", null, null);
+        IndexedRule vendorOnly = rule(2, "0", "1000", "V1", null);
+        IndexedRule classified = rule(3, "0", "1000", "V1", "CAPEX");
+        DoaRuleIndex index = DoaRuleIndex.build(List.of(wildcard, vendorOnly, classified));
+
+        assertEquals(List.of(wildcard, vendorOnly, classified), resolve(index, "500", "V1", "CAPEX"));
+        assertEquals(List.of(wildcard, vendorOnly), resolve(index, "500", "V1", "OPEX"));
+        assertEquals(List.of(wildcard), resolve(index, "500", "V2", "CAPEX"));
+        assertEquals(List.of(wildcard), resolve(index, "500", null, null));
+    }
+
+    @Test
+    void matchFieldsAreNormalized() {
+        IndexedRule rule = new IndexedRule(UUID.randomUUID(), UUID.randomUUID(), 1, BigDecimal.ZERO,
+                BigDecimal.TEN, PartitionKey.of(" acme ", "usd"), IndexedRule.normalizeOptional(" v1 "), null);
+        DoaRuleIndex index = DoaRuleIndex.build(List.of(rule));
+
+        assertEquals(List.of(rule), index.resolve("ACME", " USD ", BigDecimal.ONE, "V1", null));
+        assertEquals(List.of(), index.resolve("ACME", "EUR", BigDecimal.ONE, "V1", null));
+    }
+
+    @Test
+    void prefixMaxFindsLongRangeBehindShorterOnes() {
+        // The wide rule starts first; the walk must not stop at the narrow rules that end below the amount
+        IndexedRule wide = rule(1, "0", "100000", null, null);
+        List<IndexedRule> rules = new ArrayList<>(List.of(wide));
+        for (int i = 1; i <= 50; i++) {
+            rules.add(rule(2, String.valueOf(i * 10), String.valueOf(i * 10 + 5), null, null));
+        }
+        DoaRuleIndex index = DoaRuleIndex.build(rules);
+
+        assertEquals(List.of(wide), resolve(index, "99999", null, null));
+        assertEquals(2, resolve(index, "253", null, null).size());
+        assertEquals(List.of(wide), resolve(index, "257", null, null));
+    }
+
+    @Test
+    void resultsAreOrderedByApprovalLevel() {
+        IndexedRule level3 = rule(3, "0", "1000", null, null);
+        IndexedRule level1 = rule(1, "500", "1000", null, null);
+        IndexedRule level2 = rule(2, "100", "1000", null, null);
+        DoaRuleIndex index = DoaRuleIndex.build(List.of(level3, level1, level2));
+
+        assertEquals(List.of(level1, level2, level3), resolve(index, "600", null, null));
+    }
+
+    @Test
+    void changesReplaceAndRemoveRules() {
+        IndexedRule rule = rule(1, "0", "1000", null, null);
+        IndexedRule other = rule(2, "0", "1000", null, null);
+        DoaRuleIndex index = DoaRuleIndex.build(List.of(rule, other));
+
+        IndexedRule moved = new IndexedRule(rule.id(), rule.userId(), 1, new BigDecimal("2000"),
+                new BigDecimal("3000"), rule.partition(), null, null);
+        DoaRuleIndex changed = index.withRule(moved);
+
+        assertEquals(List.of(other), resolve(changed, "500", null, null));
+        assertEquals(List.of(moved), resolve(changed, "2500", null, null));
+        assertEquals(List.of(), resolve(changed.withoutRule(rule.id()), "2500", null, null));
+        assertEquals(List.of(rule, other), resolve(index, "500", null, null));
+    }
+
+    @Test
+    void randomLookupsMatchLinearScan() {
+        Random random = new Random(7);
+        List<IndexedRule> rules = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int min = random.nextInt(10_000);
+            int max = min + random.nextInt(5_000);
+            String vendor = random.nextInt(3) == 0 ? "V" + random.nextInt(3) : null;
+            String classification = random.nextInt(3) == 0 ? "C" + random.nextInt(2) : null;
+            rules.add(rule(1 + random.nextInt(4), String.valueOf(min), String.valueOf(max), vendor, classification));
+        }
+        DoaRuleIndex index = DoaRuleIndex.build(rules);
+
+        for (int i = 0; i < 2_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(16_000_00), 2);
+            String vendor = "V" + random.nextInt(4);
+            String classification = "C" + random.nextInt(3);
+            List<IndexedRule> expected = rules.stream()
+                    .filter(rule -> rule.minAmount().compareTo(amount) <= 0 && rule.maxAmount().compareTo(amount) >= 0)
+                    .filter(rule -> rule.matches(vendor, classification))
+                    .sorted(DoaRuleIndex.BY_LEVEL)
+                    .toList();
+
+            assertEquals(expected, index.resolve("E", "USD", amount, vendor, classification), "amount " + amount);
+        }
+    }
+
+    private static IndexedRule rule(int level, String min, String max, String vendor, String classification) {
+        return new IndexedRule(UUID.randomUUID(), UUID.randomUUID(), level, new BigDecimal(min), new BigDecimal(max),
+                PartitionKey.of("E", "USD"), vendor, classification);
+    }
+
+    private static List<IndexedRule> resolve(DoaRuleIndex index, String amount, String vendor,
+                                             String classification) {
+        return index.resolve("E", "USD", new BigDecimal(amount), vendor, classification);
+    }
+}
@@ -0,0 +1,209 @@
+package com.sprintap.doarules.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.sprintap.doarules.engine.DoaRuleTimeline.CHECKPOINT_INTERVAL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DoaRuleTimelineTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final List<UUID> ruleIds = new ArrayList<>();
+
+    @Test
+    void indexAtCheckpointBoundaries() {
+        List<RuleVersion> versions = new ArrayList<>();
+        for (int i = 0; i < 3 * CHECKPOINT_INTERVAL + 10; i++) {
+            versions.add(version(i % 40, i, i % 7 != 0));
+        }
+        DoaRuleTimeline timeline = DoaRuleTimeline.build(versions);
+
+        assertEquals(versions.size(), timeline.size());
+        for (int boundary = CHECKPOINT_INTERVAL; boundary < versions.size(); boundary += CHECKPOINT_INTERVAL) {
+            for (int second = boundary - 2; second <= boundary + 1; second++) {
+                assertMatches(versions, timeline, at(second));
+            }
+        }
+        assertEquals(0, timeline.indexAt(at(-1)).size());
+        assertMatches(versions, timeline, at(versions.size() + 5));
+    }
+
+    @Test
+    void sameInstantKeepsGivenOrder() {
+        RuleVersion created = version(0, 10, true);
+        RuleVersion deleted = new RuleVersion(created.ruleId(), created.validFrom(), null);
+        DoaRuleTimeline timeline = DoaRuleTimeline.build(List.of(created, deleted));
+
+        assertEquals(0, timeline.indexAt(at(10)).size());
+    }
+
+    @Test
+    void appendsInOrderMatchFullBuild() {
+        List<RuleVersion> versions = new ArrayList<>();
+        DoaRuleTimeline timeline = DoaRuleTimeline.build(List.of());
+        for (int i = 0; i < 2 * CHECKPOINT_INTERVAL + 3; i++) {
+            RuleVersion version = version(i % 25, i, i % 5 != 0);
+            versions.add(version);
+            timeline = timeline.withVersions(List.of(version));
+        }
+
+        assertEquals(versions.size(), timeline.size());
+        for (int second = -1; second <= versions.size(); second += 17) {
+            assertMatches(versions, timeline, at(second));
+        }
+        assertMatches(versions, timeline, at(CHECKPOINT_INTERVAL));
+    }
+
+    @Test
+    void outOfOrderAppendIsPlacedByValidFrom() {
+        List<RuleVersion> versions = new ArrayList<>();
+        for (int i = 0; i < 2 * CHECKPOINT_INTERVAL; i++) {
+            versions.add(version(i % 30, 2 * i, true));
+        }
+        DoaRuleTimeline timeline = DoaRuleTimeline.build(versions);
+
+        // Committed late: valid from the middle of the first segment, removes rule 3
+        RuleVersion late = new RuleVersion(ruleIds.get(3), at(101), null);
+        versions.add(late);
+        timeline = timeline.withVersions(List.of(late));
+
+        assertEquals(versions.size(), timeline.size());
+        assertTrue(timeline.indexAt(at(100)).rules().stream().anyMatch(rule -> rule.id().equals(ruleIds.get(3))));
+        assertFalse(timeline.indexAt(at(101)).rules().stream().anyMatch(rule -> rule.id().equals(ruleIds.get(3))));
+        for (int second = 0; second < 4 * CHECKPOINT_INTERVAL; second += 13) {
+            assertMatches(versions, timeline, at(second));
+        }
+    }
+
+    @Test
+    void randomAppendsMatchModel() {
+        Random random = new Random(42);
+        List<RuleVersion> versions = new ArrayList<>();
+        DoaRuleTimeline timeline = DoaRuleTimeline.build(List.of());
+        for (int batch = 0; batch < 200; batch++) {
+            List<RuleVersion> added = new ArrayList<>();
+            for (int i = random.nextInt(1, 6); i > 0; i--) {
+                // Mostly increasing, sometimes late by up to 50 seconds
+                int second = batch * 5 - (random.nextInt(10) == 0 ? random.nextInt(50) : 0);
+                added.add(version(random.nextInt(60), second, random.nextInt(4) != 0));
+            }
+            versions.addAll(added);
+            timeline = timeline.withVersions(added);
+        }
+
+        assertEquals(versions.size(), timeline.size());
+        for (int second = -60; second <= 1010; second += 3) {
+            assertMatches(versions, timeline, at(second));
+        }
+    }
+
+    @Test
+    void retentionDropsOldSegmentsAndKeepsLaterAnswers() {
+        List<RuleVersion> versions = new ArrayList<>();
+        for (int i = 0; i < 4 * CHECKPOINT_INTERVAL + 7; i++) {
+            versions.add(version(i % 50, i, i % 3 != 0));
+        }
+        DoaRuleTimeline full = DoaRuleTimeline.build(versions);
+
+        DoaRuleTimeline retained = full.withRetention(at(2 * CHECKPOINT_INTERVAL + 5));
+
+        assertEquals(2 * CHECKPOINT_INTERVAL + 7, retained.size());
+        assertEquals(at(2 * CHECKPOINT_INTERVAL - 1), retained.coveredFrom());
+        assertFalse(retained.covers(at(2 * CHECKPOINT_INTERVAL - 2)));
+        assertThrows(IllegalArgumentException.class, () -> retained.indexAt(at(0)));
+        for (int second = 2 * CHECKPOINT_INTERVAL - 1; second <= versions.size(); second += 5) {
+            assertMatches(versions, retained, at(second));
+        }
+        assertSame(full, full.withRetention(at(0)));
+    }
+
+    @Test
+    void retentionKeepsLastSegment() {
+        List<RuleVersion> versions = new ArrayList<>();
+        for (int i = 0; i < CHECKPOINT_INTERVAL; i++) {
+            versions.add(version(i % 10, i, true));
+        }
+        DoaRuleTimeline timeline = DoaRuleTimeline.build(versions);
+
+        DoaRuleTimeline retained = timeline.withRetention(at(10_000));
+
+        assertEquals(versions.size(), retained.size());
+        assertMatches(versions, retained, at(10_000));
+    }
+
+    @Test
+    void appendOlderThanRetainedRangeIsRejected() {
+        List<RuleVersion> versions = new ArrayList<>();
+        for (int i = 0; i < 3 * CHECKPOINT_INTERVAL; i++) {
+            versions.add(version(i % 20, 10 + i, true));
+        }
+        DoaRuleTimeline retained = DoaRuleTimeline.build(versions).withRetention(at(10 + 2 * CHECKPOINT_INTERVAL));
+        RuleVersion late = version(99, 0, true);
+
+        assertThrows(IllegalArgumentException.class, () -> retained.withVersions(List.of(late)));
+    }
+
+    @Test
+    void buildFromBaseServesTimesFromCoveredFrom() {
+        RuleVersion before = version(0, 0, true);
+        RuleVersion after = version(1, 20, true);
+        DoaRuleIndex base = DoaRuleIndex.build(List.of(before.state()));
+
+        DoaRuleTimeline timeline = DoaRuleTimeline.build(base, at(10), List.of(after));
+
+        assertFalse(timeline.covers(at(9)));
+        assertEquals(1, timeline.indexAt(at(10)).size());
+        assertEquals(2, timeline.indexAt(at(20)).size());
+    }
+
+    private RuleVersion version(int rule, int second, boolean active) {
+        while (ruleIds.size() <= rule) {
+            ruleIds.add(UUID.randomUUID());
+        }
+        UUID id = ruleIds.get(rule);
+        IndexedRule state = active
+                ? new IndexedRule(id, UUID.randomUUID(), 1 + second % 3, BigDecimal.valueOf(second),
+                BigDecimal.valueOf(second + 1000), PartitionKey.of("E" + rule % 3, "USD"), null, null)
+                : null;
+        return new RuleVersion(id, at(second), state);
+    }
+
+    private static Instant at(int second) {
+        return T0.plusSeconds(second);
+    }
+
+    /**
+     * Compares the timeline with a direct replay: the last version of each rule valid at or before the time
+     */
+    private static void assertMatches(List<RuleVersion> versions, DoaRuleTimeline timeline, Instant asOf) {
+        List<RuleVersion> sorted = new ArrayList<>(versions);
+        sorted.sort(Comparator.comparing(RuleVersion::validFrom));
+        Map<UUID, IndexedRule> states = new LinkedHashMap<>();
+        for (RuleVersion version : sorted) {
+            if (!version.validFrom().isAfter(asOf)) {
+                states.put(version.ruleId(), version.state());
+            }
+        }
+        Set<IndexedRule> expected = new HashSet<>();
+        states.values().stream().filter(state -> state != null).forEach(expected::add);
+
+        assertEquals(expected, new HashSet<>(timeline.indexAt(asOf).rules()), "as of " + asOf);
+    }
+}
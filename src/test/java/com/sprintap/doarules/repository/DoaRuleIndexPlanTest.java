@@ -0,0 +1,245 @@
+package com.sprintap.doarules.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the doa_rules listing, filter and amount range queries are served by the indexes in
+ * {@code db/migration/add_doa_rules_indexes.sql}, {@code db/migration/add_doa_rules_amount_range.sql} and
+ * {@code db/migration/add_doa_rules_range_scope_index.sql}.
+ * <p>
+ * Runs against a disposable embedded PostgreSQL started for the test, or against the database at
+ * {@code DOA_PLAN_TEST_JDBC_URL} if set (user and password from {@code DOA_PLAN_TEST_USER} /
+ * {@code DOA_PLAN_TEST_PASSWORD}), e.g. to check plans on the production PostgreSQL version. The test creates
+ * its own schema, loads a representative dataset, applies the migrations to it and drops it afterwards.
+ * The queries mirror the SQL Hibernate generates for {@link DoaRuleSpecification#withFilters}.
+ * </p>
+ */
+class DoaRuleIndexPlanTest {
+
+    private static final String SCHEMA = "doa_plan_test";
+
+    private static EmbeddedPostgres embeddedPostgres;
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        String jdbcUrl = System.getenv("DOA_PLAN_TEST_JDBC_URL");
+        if (jdbcUrl == null || jdbcUrl.isBlank()) {
+            embeddedPostgres = EmbeddedPostgres.start();
+            connection = embeddedPostgres.getPostgresDatabase().getConnection();
+        } else {
+            connection = DriverManager.getConnection(jdbcUrl,
+                    System.getenv("DOA_PLAN_TEST_USER"), System.getenv("DOA_PLAN_TEST_PASSWORD"));
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("""
+                    CREATE TABLE %s.doa_rules (
+                        doa_rule_id        UUID PRIMARY KEY,
+                        user_id            UUID NOT NULL,
+                        entity             VARCHAR(255) NOT NULL,
+                        approval_level     INTEGER NOT NULL,
+                        min_amount         NUMERIC(38, 2) NOT NULL,
+                        max_amount         NUMERIC(38, 2) NOT NULL,
+                        currency           VARCHAR(10) NOT NULL,
+                        vendor_code        VARCHAR(255),
+                        po_number          VARCHAR(255),
+                        classification     VARCHAR(255),
+                        enabled            BOOLEAN,
+                        is_active          BOOLEAN,
+                        created_at         TIMESTAMP WITH TIME ZONE,
+                        updated_at         TIMESTAMP WITH TIME ZONE,
+                        created_by_user_id UUID NOT NULL
+                    )""".formatted(SCHEMA));
+
+            // 200k rules: 50 entities x 5 currencies, 2000 approvers, 10% inactive, 1 in 5 classified
+            statement.execute("""
+                    INSERT INTO %s.doa_rules
+                    SELECT md5('rule' || i)::uuid,
+                           md5('user' || (i %% 2000))::uuid,
+                           'Entity ' || (i %% 50),
+                           1 + i %% 4,
+                           (i %% 100) * 1000,
+                           (i %% 100) * 1000 + 999.99,
+                           (ARRAY['USD', 'EUR', 'GBP', 'INR', 'JPY'])[1 + i %% 5],
+                           CASE WHEN i %% 3 = 0 THEN 'V' || (i %% 500) END,
+                           NULL,
+                           CASE WHEN i %% 5 = 0 THEN 'Class ' || (i %% 20) END,
+                           i %% 7 <> 0,
+                           i %% 10 <> 0,
+                           now() - (i || ' minutes')::interval,
+                           now(),
+                           md5('creator')::uuid
+                    FROM generate_series(1, 200000) AS i""".formatted(SCHEMA));
+
+            applyMigration(statement, "add_doa_rules_indexes.sql");
+            applyMigration(statement, "add_doa_rules_amount_range.sql");
+            applyMigration(statement, "add_doa_rules_range_scope_index.sql");
+
+            // Index-only scans need an up-to-date visibility map
+            statement.execute("VACUUM ANALYZE " + SCHEMA + ".doa_rules");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException, IOException {
+        if (connection != null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            }
+            connection.close();
+        }
+        if (embeddedPostgres != null) {
+            embeddedPostgres.close();
+        }
+    }
+
+    @Test
+    void activeListingUsesSortAlignedIndex() throws SQLException {
+        String plan = explain("""
+                SELECT * FROM %s.doa_rules d
+                WHERE d.is_active = true
+                ORDER BY d.created_at DESC
+                LIMIT 10""");
+
+        assertUsesIndex(plan, "idx_doa_rules_active_created_at");
+    }
+
+    @Test
+    void unfilteredListingUsesSortAlignedIndex() throws SQLException {
+        String plan = explain("""
+                SELECT * FROM %s.doa_rules d
+                ORDER BY d.created_at DESC
+                LIMIT 10""");
+
+        assertUsesIndex(plan, "idx_doa_rules_created_at");
+    }
+
+    @Test
+    void entityAndCurrencyFilterUsesFunctionalIndex() throws SQLException {
+        String plan = explain("""
+                SELECT * FROM %s.doa_rules d
+                WHERE upper(d.entity) = 'ENTITY 7' AND upper(d.currency) = 'EUR' AND d.is_active = true
+                ORDER BY d.created_at DESC
+                LIMIT 10""");
+
+        assertUsesIndex(plan, "idx_doa_rules_active_upper_entity_currency");
+    }
+
+    @Test
+    void entityFilterCountUsesFunctionalIndex() throws SQLException {
+        String plan = explain("""
+                SELECT count(d.doa_rule_id) FROM %s.doa_rules d
+                WHERE upper(d.entity) = 'ENTITY 7' AND d.is_active = true""");
+
+        assertUsesIndex(plan, "idx_doa_rules_active_upper_entity_currency");
+    }
+
+    @Test
+    void classificationFilterAvoidsSequentialScan() throws SQLException {
+        String plan = explain("""
+                SELECT * FROM %s.doa_rules d
+                WHERE upper(d.classification) = 'CLASS 5' AND d.is_active = true
+                ORDER BY d.created_at DESC
+                LIMIT 10""");
+
+        assertNoSequentialScan(plan);
+    }
+
+    @Test
+    void userFilterUsesUserIndex() throws SQLException {
+        String plan = explain("""
+                SELECT * FROM %s.doa_rules d
+                WHERE d.user_id = md5('user42')::uuid
+                ORDER BY d.created_at DESC
+                LIMIT 10""");
+
+        assertUsesIndex(plan, "idx_doa_rules_user_id_created_at");
+    }
+
+    @Test
+    void coveringRulesLookupUsesIndexOnlyScan() throws SQLException {
+        // Same query as DoaRuleRepository#findCoveringRules
+        String plan = explain("""
+                SELECT d.doa_rule_id, d.user_id, d.approval_level, d.vendor_code, d.classification,
+                       lower(d.amount_range), upper(d.amount_range)
+                FROM %s.doa_rules d
+                WHERE d.entity = 'Entity 7' AND d.currency = 'GBP'
+                  AND d.amount_range @> CAST(7500.50 AS numeric)
+                  AND d.is_active = true AND d.enabled = true
+                ORDER BY d.approval_level, d.doa_rule_id""");
+
+        assertUsesIndex(plan, "idx_doa_rules_active_amount_range");
+        assertTrue(plan.contains("Index Only Scan"), () -> "Expected an index-only scan in plan:\n" + plan);
+    }
+
+    @Test
+    void rangeScopeLookupUsesScopeIndex() throws SQLException {
+        // Same filter as DoaRuleRepository#findActiveRangesAtLevel
+        String plan = explain("""
+                SELECT d.doa_rule_id, d.min_amount, d.max_amount FROM %s.doa_rules d
+                WHERE d.is_active = true AND d.enabled = true
+                  AND upper(trim(d.entity)) = upper(trim(' entity 7 ')) AND upper(trim(d.currency)) = upper(trim('gbp'))
+                  AND d.approval_level = 4""");
+
+        assertUsesIndex(plan, "idx_doa_rules_active_range_scope");
+    }
+
+    private static String explain(String query) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + query.formatted(SCHEMA))) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static void assertUsesIndex(String plan, String indexName) {
+        assertTrue(plan.contains(indexName), () -> "Expected " + indexName + " in plan:\n" + plan);
+        assertNoSequentialScan(plan);
+    }
+
+    private static void assertNoSequentialScan(String plan) {
+        assertFalse(plan.contains("Seq Scan"), () -> "Unexpected sequential scan in plan:\n" + plan);
+    }
+
+    /**
+     * Applies a migration to the test schema one statement at a time:
+     * CREATE INDEX CONCURRENTLY cannot run in a multi-statement block
+     */
+    private static void applyMigration(Statement statement, String name) throws IOException, SQLException {
+        String migration = readMigration(name).replace("public.doa_rules", SCHEMA + ".doa_rules")
+                .replaceAll("(?m)^--.*$", "");
+        for (String sql : migration.split(";")) {
+            if (!sql.isBlank()) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static String readMigration(String name) throws IOException {
+        try (InputStream in = DoaRuleIndexPlanTest.class.getResourceAsStream("/db/migration/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
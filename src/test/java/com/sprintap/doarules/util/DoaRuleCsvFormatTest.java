@@ -0,0 +1,73 @@
+package com.sprintap.doarules.util;
+
+import com.sprintap.doarules.dto.DoaRuleExportRow;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DoaRuleCsvFormatTest {
+
+    private static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void writesEveryColumnInHeaderOrder() {
+        DoaRuleExportRow row = DoaRuleExportRow.builder()
+                .id(ID)
+                .userId(ID)
+                .userName("Jane Doe")
+                .emailId("jane@example.com")
+                .entity("ACME")
+                .currency("USD")
+                .approvalLevel(2)
+                .minAmount(new BigDecimal("0.00"))
+                .maxAmount(new BigDecimal("1E+4"))
+                .vendorCode("V1")
+                .poNumber("PO-1")
+                .classification("CAPEX")
+                .isActive(true)
+                .enabled(false)
+                .createdAt(Instant.parse("2026-03-04T05:06:07.891Z"))
+                .createdByUserId(ID)
+                .build();
+
+        assertEquals(ID + "," + ID + ",Jane Doe,jane@example.com,ACME,USD,2,0.00,10000,V1,PO-1,CAPEX,true,false,"
+                + "2026-03-04T05:06:07Z,," + ID, DoaRuleCsvFormat.toLine(row));
+        assertEquals(DoaRuleCsvFormat.HEADER.split(",").length, DoaRuleCsvFormat.toLine(row).split(",", -1).length);
+    }
+
+    @Test
+    void quotesSeparatorsQuotesAndLineBreaks() {
+        DoaRuleExportRow row = DoaRuleExportRow.builder()
+                .userName("Doe, Jane")
+                .vendorCode("say \"hi\"")
+                .classification("line\nbreak")
+                .build();
+
+        String line = DoaRuleCsvFormat.toLine(row);
+
+        assertEquals(",,\"Doe, Jane\",,,,,,,\"say \"\"hi\"\"\",,\"line\nbreak\",,,,,", line);
+    }
+
+    @Test
+    void writesFormulaLikeTextAsText() {
+        DoaRuleExportRow row = DoaRuleExportRow.builder()
+                .userName("=HYPERLINK(\"http://x\",\"click\")")
+                .emailId("@SUM(A1)")
+                .entity("+1")
+                .currency("-1")
+                .vendorCode("\tV1")
+                .poNumber("\rPO")
+                .classification("CAP=EX")
+                .minAmount(new BigDecimal("-5"))
+                .build();
+
+        String line = DoaRuleCsvFormat.toLine(row);
+
+        assertEquals(",,\"'=HYPERLINK(\"\"http://x\"\",\"\"click\"\")\",\"'@SUM(A1)\",\"'+1\",\"'-1\",,-5,,"
+                + "\"'\tV1\",\"'\rPO\",CAP=EX,,,,,", line);
+    }
+}
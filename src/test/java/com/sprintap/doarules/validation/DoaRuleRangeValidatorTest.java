@@ -0,0 +1,207 @@
+package com.sprintap.doarules.validation;
+
+import com.sprintap.doarules.dto.DoaRuleRangeIssue;
+import com.sprintap.doarules.exception.DoaRuleConflictException;
+import com.sprintap.doarules.repository.DoaRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DoaRuleRangeValidatorTest {
+
+    private final Map<UUID, String> names = new HashMap<>();
+    private final DoaRuleRepository repository = mock(DoaRuleRepository.class);
+
+    private DoaRuleRangeValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new DoaRuleRangeValidator(repository);
+        ReflectionTestUtils.setField(validator, "rejectOverlaps", true);
+    }
+
+    @Test
+    void auditReportsPartialOverlap() {
+        Set<String> issues = audit(
+                range("a", "0", "100"),
+                range("b", "50", "150"));
+
+        assertEquals(Set.of("OVERLAP a/b 50-100"), issues);
+    }
+
+    @Test
+    void auditReportsNestedRangeAgainstEveryOpenRange() {
+        Set<String> issues = audit(
+                range("a", "0", "1000"),
+                range("b", "100", "200"),
+                range("c", "150", "300"),
+                range("d", "250", "260"));
+
+        assertEquals(Set.of(
+                "OVERLAP a/b 100-200",
+                "OVERLAP a/c 150-300",
+                "OVERLAP b/c 150-200",
+                "OVERLAP a/d 250-260",
+                "OVERLAP c/d 250-260"), issues);
+    }
+
+    @Test
+    void auditReportsGapAfterCurrentMaxEnd() {
+        Set<String> issues = audit(
+                range("a", "0", "100"),
+                range("b", "100.01", "200"),
+                range("c", "300", "400"));
+
+        assertEquals(Set.of("GAP b/c 200.01-299.99"), issues);
+    }
+
+    @Test
+    void auditMeasuresGapFromLongRangeAlreadyClosed() {
+        // b closes after a; the gap to c starts after a, the range reaching furthest, not after b
+        Set<String> issues = audit(
+                range("a", "0", "1000"),
+                range("b", "10", "20"),
+                range("c", "30", "40"),
+                range("d", "1500", "2000"));
+
+        assertEquals(Set.of(
+                "OVERLAP a/b 10-20",
+                "OVERLAP a/c 30-40",
+                "GAP a/d 1000.01-1499.99"), issues);
+    }
+
+    @Test
+    void auditExemptsIdenticalRanges() {
+        Set<String> issues = audit(
+                range("a", "0", "100"),
+                range("b", "0", "100"),
+                range("c", "50", "200"));
+
+        assertEquals(Set.of("OVERLAP a/c 50-100", "OVERLAP b/c 50-100"), issues);
+    }
+
+    @Test
+    void auditResetsSweepWhenScopeChanges() {
+        // A scope starting above the previous scope's ranges is neither a gap nor an overlap
+        Set<String> issues = audit(
+                range("a", "0", "1000", "E", "EUR", null, null),
+                range("b", "2000", "3000", "E", "USD", null, null),
+                range("c", "2500", "2600", "E", "USD", null, null));
+
+        assertEquals(Set.of("OVERLAP b/c 2500-2600"), issues);
+    }
+
+    @Test
+    void auditKeepsVendorAndClassificationScopesApart() {
+        Set<String> issues = audit(
+                range("general", "0", "1000", "E", "USD", null, null),
+                range("classified", "500", "600", "E", "USD", null, "CAPEX"),
+                range("vendor", "500", "600", "E", "USD", "V1", null));
+
+        assertEquals(Set.of(), issues);
+    }
+
+    @Test
+    void batchReplacesStoredVersionOfSameRule() {
+        RuleRange stored = range("a", "0", "100");
+        storedRanges(stored);
+        DoaRuleRangeValidator.Batch batch = validator.newBatch();
+
+        RuleRange moved = new RuleRange(stored.id(), "E", "USD", 1, null, null,
+                new BigDecimal("50"), new BigDecimal("500"));
+        assertEquals(Optional.empty(), batch.check(moved));
+
+        // The stored range is gone, the moved one is checked instead
+        assertEquals(Optional.empty(), batch.check(range("b", "0", "49.99")));
+        Optional<String> conflict = batch.check(range("c", "400", "600"));
+        assertTrue(conflict.isPresent());
+        assertTrue(conflict.get().contains(stored.id().toString()), conflict.get());
+    }
+
+    @Test
+    void batchRejectsRowConflictingWithEarlierRow() {
+        storedRanges();
+        DoaRuleRangeValidator.Batch batch = validator.newBatch();
+        RuleRange first = range("a", "0", "100");
+
+        assertEquals(Optional.empty(), batch.check(first));
+        Optional<String> conflict = batch.check(range("b", "100", "200"));
+
+        assertTrue(conflict.isPresent());
+        assertTrue(conflict.get().contains(first.id().toString()), conflict.get());
+        assertEquals(Optional.empty(), batch.check(range("c", "100.01", "200")));
+        verify(repository, times(1)).lockRangeScope(anyString());
+    }
+
+    @Test
+    void batchIgnoresStoredRulesOfOtherScopes() {
+        storedRanges(range("vendor", "0", "1000", "E", "USD", "V1", null));
+
+        assertEquals(Optional.empty(), validator.newBatch().check(range("a", "0", "100")));
+    }
+
+    @Test
+    void validateNoOverlapThrowsOnConflict() {
+        storedRanges(range("a", "0", "100"));
+
+        assertThrows(DoaRuleConflictException.class, () -> validator.validateNoOverlap(range("b", "99", "200")));
+    }
+
+    @Test
+    void overlapsAreAcceptedWhenRejectionIsDisabled() {
+        ReflectionTestUtils.setField(validator, "rejectOverlaps", false);
+        DoaRuleRangeValidator.Batch batch = validator.newBatch();
+
+        assertEquals(Optional.empty(), batch.check(range("a", "0", "100")));
+        assertEquals(Optional.empty(), batch.check(range("b", "50", "150")));
+    }
+
+    private void storedRanges(RuleRange... ranges) {
+        when(repository.findActiveRangesAtLevel(any(), any(), anyInt()))
+                .thenAnswer(invocation -> new ArrayList<>(List.of(ranges)));
+    }
+
+    private Set<String> audit(RuleRange... ranges) {
+        List<DoaRuleRangeIssue> issues = new ArrayList<>();
+        validator.audit(Stream.of(ranges), issues::add);
+        return issues.stream()
+                .map(issue -> issue.getType() + " " + names.get(issue.getRuleId()) + "/"
+                        + names.get(issue.getOtherRuleId()) + " " + issue.getFromAmount().toPlainString()
+                        + "-" + issue.getToAmount().toPlainString())
+                .collect(Collectors.toSet());
+    }
+
+    private RuleRange range(String name, String min, String max) {
+        return range(name, min, max, "E", "USD", null, null);
+    }
+
+    private RuleRange range(String name, String min, String max, String entity, String currency, String vendor,
+                            String classification) {
+        UUID id = UUID.randomUUID();
+        names.put(id, name);
+        return new RuleRange(id, entity, currency, 1, vendor, classification, new BigDecimal(min),
+                new BigDecimal(max));
+    }
+}
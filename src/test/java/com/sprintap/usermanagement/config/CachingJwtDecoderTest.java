@@ -0,0 +1,128 @@
+package com.sprintap.usermanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingJwtDecoderTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+    private final AtomicInteger decodes = new AtomicInteger();
+
+    private Instant expiresAt = START.plusSeconds(300);
+    private boolean rejectTokens;
+
+    private final CachingJwtDecoder decoder = new CachingJwtDecoder(token -> {
+        decodes.incrementAndGet();
+        if (rejectTokens) {
+            throw new BadJwtException("invalid signature");
+        }
+        return jwt(token, expiresAt);
+    }, 100, new SimpleMeterRegistry(), clock);
+
+    @Test
+    void servesVerifiedTokenFromCache() {
+        Jwt first = decoder.decode("token");
+
+        clock.advance(Duration.ofSeconds(299));
+        assertSame(first, decoder.decode("token"));
+        assertEquals(1, decodes.get());
+
+        decoder.decode("other");
+        assertEquals(2, decodes.get());
+    }
+
+    @Test
+    void tokenLeavesCacheAtExpiry() {
+        decoder.decode("token");
+
+        clock.advance(Duration.ofSeconds(300));
+        decoder.decode("token");
+
+        assertEquals(2, decodes.get());
+    }
+
+    @Test
+    void readsDoNotExtendExpiry() {
+        decoder.decode("token");
+        clock.advance(Duration.ofSeconds(200));
+        decoder.decode("token");
+
+        clock.advance(Duration.ofSeconds(100));
+        decoder.decode("token");
+
+        assertEquals(2, decodes.get());
+    }
+
+    @Test
+    void failedDecodesAreNotCached() {
+        rejectTokens = true;
+        assertThrows(BadJwtException.class, () -> decoder.decode("token"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("token"));
+        assertEquals(2, decodes.get());
+
+        rejectTokens = false;
+        decoder.decode("token");
+        assertEquals(3, decodes.get());
+    }
+
+    @Test
+    void tokensWithoutExpiryAreNotCached() {
+        expiresAt = null;
+        decoder.decode("token");
+        decoder.decode("token");
+
+        assertEquals(2, decodes.get());
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("subject")
+                .issuedAt(START)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.sprintap.usermanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactJwtAuthenticationConverterTest {
+
+    private final CompactJwtAuthenticationConverter converter =
+            new CompactJwtAuthenticationConverter("user-management", 100, new SimpleMeterRegistry());
+
+    @Test
+    void realmAndClientRolesArePrefixedAndUpperCased() {
+        AbstractAuthenticationToken authentication = converter.convert(jwt("token",
+                List.of("admin", "Priv_User_Management"), List.of("manager")));
+
+        assertEquals(Set.of("ROLE_ADMIN", "ROLE_PRIV_USER_MANAGEMENT", "ROLE_MANAGER"), names(authentication));
+        assertEquals("subject", authentication.getName());
+        assertTrue(authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        assertFalse(authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    void otherClientsRolesAreIgnored() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("subject")
+                .claim("resource_access", Map.of("other-client", Map.of("roles", List.of("admin"))))
+                .build();
+
+        assertEquals(Set.of(), names(converter.convert(jwt)));
+    }
+
+    @Test
+    void tokensWithoutRoleClaimsHaveNoAuthorities() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "RS256").subject("subject").build();
+
+        assertTrue(converter.convert(jwt).getAuthorities().isEmpty());
+    }
+
+    @Test
+    void tokensWithSameRolesShareAuthorities() {
+        // Equal but distinct claim lists, as two separately parsed tokens carry them
+        AbstractAuthenticationToken first = converter.convert(jwt("first",
+                new ArrayList<>(List.of("admin", "user")), new ArrayList<>(List.of("manager"))));
+        AbstractAuthenticationToken second = converter.convert(jwt("second",
+                new ArrayList<>(List.of("admin", "user")), new ArrayList<>(List.of("manager"))));
+        AbstractAuthenticationToken other = converter.convert(jwt("third", List.of("admin"), List.of()));
+
+        assertSame(first.getAuthorities(), second.getAuthorities());
+        assertEquals(Set.of("ROLE_ADMIN"), names(other));
+    }
+
+    static Jwt jwt(String tokenValue, List<String> realmRoles, List<String> clientRoles) {
+        return Jwt.withTokenValue(tokenValue)
+                .header("alg", "RS256")
+                .subject("subject")
+                .claim("realm_access", Map.of("roles", realmRoles))
+                .claim("resource_access", Map.of("user-management", Map.of("roles", clientRoles)))
+                .build();
+    }
+
+    private static Set<String> names(AbstractAuthenticationToken authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,138 @@
+package com.sprintap.usermanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CompactMethodSecurityExpressionHandlerTest {
+
+    // The checks used by the controllers, plus the prefix and unknown-authority cases
+    private static final List<String> EXPRESSIONS = List.of(
+            "hasRole('PRIV_USER_MANAGEMENT')",
+            "hasRole('ROLE_PRIV_USER_MANAGEMENT')",
+            "hasRole('ROLE_ADMIN')",
+            "hasRole('ADMIN')",
+            "hasRole('admin')",
+            "hasAnyRole('ROLE_ADMIN', 'ROLE_MANAGER')",
+            "hasAnyRole('MANAGER', 'USER')",
+            "hasRole('ROLE_USER') and hasRole('ROLE_PREMIUM')",
+            "hasAuthority('ROLE_ADMIN')",
+            "hasAuthority('ADMIN')",
+            "hasAnyAuthority('ROLE_MANAGER', 'ROLE_ADMIN')",
+            "hasRole('NEVER_REGISTERED')",
+            "hasAuthority('ROLE_NEVER_REGISTERED')",
+            "hasAnyRole('NEVER_REGISTERED', 'ALSO_NEVER_REGISTERED')",
+            "isAuthenticated() and principal != null");
+
+    private final CompactJwtAuthenticationConverter converter =
+            new CompactJwtAuthenticationConverter("user-management", 100, new SimpleMeterRegistry());
+    private final MethodSecurityExpressionHandler compactHandler = new CompactMethodSecurityExpressionHandler();
+    private final MethodSecurityExpressionHandler defaultHandler = new DefaultMethodSecurityExpressionHandler();
+
+    @Test
+    void prefixedAndUnprefixedRolesGiveSameResult() {
+        Authentication authentication = converter.convert(
+                CompactJwtAuthenticationConverterTest.jwt("token", List.of("admin"), List.of("priv_user_management")));
+
+        assertTrue(evaluate(compactHandler, "hasRole('ROLE_ADMIN')", authentication));
+        assertTrue(evaluate(compactHandler, "hasRole('ADMIN')", authentication));
+        assertTrue(evaluate(compactHandler, "hasRole('PRIV_USER_MANAGEMENT')", authentication));
+        assertTrue(evaluate(compactHandler, "hasAnyRole('ROLE_MANAGER', 'ADMIN')", authentication));
+        assertFalse(evaluate(compactHandler, "hasRole('MANAGER')", authentication));
+    }
+
+    @Test
+    void authorityNeverRegisteredIsNotGranted() {
+        Authentication authentication = converter.convert(
+                CompactJwtAuthenticationConverterTest.jwt("token", List.of("admin"), List.of()));
+
+        assertFalse(evaluate(compactHandler, "hasRole('NEVER_REGISTERED')", authentication));
+        assertFalse(evaluate(compactHandler, "hasAuthority('ROLE_NEVER_REGISTERED')", authentication));
+        assertFalse(evaluate(compactHandler, "hasAnyAuthority('ROLE_NEVER_REGISTERED')", authentication));
+    }
+
+    @Test
+    void compactChecksMatchDefaultRootForSameAuthorities() {
+        List<List<String>> roleSets = List.of(
+                List.of(),
+                List.of("admin"),
+                List.of("manager", "user"),
+                List.of("user", "premium", "PRIV_USER_MANAGEMENT"),
+                List.of("Admin", "manager", "priv_user_management"));
+
+        for (List<String> roles : roleSets) {
+            Jwt jwt = CompactJwtAuthenticationConverterTest.jwt("token", roles, List.of());
+            Authentication compact = converter.convert(jwt);
+            // What the removed converter produced: a plain token with ROLE_ + upper-cased names
+            Authentication plain = new JwtAuthenticationToken(jwt, roles.stream()
+                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
+                    .toList(), "subject");
+
+            for (String expression : EXPRESSIONS) {
+                assertEquals(evaluate(defaultHandler, expression, plain),
+                        evaluate(compactHandler, expression, compact), expression + " with " + roles);
+            }
+        }
+    }
+
+    @Test
+    void otherAuthenticationsFallBackToDefaultRoot() {
+        // Authorities the converter never registered must still be found through the delegate
+        Authentication authentication = new TestingAuthenticationToken("user", "password", "ROLE_AUDITOR");
+
+        assertTrue(evaluate(compactHandler, "hasRole('AUDITOR')", authentication));
+        assertTrue(evaluate(compactHandler, "hasAnyRole('ADMIN', 'ROLE_AUDITOR')", authentication));
+        assertTrue(evaluate(compactHandler, "hasAuthority('ROLE_AUDITOR')", authentication));
+        assertFalse(evaluate(compactHandler, "hasRole('ADMIN')", authentication));
+        for (String expression : EXPRESSIONS) {
+            assertEquals(evaluate(defaultHandler, expression, authentication),
+                    evaluate(compactHandler, expression, authentication), expression);
+        }
+    }
+
+    @Test
+    void compactRootReplacesDefaultRoot() {
+        Authentication authentication = converter.convert(
+                CompactJwtAuthenticationConverterTest.jwt("token", List.of("admin"), List.of()));
+
+        EvaluationContext context = compactHandler.createEvaluationContext(() -> authentication, invocation());
+
+        assertInstanceOf(CompactMethodSecurityExpressionHandler.CompactExpressionRoot.class,
+                context.getRootObject().getValue());
+    }
+
+    private static boolean evaluate(MethodSecurityExpressionHandler handler, String expression,
+                                    Authentication authentication) {
+        EvaluationContext context = handler.createEvaluationContext(() -> authentication, invocation());
+        return ExpressionUtils.evaluateAsBoolean(handler.getExpressionParser().parseExpression(expression), context);
+    }
+
+    private static MethodInvocation invocation() {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        try {
+            when(invocation.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        when(invocation.getThis()).thenReturn(new Object());
+        return invocation;
+    }
+}
@@ -0,0 +1,172 @@
+package com.sprintap.usermanagement.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrefetchedJwkSourceTest {
+
+    private static final String JWK_SET_URI = "http://keycloak/certs";
+
+    private static RSAKey oldKey;
+    private static RSAKey newKey;
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+
+    @TempDir
+    private Path tempDir;
+
+    private long now = 1_000_000;
+
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        oldKey = new RSAKeyGenerator(2048).keyID("old").generate();
+        newKey = new RSAKeyGenerator(2048).keyID("new").generate();
+    }
+
+    @Test
+    void readsSnapshotAtStartupWithoutFetching() throws Exception {
+        Path snapshot = tempDir.resolve("jwks.json");
+        Files.writeString(snapshot, new JWKSet(oldKey.toPublicJWK()).toString(true), StandardCharsets.UTF_8);
+
+        PrefetchedJwkSource source = source(snapshot.toString(), 30_000);
+
+        assertEquals(List.of("old"), keyIds(source.get(selector("old"), null)));
+        verify(restTemplate, never()).getForObject(JWK_SET_URI, String.class);
+    }
+
+    @Test
+    void ignoresUnreadableSnapshot() throws Exception {
+        Path snapshot = tempDir.resolve("jwks.json");
+        Files.writeString(snapshot, "not a jwk set", StandardCharsets.UTF_8);
+        when(restTemplate.getForObject(JWK_SET_URI, String.class)).thenReturn(jwkSet(oldKey));
+
+        PrefetchedJwkSource source = source(snapshot.toString(), 30_000);
+
+        assertEquals(List.of("old"), keyIds(source.get(selector("old"), null)));
+    }
+
+    @Test
+    void writesFetchedSetAsSnapshot() throws Exception {
+        Path snapshot = tempDir.resolve("keys").resolve("jwks.json");
+        when(restTemplate.getForObject(JWK_SET_URI, String.class)).thenReturn(jwkSet(oldKey, newKey));
+
+        source(snapshot.toString(), 30_000).refresh();
+
+        JWKSet written = JWKSet.parse(Files.readString(snapshot, StandardCharsets.UTF_8));
+        assertEquals(List.of("old", "new"), keyIds(written.getKeys()));
+        assertTrue(written.getKeys().stream().noneMatch(JWK::isPrivate));
+    }
+
+    @Test
+    void unknownKeyIdRefetchesAtMostOncePerInterval() throws Exception {
+        when(restTemplate.getForObject(JWK_SET_URI, String.class))
+                .thenReturn(jwkSet(oldKey), jwkSet(oldKey, newKey));
+        PrefetchedJwkSource source = source("", 30_000);
+        source.refresh();
+
+        // Unknown keys right after the scheduled fetch do not fetch again
+        now += 10_000;
+        assertEquals(List.of(), source.get(selector("new"), null));
+        assertEquals(List.of(), source.get(selector("unknown"), null));
+        verify(restTemplate, times(1)).getForObject(JWK_SET_URI, String.class);
+
+        // Once the interval has passed, a miss picks up the rotated key
+        now += 20_000;
+        assertEquals(List.of("new"), keyIds(source.get(selector("new"), null)));
+        assertEquals(List.of(), source.get(selector("unknown"), null));
+        verify(restTemplate, times(2)).getForObject(JWK_SET_URI, String.class);
+
+        // Known keys never fetch
+        now += 60_000;
+        assertEquals(List.of("old"), keyIds(source.get(selector("old"), null)));
+        verify(restTemplate, times(2)).getForObject(JWK_SET_URI, String.class);
+    }
+
+    @Test
+    void noKeysAndFailedFetchIsKeySourceError() {
+        when(restTemplate.getForObject(JWK_SET_URI, String.class)).thenThrow(new IllegalStateException("down"));
+        PrefetchedJwkSource source = source("", 30_000);
+
+        assertThrows(KeySourceException.class, () -> source.get(selector("old"), null));
+    }
+
+    @Test
+    void missDuringFetchDoesNotWaitForIt() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        String body = jwkSet(oldKey);
+        when(restTemplate.getForObject(eq(JWK_SET_URI), eq(String.class))).thenAnswer(invocation -> {
+            fetching.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return body;
+        });
+        Path snapshot = tempDir.resolve("jwks.json");
+        Files.writeString(snapshot, jwkSet(oldKey), StandardCharsets.UTF_8);
+        PrefetchedJwkSource source = source(snapshot.toString(), 0);
+
+        CompletableFuture<List<JWK>> slow = CompletableFuture.supplyAsync(() -> get(source, "unknown"));
+        assertTrue(fetching.await(10, TimeUnit.SECONDS));
+
+        // Answered from the current set while the first miss is still fetching
+        assertEquals(List.of(), CompletableFuture.supplyAsync(() -> get(source, "other"))
+                .get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("old"), keyIds(source.get(selector("old"), null)));
+
+        release.countDown();
+        assertEquals(List.of(), slow.get(10, TimeUnit.SECONDS));
+        verify(restTemplate, times(1)).getForObject(JWK_SET_URI, String.class);
+    }
+
+    private PrefetchedJwkSource source(String snapshotFile, long minRefreshIntervalMs) {
+        return new PrefetchedJwkSource(restTemplate, JWK_SET_URI, snapshotFile, minRefreshIntervalMs, () -> now);
+    }
+
+    private static List<JWK> get(PrefetchedJwkSource source, String keyId) {
+        try {
+            return source.get(selector(keyId), null);
+        } catch (KeySourceException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JWKSelector selector(String keyId) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(keyId).build());
+    }
+
+    private static String jwkSet(RSAKey... keys) {
+        // The private parts are included on purpose: the source must only keep and store the public keys
+        return new JWKSet(List.<JWK>of(keys)).toString(false);
+    }
+
+    private static List<String> keyIds(List<JWK> keys) {
+        return keys.stream().map(JWK::getKeyID).toList();
+    }
+}
@@ -0,0 +1,212 @@
+package com.sprintap.usermanagement.service;
+
+import com.sprintap.usermanagement.dto.TokenRequest;
+import com.sprintap.usermanagement.dto.TokenResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientTokenCacheTest {
+
+    private static final TokenRequest REQUEST = new TokenRequest("client", "secret", "client_credentials", "read");
+
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private long now;
+
+    private ClientTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ClientTokenCache(() -> now, pendingRefreshes::add);
+        ReflectionTestUtils.setField(cache, "expirySkewSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "refreshAheadSeconds", 60L);
+    }
+
+    @Test
+    void servesCachedTokenWithRemainingLifetime() {
+        cache.get(REQUEST, loader(300));
+
+        now = 100_000;
+        TokenResponse response = cache.get(REQUEST, loader(300));
+
+        assertEquals("token-1", response.getAccessToken());
+        assertEquals(200, response.getExpiresIn());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void reloadsOnceExpiryMinusSkewIsReached() {
+        cache.get(REQUEST, loader(300));
+
+        // Not requested between the refresh point and expiry minus skew, so nothing refreshed it
+        now = 270_000;
+        assertEquals("token-2", cache.get(REQUEST, loader(300)).getAccessToken());
+    }
+
+    @Test
+    void refreshesAheadInBackgroundWhileServingCachedToken() {
+        cache.get(REQUEST, loader(300));
+
+        // Refresh point: the later of half the lifetime (150 s) and 60 s before expiry (240 s)
+        now = 239_999;
+        cache.get(REQUEST, loader(300));
+        assertTrue(pendingRefreshes.isEmpty());
+
+        now = 240_000;
+        assertEquals("token-1", cache.get(REQUEST, loader(300)).getAccessToken());
+        assertEquals(1, pendingRefreshes.size());
+        // A refresh is already running: no second one
+        cache.get(REQUEST, loader(300));
+        assertEquals(1, pendingRefreshes.size());
+
+        pendingRefreshes.remove(0).run();
+        TokenResponse refreshed = cache.get(REQUEST, loader(300));
+        assertEquals("token-2", refreshed.getAccessToken());
+        assertEquals(300, refreshed.getExpiresIn());
+    }
+
+    @Test
+    void shortLivedTokenRefreshesAtHalfLifetime() {
+        cache.get(REQUEST, loader(100));
+
+        // 60 s before expiry would be 40 s, half the lifetime is later
+        now = 49_999;
+        cache.get(REQUEST, loader(100));
+        assertTrue(pendingRefreshes.isEmpty());
+
+        now = 50_000;
+        cache.get(REQUEST, loader(100));
+        assertEquals(1, pendingRefreshes.size());
+    }
+
+    @Test
+    void tokenShorterThanSkewIsNotCached() {
+        cache.get(REQUEST, loader(20));
+        TokenResponse second = cache.get(REQUEST, loader(20));
+
+        assertEquals("token-2", second.getAccessToken());
+        assertEquals(20, second.getExpiresIn());
+    }
+
+    @Test
+    void failedBackgroundRefreshKeepsServingCachedToken() {
+        cache.get(REQUEST, loader(300));
+        now = 240_000;
+        cache.get(REQUEST, request -> {
+            throw new IllegalStateException("Keycloak unavailable");
+        });
+
+        pendingRefreshes.remove(0).run();
+
+        assertEquals("token-1", cache.get(REQUEST, loader(300)).getAccessToken());
+    }
+
+    @Test
+    void failedCredentialsLeaveNoSlot() {
+        Function<TokenRequest, TokenResponse> rejecting = request -> {
+            loads.incrementAndGet();
+            throw new IllegalArgumentException("Invalid client credentials");
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(REQUEST, rejecting));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(REQUEST, rejecting));
+
+        assertEquals(2, loads.get());
+        assertTrue(slots().isEmpty());
+    }
+
+    @Test
+    void keysIncludeSecretAndScope() {
+        cache.get(REQUEST, loader(300));
+        cache.get(new TokenRequest("client", "rotated", "client_credentials", "read"), loader(300));
+        cache.get(new TokenRequest("client", "secret", "client_credentials", " read "), loader(300));
+        cache.get(new TokenRequest("client", "secret", "client_credentials", "write"), loader(300));
+
+        assertEquals(3, loads.get());
+        assertEquals(3, slots().size());
+    }
+
+    @Test
+    void sweepDropsExpiredTokens() {
+        cache.get(REQUEST, loader(300));
+
+        now = 299_999;
+        cache.sweep();
+        assertEquals(1, slots().size());
+
+        now = 300_000;
+        cache.sweep();
+        assertTrue(slots().isEmpty());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<TokenRequest, TokenResponse> slowLoader = request -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response("token-" + loads.incrementAndGet(), 300);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<TokenResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(REQUEST, slowLoader)));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            release.countDown();
+
+            for (Future<TokenResponse> result : results) {
+                assertEquals("token-1", result.get(5, TimeUnit.SECONDS).getAccessToken());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void returnedResponsesAreCopies() {
+        TokenResponse first = cache.get(REQUEST, loader(300));
+        first.setAccessToken("changed");
+
+        TokenResponse second = cache.get(REQUEST, loader(300));
+
+        assertEquals("token-1", second.getAccessToken());
+    }
+
+    private Function<TokenRequest, TokenResponse> loader(int expiresIn) {
+        return request -> response("token-" + loads.incrementAndGet(), expiresIn);
+    }
+
+    private static TokenResponse response(String accessToken, int expiresIn) {
+        return new TokenResponse(accessToken, expiresIn, 0, null, "Bearer", 0, null, "read");
+    }
+
+    private Map<?, ?> slots() {
+        return (Map<?, ?>) ReflectionTestUtils.getField(cache, "slots");
+    }
+}
@@ -0,0 +1,137 @@
+package com.sprintap.usermanagement.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.resource.GroupResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GroupMemberCountCacheTest {
+
+    private final GroupResource groupResource = mock(GroupResource.class);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private volatile int members = 3;
+    private volatile CountDownLatch loading;
+    private volatile CountDownLatch release;
+
+    private GroupMemberCountCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new GroupMemberCountCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        when(groupResource.members(anyInt(), anyInt(), eq(true))).thenAnswer(invocation -> {
+            int first = invocation.getArgument(0);
+            if (first == 0) {
+                loads.incrementAndGet();
+            }
+            // Read before blocking: the count reflects the membership when the load started
+            int total = members;
+            if (loading != null) {
+                loading.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            int size = invocation.getArgument(1);
+            return new ArrayList<>(Collections.nCopies(Math.max(0, Math.min(size, total - first)),
+                    new UserRepresentation()));
+        });
+    }
+
+    @Test
+    void servesCachedCountUntilEvicted() {
+        assertEquals(3, cache.getCount("g", groupResource));
+        members = 4;
+        assertEquals(3, cache.getCount("g", groupResource));
+
+        cache.evict("g");
+        assertEquals(4, cache.getCount("g", groupResource));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void countsEveryPage() {
+        members = 1_234;
+
+        assertEquals(1_234, cache.getCount("g", groupResource));
+    }
+
+    @Test
+    void loadOverlappingEvictionIsNotPublished() throws Exception {
+        blockLoads();
+        CompletableFuture<Integer> stale = CompletableFuture.supplyAsync(() -> cache.getCount("g", groupResource));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+        // Membership changes while the first load is still paging
+        members = 5;
+        cache.evict("g");
+        release.countDown();
+        assertEquals(3, stale.get(10, TimeUnit.SECONDS));
+
+        loading = null;
+        assertEquals(5, cache.getCount("g", groupResource));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void loadOverlappingPutDoesNotReplaceKnownCount() throws Exception {
+        blockLoads();
+        CompletableFuture<Integer> stale = CompletableFuture.supplyAsync(() -> cache.getCount("g", groupResource));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+        cache.put("g", 7);
+        release.countDown();
+        stale.get(10, TimeUnit.SECONDS);
+
+        assertEquals(7, cache.getCount("g", groupResource));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        blockLoads();
+        List<CompletableFuture<Integer>> callers = new ArrayList<>();
+        callers.add(CompletableFuture.supplyAsync(() -> cache.getCount("g", groupResource)));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            callers.add(CompletableFuture.supplyAsync(() -> cache.getCount("g", groupResource)));
+        }
+
+        release.countDown();
+        for (CompletableFuture<Integer> caller : callers) {
+            assertEquals(3, caller.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        when(groupResource.members(anyInt(), anyInt(), eq(true)))
+                .thenThrow(new IllegalStateException("Keycloak unavailable"))
+                .thenReturn(List.of(new UserRepresentation()));
+
+        assertThrows(IllegalStateException.class, () -> cache.getCount("g", groupResource));
+        assertEquals(1, cache.getCount("g", groupResource));
+    }
+
+    private void blockLoads() {
+        loading = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+}
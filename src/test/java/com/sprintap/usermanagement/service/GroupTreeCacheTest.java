@@ -0,0 +1,125 @@
+package com.sprintap.usermanagement.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.GroupResource;
+import org.keycloak.admin.client.resource.GroupsResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleMappingResource;
+import org.keycloak.admin.client.resource.RoleScopeResource;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GroupTreeCacheTest {
+
+    private final Keycloak keycloak = mock(Keycloak.class);
+    private final RoleScopeResource realmLevel = mock(RoleScopeResource.class);
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private GroupTreeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        RealmResource realmResource = mock(RealmResource.class);
+        GroupsResource groupsResource = mock(GroupsResource.class);
+        GroupResource groupResource = mock(GroupResource.class);
+        RoleMappingResource roleMappings = mock(RoleMappingResource.class);
+        when(keycloak.realm(anyString())).thenReturn(realmResource);
+        when(realmResource.groups()).thenReturn(groupsResource);
+        when(groupsResource.group(anyString())).thenReturn(groupResource);
+        when(groupResource.roles()).thenReturn(roleMappings);
+        when(roleMappings.realmLevel()).thenReturn(realmLevel);
+
+        cache = new GroupTreeCache(keycloak);
+        ReflectionTestUtils.setField(cache, "realm", "test");
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 600L);
+        GroupTreeCache.GroupNode finance = new GroupTreeCache.GroupNode("finance", "finance", "/finance", null,
+                List.of(), List.of(), List.of());
+        ReflectionTestUtils.setField(cache, "tree", new GroupTreeCache.GroupTree(Map.of("finance", finance),
+                List.of("finance"), System.currentTimeMillis()));
+    }
+
+    @Test
+    void rolesAreReloadedForTheGroup() {
+        when(realmLevel.listAll()).thenReturn(List.of(role("role_approver")));
+
+        cache.onGroupRolesChanged("finance");
+
+        assertEquals(List.of("role_approver"), roleNames("finance"));
+    }
+
+    @Test
+    void otherWritersDoNotWaitForRoleFetch() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(realmLevel.listAll()).thenAnswer(invocation -> {
+            if (fetches.incrementAndGet() == 1) {
+                fetching.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return List.of(role("role_stale"));
+            }
+            return List.of(role("role_current"));
+        });
+
+        CompletableFuture<Void> rolesChanged = CompletableFuture.runAsync(() -> cache.onGroupRolesChanged("finance"));
+        assertTrue(fetching.await(10, TimeUnit.SECONDS));
+
+        // Completes while the fetch is still blocked on Keycloak
+        CompletableFuture.runAsync(() -> cache.onGroupCreated("approvers", "approvers", "finance"))
+                .get(5, TimeUnit.SECONDS);
+        assertNotNull(cache.getTree().get("approvers"));
+
+        release.countDown();
+        rolesChanged.get(10, TimeUnit.SECONDS);
+
+        // The first fetch overlapped a write, so it was fetched again before publishing
+        assertEquals(2, fetches.get());
+        assertEquals(List.of("role_current"), roleNames("finance"));
+        assertNotNull(cache.getTree().get("approvers"));
+    }
+
+    @Test
+    void deletedGroupIsNotRestored() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(realmLevel.listAll()).thenAnswer(invocation -> {
+            fetching.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(role("role_approver"));
+        });
+
+        CompletableFuture<Void> rolesChanged = CompletableFuture.runAsync(() -> cache.onGroupRolesChanged("finance"));
+        assertTrue(fetching.await(10, TimeUnit.SECONDS));
+        cache.onGroupDeleted("finance");
+        release.countDown();
+        rolesChanged.get(10, TimeUnit.SECONDS);
+
+        assertNull(cache.getTree().get("finance"));
+    }
+
+    private List<String> roleNames(String groupId) {
+        return cache.getTree().get(groupId).roleMappings().stream().map(RoleRepresentation::getName).toList();
+    }
+
+    private static RoleRepresentation role(String name) {
+        RoleRepresentation role = new RoleRepresentation(name, null, false);
+        role.setId(name);
+        return role;
+    }
+}
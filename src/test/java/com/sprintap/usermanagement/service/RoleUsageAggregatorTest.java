@@ -0,0 +1,165 @@
+package com.sprintap.usermanagement.service;
+
+import com.sprintap.usermanagement.dto.RoleUsageDTO;
+import com.sprintap.usermanagement.dto.RoleUsageReportDTO;
+import com.sprintap.usermanagement.exception.ReportNotReadyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.GroupResource;
+import org.keycloak.admin.client.resource.GroupsResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleResource;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoleUsageAggregatorTest {
+
+    private final Keycloak keycloak = mock(Keycloak.class);
+    private final RolesResource rolesResource = mock(RolesResource.class);
+    private final GroupsResource groupsResource = mock(GroupsResource.class);
+    private final GroupTreeCache groupTreeCache = mock(GroupTreeCache.class);
+    private final GroupMemberCountCache memberCountCache = new GroupMemberCountCache();
+
+    private final List<RoleRepresentation> roles = new ArrayList<>();
+    private final Map<String, GroupTreeCache.GroupNode> nodes = new HashMap<>();
+
+    private RoleUsageAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        RealmResource realmResource = mock(RealmResource.class);
+        when(keycloak.realm(anyString())).thenReturn(realmResource);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(realmResource.groups()).thenReturn(groupsResource);
+        when(rolesResource.list()).thenReturn(roles);
+        when(groupTreeCache.getTree()).thenAnswer(invocation ->
+                new GroupTreeCache.GroupTree(Map.copyOf(nodes), List.of(), 0));
+        ReflectionTestUtils.setField(memberCountCache, "ttlSeconds", 300L);
+
+        aggregator = new RoleUsageAggregator(keycloak, memberCountCache, groupTreeCache);
+        ReflectionTestUtils.setField(aggregator, "realm", "test");
+    }
+
+    @Test
+    void countsMembersOfSubgroupsOfMappedGroups() {
+        // finance -> approvers -> senior; users in several of them are counted once
+        group("finance", null, List.of("approvers"), "u1", "u2");
+        group("approvers", "finance", List.of("senior"), "u2", "u3");
+        group("senior", "approvers", List.of(), "u4");
+        role("role_finance", List.of("finance"));
+
+        RoleUsageDTO usage = report().getRoles().get(0);
+
+        assertEquals(1, usage.getGroupCount());
+        assertEquals(4, usage.getGroupUserCount());
+    }
+
+    @Test
+    void subgroupMappedItselfIsNotCountedTwice() {
+        group("finance", null, List.of("approvers"), "u1");
+        group("approvers", "finance", List.of(), "u1", "u2");
+        role("role_finance", List.of("finance", "approvers"));
+
+        RoleUsageDTO usage = report().getRoles().get(0);
+
+        assertEquals(2, usage.getGroupCount());
+        assertEquals(2, usage.getGroupUserCount());
+    }
+
+    @Test
+    void singleGroupWithoutSubgroupsUsesMemberCount() {
+        group("finance", null, List.of(), "u1", "u2", "u3");
+        group("other", null, List.of(), "u4");
+        role("role_finance", List.of("finance"));
+
+        assertEquals(3, report().getRoles().get(0).getGroupUserCount());
+    }
+
+    @Test
+    void groupUnknownToTreeCountsItsOwnMembers() {
+        group("finance", null, List.of(), "u1", "u2");
+        nodes.remove("finance");
+        role("role_finance", List.of("finance"));
+
+        assertEquals(2, report().getRoles().get(0).getGroupUserCount());
+    }
+
+    @Test
+    void reportIsNotReadyUntilFirstAggregationCompletes() {
+        group("finance", null, List.of(), "u1");
+        role("role_finance", List.of("finance"));
+
+        assertThrows(ReportNotReadyException.class, aggregator::getReport);
+        aggregator.refresh();
+
+        assertEquals(1, aggregator.getReport().getRoles().size());
+    }
+
+    @Test
+    void failedRefreshKeepsPreviousReport() {
+        group("finance", null, List.of(), "u1");
+        role("role_finance", List.of("finance"));
+        aggregator.refresh();
+        RoleUsageReportDTO first = aggregator.getReport();
+
+        when(rolesResource.list()).thenThrow(new IllegalStateException("Keycloak unavailable"));
+        aggregator.refresh();
+
+        assertSame(first, aggregator.getReport());
+    }
+
+    private RoleUsageReportDTO report() {
+        aggregator.refresh();
+        return aggregator.getReport();
+    }
+
+    private void group(String id, String parentId, List<String> childIds, String... memberIds) {
+        nodes.put(id, new GroupTreeCache.GroupNode(id, id, "/" + id, parentId, childIds, List.of(), List.of()));
+        List<UserRepresentation> members = new ArrayList<>();
+        for (String memberId : memberIds) {
+            UserRepresentation user = new UserRepresentation();
+            user.setId(memberId);
+            members.add(user);
+        }
+        GroupResource groupResource = mock(GroupResource.class);
+        when(groupResource.members(eq(0), anyInt(), eq(true))).thenReturn(members);
+        when(groupsResource.group(id)).thenReturn(groupResource);
+    }
+
+    private void role(String name, List<String> groupIds) {
+        RoleRepresentation role = new RoleRepresentation(name, null, false);
+        role.setId(name + "-id");
+        roles.add(role);
+
+        Set<GroupRepresentation> groups = new LinkedHashSet<>();
+        for (String groupId : groupIds) {
+            GroupRepresentation group = new GroupRepresentation();
+            group.setId(groupId);
+            groups.add(group);
+        }
+        RoleResource roleResource = mock(RoleResource.class);
+        when(roleResource.getUserMembers(anyInt(), anyInt())).thenReturn(List.of());
+        when(roleResource.getRoleGroupMembers(eq(0), anyInt())).thenReturn(groups);
+        when(rolesResource.get(name)).thenReturn(roleResource);
+    }
+}
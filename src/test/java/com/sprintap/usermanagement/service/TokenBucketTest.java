@@ -0,0 +1,97 @@
+package com.sprintap.usermanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenReportsWaitForNextToken() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND, bucket.tryAcquire(0));
+        // A rejected request takes nothing
+        assertEquals(SECOND, bucket.tryAcquire(0));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(2, 4, 0);
+        long interval = SECOND / 4;
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        assertEquals(interval - 10, bucket.tryAcquire(10));
+        assertEquals(0, bucket.tryAcquire(interval));
+        assertEquals(interval, bucket.tryAcquire(interval));
+        // Idle time refills at most up to the burst
+        long later = 10 * SECOND;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void releaseGivesBackTakenToken() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        bucket.release(0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND, bucket.tryAcquire(0));
+    }
+
+    @Test
+    void releaseNeverExceedsBurst() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        bucket.tryAcquire(0);
+
+        bucket.release(0);
+        bucket.release(0);
+        bucket.release(0);
+
+        assertTrue(bucket.isFull(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND, bucket.tryAcquire(0));
+    }
+
+    @Test
+    void releaseAfterPartialRefillOnlyRefundsUpToFull() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        // Half a second later one and a half tokens are missing; giving one back leaves half a token missing
+        bucket.release(SECOND / 2);
+
+        assertEquals(0, bucket.tryAcquire(SECOND / 2));
+        assertEquals(SECOND / 2, bucket.tryAcquire(SECOND / 2));
+        bucket.release(SECOND);
+        bucket.release(SECOND);
+        assertTrue(bucket.isFull(SECOND));
+    }
+
+    @Test
+    void isFullOnceRefilled() {
+        TokenBucket bucket = new TokenBucket(5, 10, 0);
+        assertTrue(bucket.isFull(0));
+
+        bucket.tryAcquire(0);
+
+        assertFalse(bucket.isFull(SECOND / 10 - 1));
+        assertTrue(bucket.isFull(SECOND / 10));
+    }
+}
@@ -0,0 +1,157 @@
+package com.sprintap.usermanagement.service;
+
+import com.sprintap.usermanagement.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private long now;
+
+    private TokenRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new TokenRateLimiter(meterRegistry, () -> now);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "ipBurst", 3);
+        ReflectionTestUtils.setField(limiter, "ipRefillPerSecond", 1.0);
+        ReflectionTestUtils.setField(limiter, "clientBurst", 2);
+        ReflectionTestUtils.setField(limiter, "clientRefillPerSecond", 0.5);
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertEquals(1, TokenRateLimiter.toRetryAfter(0));
+        assertEquals(1, TokenRateLimiter.toRetryAfter(1));
+        assertEquals(1, TokenRateLimiter.toRetryAfter(SECOND));
+        assertEquals(2, TokenRateLimiter.toRetryAfter(SECOND + 1));
+        assertEquals(3, TokenRateLimiter.toRetryAfter(3 * SECOND - 1));
+    }
+
+    @Test
+    void sourceIpLimitRejectsAfterBurst() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("client-" + i, "10.0.0.1");
+        }
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("client-9", "10.0.0.1"));
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("auth.token.throttled").tag("limit", "ip").counter().count());
+        assertDoesNotThrow(() -> limiter.acquire("client-9", "10.0.0.2"));
+
+        now += SECOND;
+        assertDoesNotThrow(() -> limiter.acquire("client-9", "10.0.0.1"));
+    }
+
+    @Test
+    void failedCredentialsDoNotDrainClientBucket() {
+        // Requests for a client ID that never get a token, from many addresses
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire("victim", "10.0.1." + i);
+            limiter.release("victim");
+        }
+
+        assertDoesNotThrow(() -> limiter.acquire("victim", "10.0.2.1"));
+    }
+
+    @Test
+    void issuedTokensDrainClientBucket() {
+        limiter.acquire("client", "10.0.0.1");
+        limiter.acquire("client", "10.0.0.2");
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("client", "10.0.0.3"));
+        assertEquals(2, e.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("auth.token.throttled").tag("limit", "client").counter().count());
+        assertDoesNotThrow(() -> limiter.acquire("other", "10.0.0.3"));
+
+        now += 2 * SECOND;
+        assertDoesNotThrow(() -> limiter.acquire("client", "10.0.0.4"));
+    }
+
+    @Test
+    void concurrentRequestsCannotExceedClientBurst() throws Exception {
+        ReflectionTestUtils.setField(limiter, "ipBurst", 1_000);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        try {
+            List<Future<?>> requests = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String sourceIp = "10.0.3." + i;
+                requests.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        limiter.acquire("client", sourceIp);
+                        admitted.incrementAndGet();
+                    } catch (RateLimitExceededException e) {
+                        // Throttled
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> request : requests) {
+                request.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, admitted.get());
+        // Rejected requests took nothing: the client is available again after one refill interval per token
+        now += 2 * SECOND;
+        assertDoesNotThrow(() -> limiter.acquire("client", "10.0.0.1"));
+    }
+
+    @Test
+    void releaseOfUnknownClientIsIgnored() {
+        assertDoesNotThrow(() -> limiter.release("unknown"));
+        assertEquals(0.0, meterRegistry.get("auth.token.rate-limit.buckets").gauge().value());
+    }
+
+    @Test
+    void sweepDropsRefilledBuckets() {
+        limiter.acquire("client", "10.0.0.1");
+        assertEquals(2.0, meterRegistry.get("auth.token.rate-limit.buckets").gauge().value());
+
+        limiter.sweep();
+        assertEquals(2.0, meterRegistry.get("auth.token.rate-limit.buckets").gauge().value());
+
+        now += 2 * SECOND;
+        limiter.sweep();
+        assertEquals(0.0, meterRegistry.get("auth.token.rate-limit.buckets").gauge().value());
+    }
+
+    @Test
+    void disabledLimiterAllowsEverything() {
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("client", "10.0.0.1");
+        }
+        assertEquals(0.0, meterRegistry.get("auth.token.rate-limit.buckets").gauge().value());
+    }
+}